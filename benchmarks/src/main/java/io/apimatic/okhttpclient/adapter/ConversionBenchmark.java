@@ -0,0 +1,273 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.apimatic.coreinterfaces.http.HttpHeaders;
+import io.apimatic.coreinterfaces.http.Method;
+import io.apimatic.coreinterfaces.http.request.Request;
+import io.apimatic.coreinterfaces.http.response.Response;
+import io.apimatic.okhttpclient.adapter.benchmarks.CoreStubs;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+
+/**
+ * Measures the CPU cost of the request and response conversions OkClient performs on every call,
+ * independently of any network time.
+ *
+ * <p>Run with {@code -prof gc} to get the allocation rate per operation next to the timings. The
+ * response benchmarks include building the okhttp response they convert; subtract
+ * {@link #buildResponseBaseline()} to isolate the conversion itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    /**
+     * Media type of the JSON bodies.
+     */
+    private static final MediaType JSON = MediaType.get("application/json; charset=UTF-8");
+
+    /**
+     * Media type of the binary bodies.
+     */
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
+    /**
+     * Number of fields sent in the form body.
+     */
+    private static final int FORM_FIELDS = 16;
+
+    /**
+     * Size in bytes of the request and response bodies.
+     */
+    @Param({"256", "65536"})
+    public int bodySize;
+
+    /**
+     * Number of headers sent with each request.
+     */
+    @Param({"4", "64"})
+    public int headerCount;
+
+    /**
+     * The client whose conversions are measured.
+     */
+    private OkClient client;
+
+    /**
+     * A POST request with a JSON string body.
+     */
+    private Request jsonRequest;
+
+    /**
+     * A POST request with form fields.
+     */
+    private Request formRequest;
+
+    /**
+     * A POST request with a file part, an in-memory part and a plain field.
+     */
+    private Request multipartRequest;
+
+    /**
+     * The request headers in internal format.
+     */
+    private HttpHeaders requestHeaders;
+
+    /**
+     * The okhttp request the converted responses belong to.
+     */
+    private okhttp3.Request okHttpRequest;
+
+    /**
+     * The okhttp response headers.
+     */
+    private okhttp3.Headers responseHeaders;
+
+    /**
+     * The response body bytes.
+     */
+    private byte[] responseBytes;
+
+    /**
+     * The file uploaded by the multipart request.
+     */
+    private File uploadFile;
+
+    /**
+     * Prepares the requests and responses for the current parameters.
+     * @throws IOException If the upload file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        client = new OkClient(CoreStubs.clientConfiguration(0, null, true),
+                CoreStubs.compatibilityFactory());
+
+        String url = "https://localhost/api/resource?query=value";
+        String json = json(bodySize);
+        responseBytes = json.getBytes(StandardCharsets.UTF_8);
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        okhttp3.Headers.Builder responseHeadersBuilder = new okhttp3.Headers.Builder();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("x-header-" + i, Collections.singletonList("value-" + i));
+            responseHeadersBuilder.add("x-header-" + i, "value-" + i);
+        }
+        responseHeaders = responseHeadersBuilder.add("content-type", JSON.toString()).build();
+        requestHeaders = CoreStubs.headers(headers);
+
+        Map<String, List<String>> jsonHeaders = new LinkedHashMap<>(headers);
+        jsonHeaders.put("content-type", Collections.singletonList(JSON.toString()));
+        jsonRequest = CoreStubs.request(Method.POST, url, CoreStubs.headers(jsonHeaders), json,
+                null);
+
+        List<SimpleEntry<String, Object>> fields = new ArrayList<>();
+        for (int i = 0; i < FORM_FIELDS; i++) {
+            fields.add(new SimpleEntry<>("field" + i, json.substring(0,
+                    Math.min(json.length(), bodySize / FORM_FIELDS))));
+        }
+        formRequest = CoreStubs.request(Method.POST, url, CoreStubs.headers(headers), null,
+                fields);
+
+        uploadFile = File.createTempFile("okclient-benchmark", ".bin");
+        Files.write(uploadFile.toPath(), responseBytes);
+        List<SimpleEntry<String, Object>> parts = new ArrayList<>();
+        parts.add(new SimpleEntry<>("file\"name", CoreStubs.multipartFile(
+                CoreStubs.fileWrapper(uploadFile, OCTET_STREAM.toString()),
+                CoreStubs.headers(Collections.emptyMap()))));
+        parts.add(new SimpleEntry<>("metadata", CoreStubs.multipart(responseBytes,
+                CoreStubs.headers(Collections.singletonMap("content-type",
+                        Collections.singletonList(JSON.toString()))))));
+        parts.add(new SimpleEntry<>("description", "plain\r\nfield"));
+        multipartRequest = CoreStubs.request(Method.POST, url, CoreStubs.headers(headers), null,
+                parts);
+
+        okHttpRequest = new okhttp3.Request.Builder().url(url).build();
+    }
+
+    /**
+     * Deletes the upload file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!uploadFile.delete()) {
+            uploadFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * @return The converted JSON request.
+     */
+    @Benchmark
+    public okhttp3.Request convertJsonRequest() {
+        return client.convertRequest(jsonRequest);
+    }
+
+    /**
+     * @return The converted form request.
+     */
+    @Benchmark
+    public okhttp3.Request convertFormRequest() {
+        return client.convertRequest(formRequest);
+    }
+
+    /**
+     * @return The converted multipart request.
+     */
+    @Benchmark
+    public okhttp3.Request convertMultipartRequest() {
+        return client.convertRequest(multipartRequest);
+    }
+
+    /**
+     * @return The multipart body alone.
+     */
+    @Benchmark
+    public okhttp3.RequestBody createMultipartRequestBody() {
+        return client.createMultipartRequestBody(multipartRequest);
+    }
+
+    /**
+     * @return The okhttp headers built from the request headers.
+     */
+    @Benchmark
+    public okhttp3.Headers createRequestHeaders() {
+        return OkClient.createRequestHeaders(requestHeaders).build();
+    }
+
+    /**
+     * @return The quoted and encoded multipart parameter name.
+     */
+    @Benchmark
+    public String appendQuotedStringAndEncodeEscapeCharacters() {
+        return OkClient.appendQuotedStringAndEncodeEscapeCharacters(
+                "attachment\r\n\"report\" for the quarter.json");
+    }
+
+    /**
+     * @return The okhttp response the response benchmarks convert.
+     */
+    @Benchmark
+    public okhttp3.Response buildResponseBaseline() {
+        return buildResponse(JSON);
+    }
+
+    /**
+     * @return The converted string response.
+     * @throws IOException If the body cannot be read.
+     */
+    @Benchmark
+    public Response convertStringResponse() throws IOException {
+        return OkClient.convertResponse(null, buildResponse(JSON), false);
+    }
+
+    /**
+     * @return The converted binary response.
+     * @throws IOException If the body cannot be read.
+     */
+    @Benchmark
+    public Response convertBinaryResponse() throws IOException {
+        return OkClient.convertResponse(null, buildResponse(OCTET_STREAM), true);
+    }
+
+    private okhttp3.Response buildResponse(final MediaType mediaType) {
+        return new okhttp3.Response.Builder().request(okHttpRequest).protocol(Protocol.HTTP_1_1)
+                .code(200).message("OK").headers(responseHeaders)
+                .body(ResponseBody.create(responseBytes, mediaType)).build();
+    }
+
+    private static String json(final int size) {
+        StringBuilder body = new StringBuilder(size).append("{\"data\":\"");
+        while (body.length() < size - 2) {
+            body.append('x');
+        }
+        return body.append("\"}").toString();
+    }
+}
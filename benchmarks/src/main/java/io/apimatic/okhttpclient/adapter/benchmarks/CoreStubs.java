@@ -0,0 +1,267 @@
+package io.apimatic.okhttpclient.adapter.benchmarks;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import io.apimatic.coreinterfaces.compatibility.CompatibilityFactory;
+import io.apimatic.coreinterfaces.http.ClientConfiguration;
+import io.apimatic.coreinterfaces.http.HttpHeaders;
+import io.apimatic.coreinterfaces.http.HttpMethodType;
+import io.apimatic.coreinterfaces.http.Method;
+import io.apimatic.coreinterfaces.http.request.Multipart;
+import io.apimatic.coreinterfaces.http.request.MultipartFile;
+import io.apimatic.coreinterfaces.http.request.Request;
+import io.apimatic.coreinterfaces.http.request.configuration.CoreEndpointConfiguration;
+import io.apimatic.coreinterfaces.http.request.configuration.RetryOption;
+import io.apimatic.coreinterfaces.http.response.Response;
+import io.apimatic.coreinterfaces.type.CoreFileWrapper;
+import okhttp3.OkHttpClient;
+
+/**
+ * Lightweight implementations of the core interfaces needed to drive OkClient outside of an SDK.
+ *
+ * <p>The benchmarks cannot depend on a generated SDK, so the core interfaces are backed by
+ * dynamic proxies answering only the methods the adapter calls. Unknown methods answer with the
+ * zero value of their return type.
+ */
+public final class CoreStubs {
+
+    /**
+     * Request timeout in seconds.
+     */
+    private static final long TIMEOUT_SECONDS = 30L;
+
+    /**
+     * Back-off factor used when retries are enabled.
+     */
+    private static final int BACK_OFF_FACTOR = 2;
+
+    /**
+     * Maximum retry wait time in seconds.
+     */
+    private static final long MAXIMUM_RETRY_WAIT_TIME = 120L;
+
+    /**
+     * Status codes which are retried when retries are enabled.
+     */
+    private static final Set<Integer> STATUS_CODES_TO_RETRY = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(408, 413, 429, 500, 502, 503, 504, 521, 522, 524)));
+
+    private CoreStubs() {
+    }
+
+    /**
+     * Creates a client configuration.
+     * @param numberOfRetries The number of retries, zero disables the RetryInterceptor.
+     * @param httpClientInstance The OkHttpClient instance to build upon.
+     * @param overrideConfigurations Whether OkClient should apply its own configurations on it.
+     * @return The {@link ClientConfiguration}.
+     */
+    public static ClientConfiguration clientConfiguration(final int numberOfRetries,
+            final OkHttpClient httpClientInstance, final boolean overrideConfigurations) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getTimeout", args -> TIMEOUT_SECONDS);
+        answers.put("getNumberOfRetries", args -> numberOfRetries);
+        answers.put("getBackOffFactor", args -> BACK_OFF_FACTOR);
+        answers.put("getRetryInterval", args -> 1L);
+        answers.put("getHttpStatusCodesToRetry", args -> STATUS_CODES_TO_RETRY);
+        answers.put("getHttpMethodsToRetry",
+                args -> new HashSet<>(Arrays.asList(HttpMethodType.values())));
+        answers.put("getMaximumRetryWaitTime", args -> MAXIMUM_RETRY_WAIT_TIME);
+        answers.put("shouldRetryOnTimeout", args -> true);
+        answers.put("getHttpClientInstance", args -> httpClientInstance);
+        answers.put("shouldOverrideHttpClientConfigurations", args -> overrideConfigurations);
+        return stub(ClientConfiguration.class, answers);
+    }
+
+    /**
+     * Creates an endpoint configuration.
+     * @param hasBinaryResponse Whether the response is consumed as a stream.
+     * @return The {@link CoreEndpointConfiguration}.
+     */
+    public static CoreEndpointConfiguration endpointConfiguration(
+            final boolean hasBinaryResponse) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("hasBinaryResponse", args -> hasBinaryResponse);
+        answers.put("getRetryOption", args -> RetryOption.DEFAULT);
+        return stub(CoreEndpointConfiguration.class, answers);
+    }
+
+    /**
+     * Creates a request.
+     * @param method The HTTP method.
+     * @param queryUrl The fully qualified URL.
+     * @param headers The request headers.
+     * @param body The request body, may be null.
+     * @param parameters The form or multipart parameters, may be null.
+     * @return The {@link Request}.
+     */
+    public static Request request(final Method method, final String queryUrl,
+            final HttpHeaders headers, final Object body,
+            final List<SimpleEntry<String, Object>> parameters) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getHttpMethod", args -> method);
+        answers.put("getQueryUrl", args -> queryUrl);
+        answers.put("getHeaders", args -> headers);
+        answers.put("getBody", args -> body);
+        answers.put("getParameters", args -> parameters);
+        return stub(Request.class, answers);
+    }
+
+    /**
+     * Creates a file wrapper.
+     * @param file The wrapped file.
+     * @param contentType The content type of the file, may be null.
+     * @return The {@link CoreFileWrapper}.
+     */
+    public static CoreFileWrapper fileWrapper(final File file, final String contentType) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getFile", args -> file);
+        answers.put("getContentType", args -> contentType);
+        return stub(CoreFileWrapper.class, answers);
+    }
+
+    /**
+     * Creates a multipart file part.
+     * @param fileWrapper The wrapped file.
+     * @param headers The part headers.
+     * @return The {@link MultipartFile}.
+     */
+    public static MultipartFile multipartFile(final CoreFileWrapper fileWrapper,
+            final HttpHeaders headers) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getFileWrapper", args -> fileWrapper);
+        answers.put("getHeaders", args -> headers);
+        return stub(MultipartFile.class, answers);
+    }
+
+    /**
+     * Creates an in-memory multipart part.
+     * @param content The part content.
+     * @param headers The part headers, including its content type.
+     * @return The {@link Multipart}.
+     */
+    public static Multipart multipart(final byte[] content, final HttpHeaders headers) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getByteArray", args -> content);
+        answers.put("getHeaders", args -> headers);
+        return stub(Multipart.class, answers);
+    }
+
+    /**
+     * Creates a compatibility factory which builds headers and responses.
+     * @return The {@link CompatibilityFactory}.
+     */
+    public static CompatibilityFactory compatibilityFactory() {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("createHttpHeaders", CoreStubs::createHttpHeaders);
+        answers.put("createHttpResponse", CoreStubs::createHttpResponse);
+        return stub(CompatibilityFactory.class, answers);
+    }
+
+    /**
+     * Creates a mutable, case insensitive set of headers.
+     * @param headers The initial header values.
+     * @return The {@link HttpHeaders}.
+     */
+    public static HttpHeaders headers(final Map<String, List<String>> headers) {
+        Map<String, List<String>> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            values.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("has", args -> values.containsKey((String) args[0]));
+        answers.put("value", args -> {
+            List<String> list = values.get((String) args[0]);
+            return list == null || list.isEmpty() ? null : list.get(0);
+        });
+        answers.put("values", args -> values.get((String) args[0]));
+        answers.put("add", args -> values.computeIfAbsent((String) args[0],
+                key -> new ArrayList<>()).add((String) args[1]));
+        answers.put("remove", args -> values.remove((String) args[0]));
+        answers.put("asMultimap", args -> values);
+        answers.put("getNames", args -> values.keySet());
+        return stub(HttpHeaders.class, answers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object createHttpHeaders(final Object[] args) {
+        if (args[0] instanceof HttpHeaders) {
+            return headers(((HttpHeaders) args[0]).asMultimap());
+        }
+        return headers((Map<String, List<String>>) args[0]);
+    }
+
+    private static Object createHttpResponse(final Object[] args) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getStatusCode", any -> args[0]);
+        answers.put("getHeaders", any -> args[1]);
+        answers.put("getRawBody", any -> (InputStream) args[2]);
+        answers.put("getBody", any -> args.length > 3 ? args[3] : null);
+        return stub(Response.class, answers);
+    }
+
+    private static <T> T stub(final Class<T> type,
+            final Map<String, Function<Object[], Object>> answers) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return coerce(answer.apply(args), method.getReturnType());
+            }
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    return coerce(null, method.getReturnType());
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                handler));
+    }
+
+    private static Object coerce(final Object value, final Class<?> returnType) {
+        if (!returnType.isPrimitive() || returnType == void.class) {
+            return value;
+        }
+        if (returnType == boolean.class) {
+            return value != null && (Boolean) value;
+        }
+        Number number = value == null ? 0 : (Number) value;
+        if (returnType == int.class) {
+            return number.intValue();
+        }
+        if (returnType == long.class) {
+            return number.longValue();
+        }
+        if (returnType == double.class) {
+            return number.doubleValue();
+        }
+        if (returnType == float.class) {
+            return number.floatValue();
+        }
+        if (returnType == short.class) {
+            return number.shortValue();
+        }
+        if (returnType == byte.class) {
+            return number.byteValue();
+        }
+        return value;
+    }
+}
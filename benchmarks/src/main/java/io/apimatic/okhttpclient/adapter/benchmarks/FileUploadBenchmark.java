@@ -0,0 +1,119 @@
+package io.apimatic.okhttpclient.adapter.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.apimatic.okhttpclient.adapter.ChannelFileRequestBody;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Measures the write of a file request body into a sink discarding the bytes, for the default
+ * OkHttp file body and the {@link ChannelFileRequestBody} of {@code channelFileUploads}. The
+ * sink stands in for the connection, whose cost is the same for both bodies, so the scores only
+ * differ by the reads of the file.
+ *
+ * <p>The file is written once per trial and stays in the page cache, so the reads are not
+ * bound by the disk. The average time of a whole upload is reported in milliseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class FileUploadBenchmark {
+
+    /**
+     * Content type of the uploaded file.
+     */
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
+    /**
+     * Size in bytes of the uploaded file.
+     */
+    @Param({"1048576", "67108864"})
+    public int fileSize;
+
+    /**
+     * Size in bytes of the direct buffer of the {@link ChannelFileRequestBody}.
+     */
+    @Param({"65536"})
+    public int bufferSize;
+
+    /**
+     * The uploaded file.
+     */
+    private File file;
+
+    /**
+     * The body reading the file through its channel, reused like a retried request body.
+     */
+    private RequestBody channelBody;
+
+    /**
+     * The sink discarding the written bytes.
+     */
+    private BufferedSink sink;
+
+    /**
+     * Writes the uploaded file and creates the bodies for the current parameters.
+     * @throws IOException If the file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] content = new byte[fileSize];
+        new Random(fileSize).nextBytes(content);
+        file = File.createTempFile("upload", ".bin");
+        Files.write(file.toPath(), content);
+        channelBody = new ChannelFileRequestBody(file, OCTET_STREAM, bufferSize, null);
+        sink = Okio.buffer(Okio.blackhole());
+    }
+
+    /**
+     * Deletes the uploaded file.
+     * @throws IOException If the sink cannot be closed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sink.close();
+        Files.delete(file.toPath());
+    }
+
+    /**
+     * Writes the default OkHttp file body, reading the file 8 KiB at a time.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public void defaultFileBody() throws IOException {
+        RequestBody.create(file, OCTET_STREAM).writeTo(sink);
+        sink.flush();
+    }
+
+    /**
+     * Writes the body reading the file through its channel into a direct buffer.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public void channelFileBody() throws IOException {
+        channelBody.writeTo(sink);
+        sink.flush();
+    }
+}
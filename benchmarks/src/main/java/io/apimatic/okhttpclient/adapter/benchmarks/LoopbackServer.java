@@ -0,0 +1,68 @@
+package io.apimatic.okhttpclient.adapter.benchmarks;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * An in-process HTTP server bound to the loopback interface, answering every request with the
+ * same canned response so that measurements are dominated by the client.
+ */
+public final class LoopbackServer implements AutoCloseable {
+
+    /**
+     * The underlying server.
+     */
+    private final MockWebServer server;
+
+    /**
+     * Starts a server speaking the given protocol.
+     * @param protocol Either {@link Protocol#HTTP_1_1} or {@link Protocol#H2_PRIOR_KNOWLEDGE}.
+     * @param responseBody The body served for every request.
+     * @param contentType The content type of the served body.
+     * @throws IOException If the server cannot be bound.
+     */
+    public LoopbackServer(final Protocol protocol, final byte[] responseBody,
+            final String contentType) throws IOException {
+        this.server = new MockWebServer();
+        this.server.setProtocols(Collections.singletonList(protocol));
+        this.server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                return new MockResponse().setResponseCode(200)
+                        .setHeader("Content-Type", contentType)
+                        .setBody(new Buffer().write(responseBody));
+            }
+        });
+        this.server.start(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    /**
+     * @return The base URL of the server, ending with a slash.
+     */
+    public String url() {
+        return server.url("/").toString();
+    }
+
+    /**
+     * Drops the requests recorded by the server so that long runs do not accumulate them.
+     * @throws InterruptedException If interrupted while draining.
+     */
+    public void drainRecordedRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // Nothing to do, the request is only being discarded.
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
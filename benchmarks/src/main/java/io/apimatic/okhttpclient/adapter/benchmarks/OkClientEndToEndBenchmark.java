@@ -0,0 +1,175 @@
+package io.apimatic.okhttpclient.adapter.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.apimatic.coreinterfaces.http.ClientConfiguration;
+import io.apimatic.coreinterfaces.http.Method;
+import io.apimatic.coreinterfaces.http.request.Request;
+import io.apimatic.coreinterfaces.http.request.configuration.CoreEndpointConfiguration;
+import io.apimatic.coreinterfaces.http.response.Response;
+import io.apimatic.okhttpclient.adapter.OkClient;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Measures OkClient end to end against a loopback server, for the synchronous and asynchronous
+ * paths, over HTTP/1.1 and cleartext HTTP/2, with and without the adapter interceptors.
+ *
+ * <p>Throughput is reported in operations per microsecond and {@link Mode#SampleTime} reports
+ * the p50, p99 and p99.9 latencies in microseconds. Use {@code -rf json} to get machine readable
+ * results, whose {@code scoreUnit} carries the unit of each score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class OkClientEndToEndBenchmark {
+
+    /**
+     * Number of retries configured when the RetryInterceptor is enabled.
+     */
+    private static final int NUMBER_OF_RETRIES = 3;
+
+    /**
+     * The wire protocol, either HTTP_1_1 or H2_PRIOR_KNOWLEDGE.
+     */
+    @Param({"HTTP_1_1", "H2_PRIOR_KNOWLEDGE"})
+    public String protocol;
+
+    /**
+     * The adapter interceptors registered on the client.
+     * <ul>
+     * <li>NONE: the OkHttpClient is used as is, without any adapter interceptor.</li>
+     * <li>REDIRECT: only the HttpRedirectInterceptor is registered.</li>
+     * <li>REDIRECT_AND_RETRY: HttpRedirectInterceptor and RetryInterceptor are registered.</li>
+     * </ul>
+     */
+    @Param({"NONE", "REDIRECT", "REDIRECT_AND_RETRY"})
+    public String interceptors;
+
+    /**
+     * Size in bytes of the JSON response body.
+     */
+    @Param({"1024"})
+    public int responseSize;
+
+    /**
+     * The loopback server.
+     */
+    private LoopbackServer server;
+
+    /**
+     * The OkHttpClient OkClient is built upon.
+     */
+    private OkHttpClient okHttpClient;
+
+    /**
+     * The client under test.
+     */
+    private OkClient client;
+
+    /**
+     * The request sent on every invocation.
+     */
+    private Request request;
+
+    /**
+     * The endpoint configuration sent on every invocation.
+     */
+    private CoreEndpointConfiguration endpointConfiguration;
+
+    /**
+     * Starts the server and builds the client for the current parameters.
+     * @throws IOException If the server cannot be started.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Protocol wireProtocol = Protocol.valueOf(protocol);
+        server = new LoopbackServer(wireProtocol, jsonBody(responseSize),
+                "application/json; charset=UTF-8");
+
+        okHttpClient = new OkHttpClient.Builder()
+                .protocols(wireProtocol == Protocol.HTTP_1_1
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(wireProtocol))
+                .build();
+
+        boolean override = !"NONE".equals(interceptors);
+        int retries = "REDIRECT_AND_RETRY".equals(interceptors) ? NUMBER_OF_RETRIES : 0;
+        ClientConfiguration configuration =
+                CoreStubs.clientConfiguration(retries, okHttpClient, override);
+        client = new OkClient(configuration, CoreStubs.compatibilityFactory());
+
+        request = CoreStubs.request(Method.GET, server.url() + "resource",
+                CoreStubs.headers(Collections.singletonMap("accept",
+                        Collections.singletonList("application/json"))),
+                null, null);
+        endpointConfiguration = CoreStubs.endpointConfiguration(false);
+    }
+
+    /**
+     * Discards the requests recorded by the server during the iteration.
+     * @throws InterruptedException If interrupted while draining.
+     */
+    @TearDown(Level.Iteration)
+    public void drain() throws InterruptedException {
+        server.drainRecordedRequests();
+    }
+
+    /**
+     * Stops the server and releases the client resources.
+     * @throws IOException If the server cannot be stopped.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        okHttpClient.dispatcher().executorService().shutdown();
+        okHttpClient.connectionPool().evictAll();
+        server.close();
+    }
+
+    /**
+     * @return The response of a blocking call.
+     * @throws IOException If the call fails.
+     */
+    @Benchmark
+    public Response execute() throws IOException {
+        return client.execute(request, endpointConfiguration);
+    }
+
+    /**
+     * @return The response of an asynchronous call, awaited by the benchmark thread.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws ExecutionException If the call fails.
+     */
+    @Benchmark
+    public Response executeAsync() throws InterruptedException, ExecutionException {
+        return client.executeAsync(request, endpointConfiguration).get();
+    }
+
+    private static byte[] jsonBody(final int size) {
+        StringBuilder body = new StringBuilder(size).append("{\"data\":\"");
+        while (body.length() < size - 2) {
+            body.append('x');
+        }
+        return body.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
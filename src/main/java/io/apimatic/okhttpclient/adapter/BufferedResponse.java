@@ -0,0 +1,80 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A string response read into memory, which can be handed to several callers: each of them
+ * gets its own view of the body.
+ */
+public final class BufferedResponse {
+
+    /**
+     * The status code of the response.
+     */
+    private final int code;
+
+    /**
+     * The headers of the response.
+     */
+    private final Map<String, List<String>> headers;
+
+    /**
+     * The buffered body of the response.
+     */
+    private final BufferedResponseBody body;
+
+    /**
+     * Initialization constructor.
+     * @param code The status code of the response.
+     * @param headers The headers of the response.
+     * @param body The buffered body of the response.
+     */
+    public BufferedResponse(final int code, final Map<String, List<String>> headers,
+            final BufferedResponseBody body) {
+        this.code = code;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Reads the body of an okhttp response fully and closes the response.
+     * @param response The okhttp response.
+     * @return The buffered response.
+     * @throws IOException If the body cannot be read.
+     */
+    public static BufferedResponse read(okhttp3.Response response) throws IOException {
+        BufferedResponseBody body;
+        try {
+            body = BufferedResponseBody.read(response.body());
+        } finally {
+            response.close();
+        }
+        return new BufferedResponse(response.code(), response.headers().toMultimap(), body);
+    }
+
+    /**
+     * Getter for the status code of the response.
+     * @return The status code.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Getter for the headers of the response.
+     * @return The headers.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Getter for the buffered body of the response.
+     * @return The body.
+     */
+    public BufferedResponseBody getBody() {
+        return body;
+    }
+}
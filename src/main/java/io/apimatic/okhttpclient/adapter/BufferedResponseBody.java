@@ -0,0 +1,153 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * A response body read into memory once, exposed both as a stream over the raw bytes and as a
+ * string decoded on first use with the charset of its Content-Type.
+ */
+public final class BufferedResponseBody {
+
+    /**
+     * UTF-8 byte order mark.
+     */
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /**
+     * UTF-16 big endian byte order mark.
+     */
+    private static final byte[] UTF_16_BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+
+    /**
+     * UTF-16 little endian byte order mark.
+     */
+    private static final byte[] UTF_16_LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+
+    /**
+     * The raw body bytes, never copied after being read.
+     */
+    private final byte[] bytes;
+
+    /**
+     * The media type of the body, may be null.
+     */
+    private final MediaType contentType;
+
+    /**
+     * The decoded body, null until first requested.
+     */
+    private volatile String string;
+
+    /**
+     * Initialization constructor.
+     * @param bytes The raw body bytes.
+     * @param contentType The media type of the body, may be null.
+     */
+    public BufferedResponseBody(final byte[] bytes, final MediaType contentType) {
+        this.bytes = bytes;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Reads the given body fully. When the Content-Length is known the bytes are read straight
+     * into an array of that size, otherwise they are collected by okio and copied once.
+     * @param body The okhttp response body, not closed by this method.
+     * @return The buffered body.
+     * @throws IOException If the body cannot be read or is shorter than its Content-Length.
+     */
+    public static BufferedResponseBody read(final ResponseBody body) throws IOException {
+        long contentLength = body.contentLength();
+        if (contentLength > Integer.MAX_VALUE) {
+            throw new IOException("Cannot buffer entire body for content length: "
+                    + contentLength);
+        }
+
+        BufferedSource source = body.source();
+        byte[] bytes;
+        if (contentLength >= 0) {
+            bytes = new byte[(int) contentLength];
+            source.readFully(bytes);
+            if (!source.exhausted()) {
+                throw new IOException("Content-Length (" + contentLength
+                        + ") and stream length disagree");
+            }
+        } else {
+            bytes = source.readByteArray();
+        }
+        return new BufferedResponseBody(bytes, body.contentType());
+    }
+
+    /**
+     * @return The media type of the body, may be null.
+     */
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    /**
+     * @return The number of bytes in the body.
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * @return A new stream over the raw bytes, without copying them.
+     */
+    public InputStream byteStream() {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Decodes the body on the first call and returns the same string afterwards. A byte order
+     * mark takes precedence over the Content-Type charset, which defaults to UTF-8.
+     * @return The decoded body.
+     */
+    public String string() {
+        String decoded = string;
+        if (decoded == null) {
+            decoded = decode();
+            string = decoded;
+        }
+        return decoded;
+    }
+
+    private String decode() {
+        if (startsWith(UTF_8_BOM)) {
+            return decode(UTF_8_BOM.length, StandardCharsets.UTF_8);
+        }
+        if (startsWith(UTF_16_BE_BOM)) {
+            return decode(UTF_16_BE_BOM.length, StandardCharsets.UTF_16BE);
+        }
+        if (startsWith(UTF_16_LE_BOM)) {
+            return decode(UTF_16_LE_BOM.length, StandardCharsets.UTF_16LE);
+        }
+
+        Charset charset = contentType == null ? StandardCharsets.UTF_8
+                : contentType.charset(StandardCharsets.UTF_8);
+        return decode(0, charset);
+    }
+
+    private String decode(final int offset, final Charset charset) {
+        return new String(bytes, offset, bytes.length - offset, charset);
+    }
+
+    private boolean startsWith(final byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,297 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Dns;
+
+/**
+ * A {@link Dns} caching the addresses of the hosts, independently of the JVM address cache, as
+ * set by a {@link DnsCacheConfiguration}. The resolutions run on shared daemon threads, and the
+ * concurrent lookups of a host share a single resolution. An entry used after its refresh-ahead
+ * time is resolved again in the background while it is still served. Once expired, it is still
+ * served for up to one more time to live when the resolver is slower than the stale timeout or
+ * fails. The JVM cache set by networkaddress.cache.ttl applies below this cache, and should not
+ * be longer than the time to live for the refreshes to see the changes.
+ */
+public final class CachingDns implements Dns {
+
+    /**
+     * Name of the resolver threads.
+     */
+    private static final String THREAD_NAME = "OkClient DNS resolver";
+
+    /**
+     * The threads running the resolutions, created on demand and stopped once idle.
+     */
+    private static final ExecutorService RESOLVER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The resolver of the host names.
+     */
+    private final Dns delegate;
+
+    /**
+     * Time to live of the resolved addresses, in nanoseconds.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Time to live of the failed resolutions, in nanoseconds.
+     */
+    private final long negativeTtlNanos;
+
+    /**
+     * Age in nanoseconds after which a used entry is refreshed.
+     */
+    private final long refreshAheadNanos;
+
+    /**
+     * Longest wait in milliseconds for the resolver before an expired entry is served.
+     */
+    private final long staleTimeoutMillis;
+
+    /**
+     * The entry of each host.
+     */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The resolution in progress of each host.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Entry>> resolutions =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Lookups answered by an unexpired entry.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Lookups answered by an expired entry.
+     */
+    private final LongAdder staleHitCount = new LongAdder();
+
+    /**
+     * Lookups waiting for a resolution.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Resolutions done by the resolver.
+     */
+    private final LongAdder resolveCount = new LongAdder();
+
+    /**
+     * Resolutions that failed.
+     */
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * Time in nanoseconds spent by the resolver.
+     */
+    private final LongAdder resolveTimeNanos = new LongAdder();
+
+    /**
+     * Initialization constructor.
+     * @param configuration The settings of the cache.
+     */
+    public CachingDns(final DnsCacheConfiguration configuration) {
+        this.delegate = configuration.getDelegate();
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getTtlMillis());
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getNegativeTtlMillis());
+        this.refreshAheadNanos = (long) (ttlNanos * configuration.getRefreshAheadRatio());
+        this.staleTimeoutMillis = configuration.getStaleTimeoutMillis();
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        long now = System.nanoTime();
+        Entry entry = entries.get(hostname);
+        if (entry != null && now - entry.expiresAtNanos < 0) {
+            hitCount.increment();
+            if (entry.addresses != null && now - entry.refreshAtNanos >= 0) {
+                resolve(hostname);
+            }
+            return entry.getAddresses(hostname);
+        }
+
+        if (entry == null || entry.addresses == null || now - entry.expiresAtNanos >= ttlNanos) {
+            missCount.increment();
+            return await(hostname, resolve(hostname)).getAddresses(hostname);
+        }
+        if (now - entry.refreshAtNanos < 0) {
+            // The last resolution failed, it is retried after the negative time to live
+            staleHitCount.increment();
+            return entry.addresses;
+        }
+
+        CompletableFuture<Entry> resolution = resolve(hostname);
+        Entry resolved = awaitStale(hostname, resolution);
+        if (resolved == null || resolved.addresses == null) {
+            staleHitCount.increment();
+            return entry.addresses;
+        }
+        missCount.increment();
+        return resolved.addresses;
+    }
+
+    /**
+     * Takes a snapshot of the counters of the cache.
+     * @return The statistics.
+     */
+    public DnsCacheStatistics getStatistics() {
+        return new DnsCacheStatistics(hitCount.sum(), staleHitCount.sum(), missCount.sum(),
+                resolveCount.sum(), failureCount.sum(), resolveTimeNanos.sum());
+    }
+
+    /**
+     * Starts the resolution of a host, unless one is in progress.
+     * @param hostname The host name.
+     * @return The future of the resolution, never completed exceptionally.
+     */
+    private CompletableFuture<Entry> resolve(String hostname) {
+        CompletableFuture<Entry> resolution = resolutions.get(hostname);
+        if (resolution != null) {
+            return resolution;
+        }
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        resolution = resolutions.putIfAbsent(hostname, created);
+        if (resolution != null) {
+            return resolution;
+        }
+        RESOLVER.execute(() -> complete(hostname, created));
+        return created;
+    }
+
+    private void complete(String hostname, CompletableFuture<Entry> resolution) {
+        long start = System.nanoTime();
+        Entry resolved;
+        try {
+            List<InetAddress> addresses = delegate.lookup(hostname);
+            long now = System.nanoTime();
+            resolved = new Entry(Collections.unmodifiableList(new ArrayList<>(addresses)), null,
+                    now + refreshAheadNanos, now + ttlNanos);
+        } catch (UnknownHostException | RuntimeException e) {
+            failureCount.increment();
+            String message = e.getMessage() != null ? e.getMessage() : hostname;
+            long now = System.nanoTime();
+            resolved = new Entry(null, message, now + negativeTtlNanos, now + negativeTtlNanos);
+        }
+        resolveCount.increment();
+        resolveTimeNanos.add(System.nanoTime() - start);
+
+        store(hostname, resolved);
+        resolutions.remove(hostname, resolution);
+        resolution.complete(resolved);
+    }
+
+    /**
+     * Stores a resolution. A failure does not replace the addresses of a host, which remain
+     * served within their stale window, but delays their next refresh by the negative time to
+     * live.
+     * @param hostname The host name.
+     * @param resolved The resolution.
+     */
+    private void store(String hostname, Entry resolved) {
+        Entry existing = entries.get(hostname);
+        if (resolved.addresses != null) {
+            entries.put(hostname, resolved);
+        } else if (existing != null && existing.addresses != null) {
+            entries.put(hostname, new Entry(existing.addresses, null, resolved.refreshAtNanos,
+                    existing.expiresAtNanos));
+        } else if (negativeTtlNanos > 0) {
+            entries.put(hostname, resolved);
+        } else {
+            entries.remove(hostname);
+        }
+    }
+
+    private static Entry await(String hostname, CompletableFuture<Entry> resolution)
+            throws UnknownHostException {
+        try {
+            return resolution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unknownHost(hostname, e);
+        } catch (ExecutionException e) {
+            throw unknownHost(hostname, e.getCause());
+        }
+    }
+
+    private Entry awaitStale(String hostname, CompletableFuture<Entry> resolution)
+            throws UnknownHostException {
+        try {
+            return resolution.get(staleTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unknownHost(hostname, e);
+        } catch (ExecutionException e) {
+            throw unknownHost(hostname, e.getCause());
+        }
+    }
+
+    private static UnknownHostException unknownHost(String hostname, Throwable cause) {
+        UnknownHostException exception = new UnknownHostException(hostname);
+        exception.initCause(cause);
+        return exception;
+    }
+
+    /**
+     * The cached resolution of a host.
+     */
+    private static final class Entry {
+
+        /**
+         * The addresses of the host, null if the resolution failed.
+         */
+        private final List<InetAddress> addresses;
+
+        /**
+         * The message of the failed resolution.
+         */
+        private final String failure;
+
+        /**
+         * Time in nanoseconds after which a used entry is refreshed.
+         */
+        private final long refreshAtNanos;
+
+        /**
+         * Time in nanoseconds at which the entry expires.
+         */
+        private final long expiresAtNanos;
+
+        Entry(final List<InetAddress> addresses, final String failure,
+                final long refreshAtNanos, final long expiresAtNanos) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.refreshAtNanos = refreshAtNanos;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        List<InetAddress> getAddresses(String hostname) throws UnknownHostException {
+            if (addresses == null) {
+                throw new UnknownHostException(failure != null ? failure : hostname);
+            }
+            return addresses;
+        }
+    }
+}
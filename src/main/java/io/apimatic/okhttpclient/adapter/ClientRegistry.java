@@ -0,0 +1,353 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import io.apimatic.coreinterfaces.http.ClientConfiguration;
+import io.apimatic.coreinterfaces.http.proxy.ProxyConfiguration;
+import io.apimatic.okhttpclient.adapter.interceptors.CacheStatisticsInterceptor;
+import io.apimatic.okhttpclient.adapter.interceptors.RequestCompressionInterceptor;
+import io.apimatic.okhttpclient.adapter.metrics.ClientMetrics;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.HostRateLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.RequestHedger;
+import okhttp3.OkHttpClient;
+
+/**
+ * A registry of the OkHttpClient instances built by OkClient, so that the OkClient instances
+ * with equivalent configurations share one OkHttpClient, with its interceptors, and the state
+ * they hold. The registry references the clients weakly: a client is dropped once no OkClient
+ * uses it anymore.
+ */
+final class ClientRegistry {
+
+    /**
+     * A lock guarding the registered clients.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The registered clients.
+     */
+    private static final Map<Key, KeyedReference> CLIENTS = new HashMap<>();
+
+    /**
+     * The references of the clients no longer used.
+     */
+    private static final ReferenceQueue<SharedClient> CLEARED = new ReferenceQueue<>();
+
+    private ClientRegistry() {
+    }
+
+    /**
+     * Getter for the client registered for a configuration.
+     * @param key The key of the configuration.
+     * @return The shared client, null if none is registered.
+     */
+    static SharedClient get(final Key key) {
+        LOCK.lock();
+        try {
+            purge();
+            KeyedReference reference = CLIENTS.get(key);
+            return reference != null ? reference.get() : null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Registers a client for a configuration, unless another one is registered already.
+     * @param key The key of the configuration.
+     * @param client The shared client.
+     */
+    static void register(final Key key, final SharedClient client) {
+        LOCK.lock();
+        try {
+            purge();
+            KeyedReference reference = CLIENTS.get(key);
+            if (reference == null || reference.get() == null) {
+                CLIENTS.put(key, new KeyedReference(key, client));
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Forgets all the registered clients.
+     */
+    static void clear() {
+        LOCK.lock();
+        try {
+            CLIENTS.clear();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void purge() {
+        KeyedReference reference;
+        while ((reference = (KeyedReference) CLEARED.poll()) != null) {
+            CLIENTS.remove(reference.key, reference);
+        }
+    }
+
+    /**
+     * A weak reference to a shared client, remembering its key.
+     */
+    private static final class KeyedReference extends WeakReference<SharedClient> {
+
+        /**
+         * The key of the client.
+         */
+        private final Key key;
+
+        KeyedReference(final Key key, final SharedClient client) {
+            super(client, CLEARED);
+            this.key = key;
+        }
+    }
+
+    /**
+     * An OkHttpClient and the state its interceptors and listeners hold, along with the state
+     * OkClient keeps for its calls, shared by the OkClient instances referencing it.
+     */
+    static final class SharedClient {
+
+        /**
+         * The client.
+         */
+        private final OkHttpClient client;
+
+        /**
+         * Counters of the HTTP response cache, null if disabled.
+         */
+        private final CacheStatisticsInterceptor cacheStatistics;
+
+        /**
+         * Compressor of the request bodies, null if disabled.
+         */
+        private final RequestCompressionInterceptor requestCompression;
+
+        /**
+         * Latencies of the call phases, null if disabled.
+         */
+        private final ClientMetrics clientMetrics;
+
+        /**
+         * Rate limits of the hosts, null if disabled.
+         */
+        private final HostRateLimiter hostRateLimiter;
+
+        /**
+         * Cache of the host name resolutions, null if disabled.
+         */
+        private final CachingDns cachingDns;
+
+        /**
+         * In-memory cache of the converted responses, null if disabled.
+         */
+        private final ResponseCache responseCache;
+
+        /**
+         * Coalescer of the identical GET requests in flight, null if disabled.
+         */
+        private final RequestCoalescer requestCoalescer;
+
+        /**
+         * Adaptive limiter of the calls in flight to each host, null if disabled.
+         */
+        private final ConcurrencyLimiter concurrencyLimiter;
+
+        /**
+         * Policy of the hedged requests, null if disabled.
+         */
+        private final RequestHedger requestHedger;
+
+        /**
+         * Initialization constructor, creating the state of the calls from the configuration.
+         * @param client The client.
+         * @param okClientConfig The adapter specific configurations.
+         * @param cacheStatistics The counters of the HTTP response cache.
+         * @param requestCompression The compressor of the request bodies.
+         * @param clientMetrics The latencies of the call phases.
+         * @param hostRateLimiter The rate limits of the hosts.
+         * @param cachingDns The cache of the host name resolutions.
+         */
+        SharedClient(final OkHttpClient client, final OkClientConfiguration okClientConfig,
+                final CacheStatisticsInterceptor cacheStatistics,
+                final RequestCompressionInterceptor requestCompression,
+                final ClientMetrics clientMetrics, final HostRateLimiter hostRateLimiter,
+                final CachingDns cachingDns) {
+            this.client = client;
+            this.cacheStatistics = cacheStatistics;
+            this.requestCompression = requestCompression;
+            this.clientMetrics = clientMetrics;
+            this.hostRateLimiter = hostRateLimiter;
+            this.cachingDns = cachingDns;
+            this.responseCache = okClientConfig.getResponseCacheMaxEntries() > 0
+                    ? new ResponseCache(okClientConfig.getResponseCacheMaxEntries(),
+                            okClientConfig.getResponseCacheMaxTtlMillis())
+                    : null;
+            this.requestCoalescer = okClientConfig.getCoalescingKeyHeaderNames() != null
+                    ? new RequestCoalescer(okClientConfig.getCoalescingKeyHeaderNames())
+                    : null;
+            this.concurrencyLimiter =
+                    okClientConfig.getConcurrencyLimiterConfiguration() != null
+                            ? new ConcurrencyLimiter(
+                                    okClientConfig.getConcurrencyLimiterConfiguration())
+                            : null;
+            this.requestHedger = okClientConfig.getHedgingConfiguration() != null
+                    ? new RequestHedger(okClientConfig.getHedgingConfiguration())
+                    : null;
+        }
+
+        /**
+         * Getter for the client.
+         * @return The client.
+         */
+        OkHttpClient getClient() {
+            return client;
+        }
+
+        /**
+         * Getter for the counters of the HTTP response cache.
+         * @return The counters, null if disabled.
+         */
+        CacheStatisticsInterceptor getCacheStatistics() {
+            return cacheStatistics;
+        }
+
+        /**
+         * Getter for the compressor of the request bodies.
+         * @return The compressor, null if disabled.
+         */
+        RequestCompressionInterceptor getRequestCompression() {
+            return requestCompression;
+        }
+
+        /**
+         * Getter for the latencies of the call phases.
+         * @return The metrics, null if disabled.
+         */
+        ClientMetrics getClientMetrics() {
+            return clientMetrics;
+        }
+
+        /**
+         * Getter for the rate limits of the hosts.
+         * @return The rate limiter, null if disabled.
+         */
+        HostRateLimiter getHostRateLimiter() {
+            return hostRateLimiter;
+        }
+
+        /**
+         * Getter for the cache of the host name resolutions.
+         * @return The DNS cache, null if disabled.
+         */
+        CachingDns getCachingDns() {
+            return cachingDns;
+        }
+
+        /**
+         * Getter for the in-memory cache of the converted responses.
+         * @return The response cache, null if disabled.
+         */
+        ResponseCache getResponseCache() {
+            return responseCache;
+        }
+
+        /**
+         * Getter for the coalescer of the identical GET requests in flight.
+         * @return The request coalescer, null if disabled.
+         */
+        RequestCoalescer getRequestCoalescer() {
+            return requestCoalescer;
+        }
+
+        /**
+         * Getter for the adaptive limiter of the calls in flight to each host.
+         * @return The concurrency limiter, null if disabled.
+         */
+        ConcurrencyLimiter getConcurrencyLimiter() {
+            return concurrencyLimiter;
+        }
+
+        /**
+         * Getter for the policy of the hedged requests.
+         * @return The request hedger, null if disabled.
+         */
+        RequestHedger getRequestHedger() {
+            return requestHedger;
+        }
+    }
+
+    /**
+     * The settings of a ClientConfiguration applied by OkClient and its interceptors, along
+     * with the OkClientConfiguration, identifying equivalent configurations.
+     */
+    static final class Key {
+
+        /**
+         * The values of the ClientConfiguration settings.
+         */
+        private final Object[] values;
+
+        /**
+         * The adapter specific configurations.
+         */
+        private final OkClientConfiguration okClientConfiguration;
+
+        /**
+         * Initialization constructor.
+         * @param httpClientConfig The user specified configurations.
+         * @param okClientConfig The adapter specific configurations.
+         */
+        Key(final ClientConfiguration httpClientConfig,
+                final OkClientConfiguration okClientConfig) {
+            ProxyConfiguration proxy = httpClientConfig.getProxyConfiguration();
+            this.values = new Object[] {httpClientConfig.getTimeout(),
+                    httpClientConfig.getNumberOfRetries(),
+                    httpClientConfig.getMaximumRetryWaitTime(),
+                    httpClientConfig.getRetryInterval(), httpClientConfig.getBackOffFactor(),
+                    httpClientConfig.shouldRetryOnTimeout(),
+                    copyOf(httpClientConfig.getHttpStatusCodesToRetry()),
+                    copyOf(httpClientConfig.getHttpMethodsToRetry()),
+                    httpClientConfig.skipSslCertVerification(),
+                    proxy != null ? proxy.getAddress() : null,
+                    proxy != null ? proxy.getPort() : null,
+                    proxy != null ? proxy.getUsername() : null,
+                    proxy != null ? proxy.getPassword() : null};
+            this.okClientConfiguration = okClientConfig;
+        }
+
+        private static Set<?> copyOf(final Set<?> set) {
+            return set != null ? new HashSet<>(set) : null;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Arrays.equals(values, other.values)
+                    && okClientConfiguration.equals(other.okClientConfiguration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(values), okClientConfiguration);
+        }
+    }
+}
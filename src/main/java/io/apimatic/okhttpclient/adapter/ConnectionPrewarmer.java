@@ -0,0 +1,206 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Opens pooled connections to hosts ahead of the traffic, so that the first calls do not pay
+ * the DNS resolution, TCP and TLS handshakes and the HTTP/2 negotiation. It sends concurrent
+ * HEAD requests to the base URLs through a client sharing the dispatcher and the connection
+ * pool of OkClient, without its interceptors, cache and event listener, so that the warm-up
+ * calls are neither retried, limited, cached nor measured. Their responses are discarded.
+ */
+final class ConnectionPrewarmer {
+
+    /**
+     * The periodic warm-ups which are not stopped yet.
+     */
+    private static final Set<KeepWarm> ACTIVE = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The client sending the warm-up calls.
+     */
+    private final OkHttpClient warmupClient;
+
+    /**
+     * Initialization constructor.
+     * @param client The client whose connection pool is warmed up.
+     */
+    ConnectionPrewarmer(final OkHttpClient client) {
+        OkHttpClient.Builder builder = client.newBuilder().cache(null)
+                .eventListener(EventListener.NONE);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        this.warmupClient = builder.build();
+    }
+
+    /**
+     * Opens connections to each base URL. The HTTP/1.1 connections are opened by concurrent
+     * calls, which are bounded by the maximum requests per host of the dispatcher, while all
+     * the calls to an HTTP/2 host share a single connection.
+     * @param baseUrls The base URLs of the hosts.
+     * @param connections The number of connections to each host.
+     * @return A future completed with the number of successful warm-up calls once all of them
+     *         completed, never exceptionally.
+     */
+    CompletableFuture<Integer> prewarm(final List<HttpUrl> baseUrls, final int connections) {
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        for (HttpUrl baseUrl : baseUrls) {
+            Request request = new Request.Builder().url(baseUrl).head().build();
+            for (int i = 0; i < connections; i++) {
+                calls.add(send(request));
+            }
+        }
+
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> (int) calls.stream().filter(CompletableFuture::join)
+                        .count());
+    }
+
+    /**
+     * Warms up the connections again after each interval, so that the idle connections are not
+     * evicted from the pool. The interval should be shorter than the keep alive duration of the
+     * pool. The warm-ups stop once cancelled, once their owner is no longer reachable, or once
+     * the dispatcher is shut down.
+     * @param owner The object whose lifetime bounds the warm-ups, referenced weakly.
+     * @param baseUrls The base URLs of the hosts.
+     * @param connections The number of connections to each host.
+     * @param intervalMillis The interval between the warm-ups, in milliseconds.
+     * @return The handle cancelling the warm-ups.
+     */
+    KeepWarm keepWarm(final Object owner, final List<HttpUrl> baseUrls, final int connections,
+            final long intervalMillis) {
+        KeepWarm keepWarm = new KeepWarm(this, owner, baseUrls, connections, intervalMillis);
+        ACTIVE.add(keepWarm);
+        keepWarm.schedule();
+        return keepWarm;
+    }
+
+    /**
+     * Cancels all the periodic warm-ups.
+     */
+    static void cancelAll() {
+        for (KeepWarm keepWarm : ACTIVE) {
+            keepWarm.cancel();
+        }
+    }
+
+    private CompletableFuture<Boolean> send(final Request request) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        warmupClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, final IOException e) {
+                result.complete(false);
+            }
+
+            @Override
+            public void onResponse(final Call call, final Response response) {
+                response.close();
+                result.complete(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The handle of a warm-up repeated after each interval. Its pending task references the
+     * prewarmer but not its owner, so that the owner may be collected while it is scheduled.
+     */
+    static final class KeepWarm {
+
+        /**
+         * The prewarmer opening the connections.
+         */
+        private final ConnectionPrewarmer prewarmer;
+
+        /**
+         * The object whose lifetime bounds the warm-ups.
+         */
+        private final WeakReference<Object> owner;
+
+        /**
+         * The base URLs of the hosts.
+         */
+        private final List<HttpUrl> baseUrls;
+
+        /**
+         * The number of connections to each host.
+         */
+        private final int connections;
+
+        /**
+         * The interval between the warm-ups, in milliseconds.
+         */
+        private final long intervalMillis;
+
+        /**
+         * Whether the warm-ups are cancelled.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * The next scheduled warm-up, null before the first one is scheduled.
+         */
+        private volatile ScheduledFuture<?> next;
+
+        KeepWarm(final ConnectionPrewarmer prewarmer, final Object owner,
+                final List<HttpUrl> baseUrls, final int connections, final long intervalMillis) {
+            this.prewarmer = prewarmer;
+            this.owner = new WeakReference<>(owner);
+            this.baseUrls = baseUrls;
+            this.connections = connections;
+            this.intervalMillis = intervalMillis;
+        }
+
+        /**
+         * Stops the warm-ups, the one in flight completing without scheduling another one.
+         */
+        void cancel() {
+            cancelled = true;
+            ACTIVE.remove(this);
+            ScheduledFuture<?> current = next;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        private void schedule() {
+            if (isStopped()) {
+                cancel();
+                return;
+            }
+            next = SharedTimer.schedule(this::run, intervalMillis, TimeUnit.MILLISECONDS);
+            if (cancelled) {
+                // Cancelled while scheduling, before the future could be cancelled
+                next.cancel(false);
+            }
+        }
+
+        private void run() {
+            if (isStopped()) {
+                cancel();
+                return;
+            }
+            prewarmer.prewarm(baseUrls, connections).whenComplete((count, e) -> schedule());
+        }
+
+        private boolean isStopped() {
+            return cancelled || owner.get() == null
+                    || prewarmer.warmupClient.dispatcher().executorService().isShutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named presets for the dispatcher and connection pool limits of an OkClient.
+ */
+public enum ConnectionProfile {
+
+    /**
+     * Many concurrent calls per host and a large pool of warm connections, so that calls rarely
+     * wait in the dispatcher queue or for a new connection.
+     */
+    LOW_LATENCY(128, 32, 32, TimeUnit.MINUTES.toMillis(5)),
+
+    /**
+     * The highest concurrency, for fan-out workloads against a few hosts.
+     */
+    HIGH_THROUGHPUT(256, 128, 64, TimeUnit.MINUTES.toMillis(2)),
+
+    /**
+     * Few concurrent calls and few idle connections, released quickly.
+     */
+    LOW_FOOTPRINT(32, 5, 2, TimeUnit.SECONDS.toMillis(30));
+
+    /**
+     * Maximum number of requests executing concurrently.
+     */
+    private final int maxRequests;
+
+    /**
+     * Maximum number of requests executing concurrently for each host.
+     */
+    private final int maxRequestsPerHost;
+
+    /**
+     * Maximum number of idle connections kept in the pool.
+     */
+    private final int maxIdleConnections;
+
+    /**
+     * Time in milliseconds an idle connection is kept alive.
+     */
+    private final long keepAliveDurationMillis;
+
+    ConnectionProfile(int maxRequests, int maxRequestsPerHost, int maxIdleConnections,
+            long keepAliveDurationMillis) {
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveDurationMillis = keepAliveDurationMillis;
+    }
+
+    /**
+     * Getter for the maximum number of requests executing concurrently.
+     * @return The maximum number of requests.
+     */
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    /**
+     * Getter for the maximum number of requests executing concurrently for each host.
+     * @return The maximum number of requests per host.
+     */
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * Getter for the maximum number of idle connections kept in the pool.
+     * @return The maximum number of idle connections.
+     */
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * Getter for the time an idle connection is kept alive.
+     * @return The keep alive duration in milliseconds.
+     */
+    public long getKeepAliveDurationMillis() {
+        return keepAliveDurationMillis;
+    }
+}
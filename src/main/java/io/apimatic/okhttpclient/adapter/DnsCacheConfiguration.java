@@ -0,0 +1,242 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Dns;
+
+/**
+ * Settings of the {@link CachingDns} of an OkClient. Resolved addresses are cached for the
+ * time to live, and failed resolutions for the negative time to live. An entry used after the
+ * refresh-ahead share of its time to live is resolved again in the background, so that the hot
+ * hosts never wait for a resolution. An expired entry is still served when the resolver does not
+ * answer within the stale timeout, or fails.
+ */
+public final class DnsCacheConfiguration {
+
+    /**
+     * Default time to live of the resolved addresses, in milliseconds.
+     */
+    private static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    /**
+     * Default time to live of the failed resolutions, in milliseconds.
+     */
+    private static final long DEFAULT_NEGATIVE_TTL_MILLIS = 5_000;
+
+    /**
+     * Default share of the time to live after which a used entry is refreshed.
+     */
+    private static final double DEFAULT_REFRESH_AHEAD_RATIO = 0.8;
+
+    /**
+     * Default longest wait for the resolver before an expired entry is served, in milliseconds.
+     */
+    private static final long DEFAULT_STALE_TIMEOUT_MILLIS = 200;
+
+    /**
+     * Time to live of the resolved addresses, in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * Time to live of the failed resolutions, in milliseconds, 0 to not cache them.
+     */
+    private final long negativeTtlMillis;
+
+    /**
+     * Share of the time to live after which a used entry is refreshed in the background.
+     */
+    private final double refreshAheadRatio;
+
+    /**
+     * Longest wait for the resolver before an expired entry is served, in milliseconds.
+     */
+    private final long staleTimeoutMillis;
+
+    /**
+     * The resolver of the host names.
+     */
+    private final Dns delegate;
+
+    private DnsCacheConfiguration(final Builder builder) {
+        this.ttlMillis = builder.ttlMillis;
+        this.negativeTtlMillis = builder.negativeTtlMillis;
+        this.refreshAheadRatio = builder.refreshAheadRatio;
+        this.staleTimeoutMillis = builder.staleTimeoutMillis;
+        this.delegate = builder.delegate;
+    }
+
+    /**
+     * Getter for the time to live of the resolved addresses.
+     * @return The time to live in milliseconds.
+     */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Getter for the time to live of the failed resolutions.
+     * @return The time to live in milliseconds, 0 if they are not cached.
+     */
+    public long getNegativeTtlMillis() {
+        return negativeTtlMillis;
+    }
+
+    /**
+     * Getter for the share of the time to live after which a used entry is refreshed.
+     * @return The ratio, 1 if the entries are not refreshed ahead of their expiry.
+     */
+    public double getRefreshAheadRatio() {
+        return refreshAheadRatio;
+    }
+
+    /**
+     * Getter for the longest wait for the resolver before an expired entry is served.
+     * @return The timeout in milliseconds.
+     */
+    public long getStaleTimeoutMillis() {
+        return staleTimeoutMillis;
+    }
+
+    /**
+     * Getter for the resolver of the host names.
+     * @return The resolver.
+     */
+    public Dns getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Compares the values of two configurations.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DnsCacheConfiguration)) {
+            return false;
+        }
+        DnsCacheConfiguration other = (DnsCacheConfiguration) obj;
+        return ttlMillis == other.ttlMillis
+                && negativeTtlMillis == other.negativeTtlMillis
+                && refreshAheadRatio == other.refreshAheadRatio
+                && staleTimeoutMillis == other.staleTimeoutMillis
+                && Objects.equals(delegate, other.delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ttlMillis, negativeTtlMillis, refreshAheadRatio, staleTimeoutMillis,
+                delegate);
+    }
+
+    /**
+     * Builder for {@link DnsCacheConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * Time to live of the resolved addresses, in milliseconds.
+         */
+        private long ttlMillis = DEFAULT_TTL_MILLIS;
+
+        /**
+         * Time to live of the failed resolutions, in milliseconds.
+         */
+        private long negativeTtlMillis = DEFAULT_NEGATIVE_TTL_MILLIS;
+
+        /**
+         * Share of the time to live after which a used entry is refreshed.
+         */
+        private double refreshAheadRatio = DEFAULT_REFRESH_AHEAD_RATIO;
+
+        /**
+         * Longest wait for the resolver before an expired entry is served, in milliseconds.
+         */
+        private long staleTimeoutMillis = DEFAULT_STALE_TIMEOUT_MILLIS;
+
+        /**
+         * The resolver of the host names.
+         */
+        private Dns delegate = Dns.SYSTEM;
+
+        /**
+         * Sets the time to live of the resolved addresses.
+         * @param ttl A positive time to live.
+         * @param unit The unit of the time to live.
+         * @return The {@link Builder}.
+         */
+        public Builder ttl(long ttl, TimeUnit unit) {
+            if (ttl < 1) {
+                throw new IllegalArgumentException("ttl < 1: " + ttl);
+            }
+            this.ttlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * Sets the time to live of the failed resolutions.
+         * @param ttl A time to live, 0 to not cache the failures.
+         * @param unit The unit of the time to live.
+         * @return The {@link Builder}.
+         */
+        public Builder negativeTtl(long ttl, TimeUnit unit) {
+            if (ttl < 0) {
+                throw new IllegalArgumentException("negativeTtl < 0: " + ttl);
+            }
+            this.negativeTtlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * Sets the share of the time to live after which a used entry is resolved again in the
+         * background.
+         * @param ratio A ratio above 0 and at most 1, 1 to not refresh ahead of the expiry.
+         * @return The {@link Builder}.
+         */
+        public Builder refreshAheadRatio(double ratio) {
+            if (!(ratio > 0 && ratio <= 1)) {
+                throw new IllegalArgumentException("refreshAheadRatio not in (0, 1]: " + ratio);
+            }
+            this.refreshAheadRatio = ratio;
+            return this;
+        }
+
+        /**
+         * Sets the longest wait for the resolver before an expired entry is served.
+         * @param timeout A timeout, 0 to serve expired entries without waiting.
+         * @param unit The unit of the timeout.
+         * @return The {@link Builder}.
+         */
+        public Builder staleTimeout(long timeout, TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("staleTimeout < 0: " + timeout);
+            }
+            this.staleTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the resolver of the host names, {@link Dns#SYSTEM} by default.
+         * @param value The resolver.
+         * @return The {@link Builder}.
+         */
+        public Builder delegate(Dns value) {
+            if (value == null) {
+                throw new IllegalArgumentException("delegate must not be null");
+            }
+            this.delegate = value;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link DnsCacheConfiguration}.
+         */
+        public DnsCacheConfiguration build() {
+            return new DnsCacheConfiguration(this);
+        }
+    }
+}
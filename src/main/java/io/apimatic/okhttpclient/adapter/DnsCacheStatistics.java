@@ -0,0 +1,132 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the counters of the {@link CachingDns} of an {@link OkClient}.
+ */
+public final class DnsCacheStatistics {
+
+    /**
+     * Statistics of a client without a DNS cache.
+     */
+    static final DnsCacheStatistics EMPTY = new DnsCacheStatistics(0, 0, 0, 0, 0, 0);
+
+    /**
+     * Lookups answered by an unexpired entry.
+     */
+    private final long hitCount;
+
+    /**
+     * Lookups answered by an expired entry, because the resolver was slow or failed.
+     */
+    private final long staleHitCount;
+
+    /**
+     * Lookups waiting for a resolution.
+     */
+    private final long missCount;
+
+    /**
+     * Resolutions done by the resolver, including the background refreshes.
+     */
+    private final long resolveCount;
+
+    /**
+     * Resolutions that failed.
+     */
+    private final long failureCount;
+
+    /**
+     * Time in nanoseconds spent by the resolver.
+     */
+    private final long resolveTimeNanos;
+
+    /**
+     * Initialization constructor.
+     * @param hitCount Lookups answered by an unexpired entry
+     * @param staleHitCount Lookups answered by an expired entry
+     * @param missCount Lookups waiting for a resolution
+     * @param resolveCount Resolutions done by the resolver
+     * @param failureCount Resolutions that failed
+     * @param resolveTimeNanos Time in nanoseconds spent by the resolver
+     */
+    public DnsCacheStatistics(final long hitCount, final long staleHitCount,
+            final long missCount, final long resolveCount, final long failureCount,
+            final long resolveTimeNanos) {
+        this.hitCount = hitCount;
+        this.staleHitCount = staleHitCount;
+        this.missCount = missCount;
+        this.resolveCount = resolveCount;
+        this.failureCount = failureCount;
+        this.resolveTimeNanos = resolveTimeNanos;
+    }
+
+    /**
+     * Getter for the number of lookups answered by an unexpired entry.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Getter for the number of lookups answered by an expired entry, because the resolver was
+     * slow or failed.
+     * @return The stale hit count.
+     */
+    public long getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    /**
+     * Getter for the number of lookups waiting for a resolution.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Getter for the number of resolutions done by the resolver, including the background
+     * refreshes.
+     * @return The resolve count.
+     */
+    public long getResolveCount() {
+        return resolveCount;
+    }
+
+    /**
+     * Getter for the number of resolutions that failed.
+     * @return The failure count.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Getter for the average time the resolver took.
+     * @return The average time in milliseconds, 0 without resolutions.
+     */
+    public double getAverageResolveTimeMillis() {
+        return resolveCount == 0 ? 0
+                : (double) resolveTimeNanos / TimeUnit.MILLISECONDS.toNanos(1) / resolveCount;
+    }
+
+    /**
+     * Getter for the share of the lookups answered without waiting for the resolver.
+     * @return The ratio of hits and stale hits, between 0 and 1.
+     */
+    public double getHitRatio() {
+        long total = hitCount + staleHitCount + missCount;
+        return total == 0 ? 0 : (double) (hitCount + staleHitCount) / total;
+    }
+
+    @Override
+    public String toString() {
+        return "DnsCacheStatistics [hitCount=" + hitCount + ", staleHitCount=" + staleHitCount
+                + ", missCount=" + missCount + ", resolveCount=" + resolveCount
+                + ", failureCount=" + failureCount + ", resolveTimeNanos=" + resolveTimeNanos
+                + "]";
+    }
+}
@@ -0,0 +1,214 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import io.apimatic.okhttpclient.adapter.interceptors.CallContext;
+import io.apimatic.okhttpclient.adapter.resilience.RequestHedger;
+
+/**
+ * A call sent a second time when its response is late. The hedge is scheduled on the
+ * {@link SharedTimer} and sent with its own copy of the {@link CallContext}. The first response
+ * of the two is passed on and the other call is cancelled, while a failure is only passed on
+ * once no other call is left to answer.
+ */
+final class HedgedCall {
+
+    /**
+     * Sends a call asynchronously.
+     */
+    interface Sender {
+
+        /**
+         * Enqueues a call.
+         * @param okHttpRequest The okhttp request to send.
+         * @param callback The callback of the call.
+         * @return The call, to cancel it.
+         */
+        okhttp3.Call send(okhttp3.Request okHttpRequest, okhttp3.Callback callback);
+    }
+
+    /**
+     * The okhttp request of the first call.
+     */
+    private final okhttp3.Request okHttpRequest;
+
+    /**
+     * The sender of the calls.
+     */
+    private final Sender sender;
+
+    /**
+     * The policy of the hedges.
+     */
+    private final RequestHedger hedger;
+
+    /**
+     * The callback receiving the outcome of the first call to answer.
+     */
+    private final okhttp3.Callback callback;
+
+    /**
+     * A lock guarding the state of the calls, which does not pin virtual threads.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The calls sent.
+     */
+    private final List<okhttp3.Call> calls = new ArrayList<>();
+
+    /**
+     * The {@link System#nanoTime()} the first call was sent at.
+     */
+    private long startNanos;
+
+    /**
+     * The hedge scheduled on the shared timer.
+     */
+    private ScheduledFuture<?> hedgeTask;
+
+    /**
+     * The number of calls without an outcome.
+     */
+    private int pendingCalls;
+
+    /**
+     * Whether an outcome has been passed on, or the calls cancelled.
+     */
+    private boolean completed;
+
+    /**
+     * Initialization constructor.
+     * @param okHttpRequest The okhttp request to send.
+     * @param sender The sender of the calls.
+     * @param hedger The policy of the hedges.
+     * @param callback The callback receiving the outcome of the first call to answer.
+     */
+    HedgedCall(final okhttp3.Request okHttpRequest, final Sender sender,
+            final RequestHedger hedger, final okhttp3.Callback callback) {
+        this.okHttpRequest = okHttpRequest;
+        this.sender = sender;
+        this.hedger = hedger;
+        this.callback = callback;
+    }
+
+    /**
+     * Sends the first call and schedules its hedge.
+     */
+    void start() {
+        hedger.onCall();
+        lock.lock();
+        try {
+            startNanos = System.nanoTime();
+            pendingCalls = 1;
+            calls.add(sender.send(okHttpRequest, new HedgeCallback(false)));
+            if (!completed) {
+                hedgeTask = SharedTimer.schedule(this::sendHedge, hedger.getDelayMillis(),
+                        TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the calls and the hedge not sent yet, without passing any outcome on.
+     */
+    void cancel() {
+        complete(null);
+    }
+
+    private void sendHedge() {
+        lock.lock();
+        try {
+            if (completed || !hedger.tryAcquireHedge()) {
+                return;
+            }
+            CallContext callContext = CallContext.of(okHttpRequest);
+            okhttp3.Request hedgeRequest = okHttpRequest.newBuilder()
+                    .tag(CallContext.class, callContext == null ? null : callContext.copy())
+                    .build();
+            pendingCalls++;
+            calls.add(sender.send(hedgeRequest, new HedgeCallback(true)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the hedged call completed, and cancels the hedge and the other calls.
+     * @param winner The call whose outcome is passed on, null to cancel all the calls.
+     * @return false if the hedged call was already completed.
+     */
+    private boolean complete(okhttp3.Call winner) {
+        List<okhttp3.Call> losers = new ArrayList<>();
+        lock.lock();
+        try {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            if (hedgeTask != null) {
+                hedgeTask.cancel(false);
+            }
+            for (okhttp3.Call call : calls) {
+                if (call != winner) {
+                    losers.add(call);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (okhttp3.Call call : losers) {
+            call.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Receives the outcome of one of the calls.
+     */
+    private final class HedgeCallback implements okhttp3.Callback {
+
+        /**
+         * Whether the call is the hedge.
+         */
+        private final boolean hedge;
+
+        private HedgeCallback(final boolean hedge) {
+            this.hedge = hedge;
+        }
+
+        @Override
+        public void onResponse(final okhttp3.Call call, final okhttp3.Response okHttpResponse)
+                throws IOException {
+            if (!complete(call)) {
+                okHttpResponse.close();
+                return;
+            }
+            hedger.onResponse(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS, hedge);
+            callback.onResponse(call, okHttpResponse);
+        }
+
+        @Override
+        public void onFailure(final okhttp3.Call call, final IOException e) {
+            lock.lock();
+            try {
+                pendingCalls--;
+                // Waits for the outcome of the other call in flight
+                if (pendingCalls > 0) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (complete(call)) {
+                callback.onFailure(call, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.apimatic.okhttpclient.adapter;
+
+/**
+ * A snapshot of the HTTP cache counters of an {@link OkClient}.
+ */
+public final class HttpCacheStatistics {
+
+    /**
+     * Statistics of a client without an HTTP cache.
+     */
+    static final HttpCacheStatistics EMPTY = new HttpCacheStatistics(0, 0, 0, 0);
+
+    /**
+     * Responses served from the cache without contacting the server.
+     */
+    private final long hitCount;
+
+    /**
+     * Responses served from the cache after the server validated them.
+     */
+    private final long conditionalHitCount;
+
+    /**
+     * Responses served by the server.
+     */
+    private final long missCount;
+
+    /**
+     * Time in milliseconds spent waiting for the server on the cache misses.
+     */
+    private final long missNetworkTimeMillis;
+
+    /**
+     * Initialization constructor.
+     * @param hitCount Responses served from the cache without contacting the server
+     * @param conditionalHitCount Responses served from the cache after validation
+     * @param missCount Responses served by the server
+     * @param missNetworkTimeMillis Time spent waiting for the server on the misses
+     */
+    public HttpCacheStatistics(final long hitCount, final long conditionalHitCount,
+            final long missCount, final long missNetworkTimeMillis) {
+        this.hitCount = hitCount;
+        this.conditionalHitCount = conditionalHitCount;
+        this.missCount = missCount;
+        this.missNetworkTimeMillis = missNetworkTimeMillis;
+    }
+
+    /**
+     * Getter for the number of responses served from the cache without contacting the server.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Getter for the number of responses served from the cache after the server validated them.
+     * @return The conditional hit count.
+     */
+    public long getConditionalHitCount() {
+        return conditionalHitCount;
+    }
+
+    /**
+     * Getter for the number of responses served by the server.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Getter for the average time a cache miss waited for the server. Multiplied by the hit
+     * count, it estimates the latency saved by the cache.
+     * @return The average time in milliseconds, 0 without misses.
+     */
+    public double getAverageMissNetworkTimeMillis() {
+        return missCount == 0 ? 0 : (double) missNetworkTimeMillis / missCount;
+    }
+
+    /**
+     * Getter for the share of the responses served without a full download from the server.
+     * @return The ratio of hits and conditional hits, between 0 and 1.
+     */
+    public double getHitRatio() {
+        long total = hitCount + conditionalHitCount + missCount;
+        return total == 0 ? 0 : (double) (hitCount + conditionalHitCount) / total;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpCacheStatistics [hitCount=" + hitCount + ", conditionalHitCount="
+                + conditionalHitCount + ", missCount=" + missCount + ", missNetworkTimeMillis="
+                + missNetworkTimeMillis + "]";
+    }
+}
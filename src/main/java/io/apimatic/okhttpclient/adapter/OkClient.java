@@ -1,26 +1,29 @@
 package io.apimatic.okhttpclient.adapter;
 
 import io.apimatic.coreinterfaces.http.proxy.ProxyConfiguration;
-import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.Proxy.Type;
-import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
+import java.security.GeneralSecurityException;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
 
 import io.apimatic.coreinterfaces.compatibility.CompatibilityFactory;
 import io.apimatic.coreinterfaces.http.ClientConfiguration;
@@ -33,18 +36,56 @@ import io.apimatic.coreinterfaces.http.request.Request;
 import io.apimatic.coreinterfaces.http.request.configuration.CoreEndpointConfiguration;
 import io.apimatic.coreinterfaces.http.response.Response;
 import io.apimatic.coreinterfaces.type.CoreFileWrapper;
+import io.apimatic.okhttpclient.adapter.interceptors.CacheStatisticsInterceptor;
+import io.apimatic.okhttpclient.adapter.interceptors.CallContext;
+import io.apimatic.okhttpclient.adapter.interceptors.CircuitBreakerInterceptor;
 import io.apimatic.okhttpclient.adapter.interceptors.HttpRedirectInterceptor;
+import io.apimatic.okhttpclient.adapter.interceptors.RateLimitInterceptor;
+import io.apimatic.okhttpclient.adapter.interceptors.RequestCompressionInterceptor;
 import io.apimatic.okhttpclient.adapter.interceptors.RetryInterceptor;
+import io.apimatic.okhttpclient.adapter.metrics.ClientMetrics;
+import io.apimatic.okhttpclient.adapter.metrics.MetricsEventListener;
+import io.apimatic.okhttpclient.adapter.metrics.MetricsSnapshot;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerOpenException;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.HostRateLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.RateLimitExceededException;
+import io.apimatic.okhttpclient.adapter.resilience.RequestHedger;
+import io.apimatic.okhttpclient.adapter.resilience.RetryBudget;
+import okhttp3.CipherSuite;
+import okhttp3.ConnectionSpec;
 import okhttp3.OkHttpClient;
+import okhttp3.TlsVersion;
 
 /**
  * HTTP Client class to send HTTP Requests and read the responses.
  */
-public class OkClient implements HttpClient {
+public class OkClient implements HttpClient, Closeable {
     /**
-     * An object to avoid deadlock.
+     * OkHttp default for the maximum number of idle connections in a pool.
      */
-    private static final Object SYNC_OBJECT = new Object();
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+
+    /**
+     * OkHttp default for the time an idle connection is kept alive, in milliseconds.
+     */
+    private static final long DEFAULT_KEEP_ALIVE_DURATION_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Status code of a response rejected by the rate limit of the server.
+     */
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Message of the failure of the calls waiting on the shared timer when it is shut down.
+     */
+    private static final String SHUTDOWN_MESSAGE = "Canceled: OkClient was shut down";
+
+    /**
+     * A lock guarding the creation of the shared clients. A lock rather than a monitor, so that
+     * virtual threads waiting on it do not pin their carrier thread.
+     */
+    private static final ReentrantLock CLIENT_LOCK = new ReentrantLock();
 
     /**
      * A default OkHttpClient instance.
@@ -54,7 +95,7 @@ public class OkClient implements HttpClient {
     /**
      * An instance for insecure OkHttpClient.
      */
-    private static OkHttpClient insecureOkHttpClient;
+    private static volatile OkHttpClient insecureOkHttpClient;
 
     /**
      * Private instance of the OkHttpClient.
@@ -66,6 +107,72 @@ public class OkClient implements HttpClient {
      */
     private static CompatibilityFactory compatibilityFactory;
 
+    /**
+     * Private instance of the adapter specific configurations.
+     */
+    private final OkClientConfiguration okClientConfiguration;
+
+    /**
+     * Counters of the HTTP response cache, null if the cache is disabled.
+     */
+    private CacheStatisticsInterceptor cacheStatistics;
+
+    /**
+     * Compressor of the request bodies and its counters, null if the compression is disabled.
+     */
+    private RequestCompressionInterceptor requestCompression;
+
+    /**
+     * In-memory cache of the converted responses, null if disabled.
+     */
+    private final ResponseCache responseCache;
+
+    /**
+     * Coalescer of the identical GET requests in flight, null if disabled.
+     */
+    private final RequestCoalescer requestCoalescer;
+
+    /**
+     * Adaptive limiter of the calls in flight to each host, null if disabled.
+     */
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Policy of the hedged requests, null if disabled.
+     */
+    private final RequestHedger requestHedger;
+
+    /**
+     * Rate limits of the hosts shared by all the calls, null if disabled.
+     */
+    private final HostRateLimiter hostRateLimiter;
+
+    /**
+     * Latencies of the call phases and retry and redirect counts, null if disabled.
+     */
+    private final ClientMetrics clientMetrics;
+
+    /**
+     * Cache of the host name resolutions, null if disabled.
+     */
+    private final CachingDns cachingDns;
+
+    /**
+     * The client shared with the OkClient instances of equivalent configurations, referenced so
+     * that the registry keeps it, null if the client is not shared.
+     */
+    private final ClientRegistry.SharedClient sharedClient;
+
+    /**
+     * The periodic warm-ups of the connections started by this instance, null if none.
+     */
+    private ConnectionPrewarmer.KeepWarm keepWarm;
+
+    /**
+     * The user specified configurations, deciding which requests may be hedged.
+     */
+    private final ClientConfiguration httpClientConfiguration;
+
     /**
      * Constructor to initialize the OKClient.
      * @param httpClientConfig The httpClientConfiguration
@@ -73,8 +180,53 @@ public class OkClient implements HttpClient {
      */
     public OkClient(final ClientConfiguration httpClientConfig,
             final CompatibilityFactory compatibilityFactory) {
+        this(httpClientConfig, compatibilityFactory, OkClientConfiguration.DEFAULT);
+    }
+
+    /**
+     * Constructor to initialize the OKClient with adapter specific configurations.
+     * @param httpClientConfig The httpClientConfiguration
+     * @param compatibilityFactory The compatibilityFactory for backward compatibility
+     * @param okClientConfig The adapter specific configurations
+     */
+    public OkClient(final ClientConfiguration httpClientConfig,
+            final CompatibilityFactory compatibilityFactory,
+            final OkClientConfiguration okClientConfig) {
         OkClient.compatibilityFactory = compatibilityFactory;
+        this.okClientConfiguration = okClientConfig;
+        this.httpClientConfiguration = httpClientConfig;
         OkHttpClient httpClientInstance = httpClientConfig.getHttpClientInstance();
+
+        ClientRegistry.Key registryKey =
+                okClientConfig.shouldShareClients() && httpClientInstance == null
+                        ? new ClientRegistry.Key(httpClientConfig, okClientConfig)
+                        : null;
+        ClientRegistry.SharedClient registeredClient =
+                registryKey != null ? ClientRegistry.get(registryKey) : null;
+        if (registeredClient != null) {
+            this.hostRateLimiter = registeredClient.getHostRateLimiter();
+            this.clientMetrics = registeredClient.getClientMetrics();
+            this.cachingDns = registeredClient.getCachingDns();
+            this.cacheStatistics = registeredClient.getCacheStatistics();
+            this.requestCompression = registeredClient.getRequestCompression();
+            this.responseCache = registeredClient.getResponseCache();
+            this.requestCoalescer = registeredClient.getRequestCoalescer();
+            this.concurrencyLimiter = registeredClient.getConcurrencyLimiter();
+            this.requestHedger = registeredClient.getRequestHedger();
+            this.client = registeredClient.getClient();
+            this.sharedClient = registeredClient;
+            // The OkClient which built the shared client warmed its connections up
+            return;
+        }
+
+        this.hostRateLimiter = okClientConfig.getRateLimitRequestsPerSecond() != null
+                ? new HostRateLimiter(okClientConfig.getRateLimitRequestsPerSecond(),
+                        okClientConfig.getRateLimitMaxWaitMillis(), TimeUnit.MILLISECONDS)
+                : null;
+        this.clientMetrics = okClientConfig.shouldCollectMetrics() ? new ClientMetrics() : null;
+        this.cachingDns = okClientConfig.getDnsCacheConfiguration() != null
+                ? new CachingDns(okClientConfig.getDnsCacheConfiguration())
+                : null;
         if (httpClientInstance != null) {
             if (httpClientConfig.shouldOverrideHttpClientConfigurations()) {
                 applyHttpClientConfigurations(httpClientInstance, httpClientConfig);
@@ -83,12 +235,38 @@ public class OkClient implements HttpClient {
             }
         } else {
             if (httpClientConfig.skipSslCertVerification()) {
-                applyHttpClientConfigurations(getInsecureOkHttpClient(httpClientConfig),
-                        httpClientConfig);
+                applyHttpClientConfigurations(getInsecureOkHttpClient(), httpClientConfig);
             } else {
                 applyHttpClientConfigurations(getDefaultOkHttpClient(), httpClientConfig);
             }
         }
+
+        ClientRegistry.SharedClient builtClient = new ClientRegistry.SharedClient(client,
+                okClientConfig, cacheStatistics, requestCompression, clientMetrics,
+                hostRateLimiter, cachingDns);
+        this.responseCache = builtClient.getResponseCache();
+        this.requestCoalescer = builtClient.getRequestCoalescer();
+        this.concurrencyLimiter = builtClient.getConcurrencyLimiter();
+        this.requestHedger = builtClient.getRequestHedger();
+        if (registryKey != null) {
+            this.sharedClient = builtClient;
+            ClientRegistry.register(registryKey, sharedClient);
+        } else {
+            this.sharedClient = null;
+        }
+
+        if (okClientConfig.getPrewarmBaseUrls() != null) {
+            ConnectionPrewarmer prewarmer = new ConnectionPrewarmer(client);
+            prewarmer.prewarm(okClientConfig.getPrewarmBaseUrls(),
+                    okClientConfig.getPrewarmConnections());
+            if (okClientConfig.getKeepWarmIntervalMillis() > 0) {
+                // A shared client is kept warm while any of its OkClient instances is reachable
+                this.keepWarm = prewarmer.keepWarm(sharedClient != null ? sharedClient : this,
+                        okClientConfig.getPrewarmBaseUrls(),
+                        okClientConfig.getPrewarmConnections(),
+                        okClientConfig.getKeepWarmIntervalMillis());
+            }
+        }
     }
 
     /**
@@ -103,15 +281,44 @@ public class OkClient implements HttpClient {
                 .writeTimeout(httpClientConfig.getTimeout(), TimeUnit.SECONDS)
                 .connectTimeout(httpClientConfig.getTimeout(), TimeUnit.SECONDS);
 
-        clientBuilder.addInterceptor(new HttpRedirectInterceptor(true));
+        clientBuilder.addInterceptor(new HttpRedirectInterceptor(true, clientMetrics));
         // If retries are allowed then RetryInterceptor must be registered
         if (httpClientConfig.getNumberOfRetries() > 0) {
             clientBuilder.callTimeout(httpClientConfig.getMaximumRetryWaitTime(), TimeUnit.SECONDS)
-                    .addInterceptor(new RetryInterceptor(httpClientConfig));
+                    .addInterceptor(new RetryInterceptor(httpClientConfig, createRetryBudget(),
+                            clientMetrics));
         } else {
             clientBuilder.callTimeout(httpClientConfig.getTimeout(), TimeUnit.SECONDS);
         }
 
+        if (okClientConfiguration.getCircuitBreakerConfiguration() != null) {
+            clientBuilder.addInterceptor(new CircuitBreakerInterceptor(httpClientConfig,
+                    okClientConfiguration.getCircuitBreakerConfiguration()));
+        }
+        if (hostRateLimiter != null) {
+            clientBuilder.addInterceptor(new RateLimitInterceptor(hostRateLimiter));
+        }
+        RequestCompressionConfiguration compression =
+                okClientConfiguration.getRequestCompressionConfiguration();
+        if (compression != null) {
+            requestCompression = new RequestCompressionInterceptor(
+                    compression.getMinimumSizeBytes(), compression.getPathPrefixes());
+            clientBuilder.addInterceptor(requestCompression);
+        }
+
+        applyHttpCache(clientBuilder);
+        applyConnectionLimits(clientBuilder);
+        if (clientMetrics != null) {
+            clientBuilder.eventListenerFactory(new MetricsEventListener.Factory(clientMetrics));
+        }
+        if (cachingDns != null) {
+            clientBuilder.dns(cachingDns);
+        }
+        applyTls(clientBuilder, okHttpClient);
+        if (okClientConfiguration.getProtocols() != null) {
+            clientBuilder.protocols(okClientConfiguration.getProtocols());
+        }
+
         // Configure proxy if available
         ProxyConfiguration proxy = httpClientConfig.getProxyConfiguration();
         if (proxy != null) {
@@ -125,6 +332,107 @@ public class OkClient implements HttpClient {
         this.client = clientBuilder.build();
     }
 
+    /**
+     * Creates the budget shared by the retries of all the calls of this client.
+     * @return The retry budget, null if it is not configured.
+     */
+    private RetryBudget createRetryBudget() {
+        if (okClientConfiguration.getRetryBudgetScope() == null) {
+            return null;
+        }
+        return new RetryBudget(okClientConfiguration.getRetryBudgetScope(),
+                okClientConfiguration.getRetryBudgetPercent(),
+                okClientConfiguration.getRetryBudgetMaxRetries());
+    }
+
+    /**
+     * Adds the HTTP response cache when it is configured, with the interceptor counting its hits
+     * registered after all the other application interceptors. The cache of a directory is
+     * shared with the OkClient instances configuring the same directory.
+     * @param clientBuilder The builder of the client
+     */
+    private void applyHttpCache(final OkHttpClient.Builder clientBuilder) {
+        if (okClientConfiguration.getCacheDirectory() != null) {
+            clientBuilder.cache(SharedHttpCaches.getCache(okClientConfiguration.getCacheDirectory(),
+                    okClientConfiguration.getCacheMaxSizeBytes()));
+            cacheStatistics = new CacheStatisticsInterceptor();
+            clientBuilder.addInterceptor(cacheStatistics);
+        }
+    }
+
+    /**
+     * Applies the TLS configuration. The TLS versions and cipher suites restrict the connection
+     * spec of the TLS connections, cleartext connections remaining allowed. The session cache
+     * settings apply to the SSL context shared by the OkClient instances, which replaces the
+     * platform default one of the default client, while a custom OkHttpClient instance keeps
+     * its own context.
+     * @param clientBuilder The builder of the client
+     * @param okHttpClient The client the builder was created from
+     */
+    private void applyTls(final OkHttpClient.Builder clientBuilder,
+            final OkHttpClient okHttpClient) {
+        TlsConfiguration tlsConfiguration = okClientConfiguration.getTlsConfiguration();
+        if (tlsConfiguration == null) {
+            return;
+        }
+
+        if (tlsConfiguration.getTlsVersions() != null
+                || tlsConfiguration.getCipherSuites() != null) {
+            ConnectionSpec.Builder spec = new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS);
+            if (tlsConfiguration.getTlsVersions() != null) {
+                spec.tlsVersions(tlsConfiguration.getTlsVersions().toArray(new TlsVersion[0]));
+            }
+            if (tlsConfiguration.getCipherSuites() != null) {
+                spec.cipherSuites(
+                        tlsConfiguration.getCipherSuites().toArray(new CipherSuite[0]));
+            }
+            clientBuilder.connectionSpecs(Arrays.asList(spec.build(), ConnectionSpec.CLEARTEXT));
+        }
+
+        if (!tlsConfiguration.hasSessionCacheConfiguration()) {
+            return;
+        }
+        try {
+            if (okHttpClient == insecureOkHttpClient) {
+                SharedSslContexts.configureSessionCache(SharedSslContexts.getInsecureContext(),
+                        tlsConfiguration);
+            } else if (okHttpClient == defaultOkHttpClient) {
+                SSLContext sslContext = SharedSslContexts.getDefaultContext();
+                SharedSslContexts.configureSessionCache(sslContext, tlsConfiguration);
+                clientBuilder.sslSocketFactory(sslContext.getSocketFactory(),
+                        SharedSslContexts.getDefaultTrustManager());
+            }
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gives the client a dispatcher and a connection pool of its own limits when they are
+     * configured, so that the limits of this client do not apply to the shared default clients.
+     * They are shared with the OkClient instances configuring the same limits.
+     * @param clientBuilder The builder of the client
+     */
+    private void applyConnectionLimits(final OkHttpClient.Builder clientBuilder) {
+        if (okClientConfiguration.hasDispatcherConfiguration()) {
+            clientBuilder.dispatcher(SharedConnectionResources.getDispatcher(
+                    okClientConfiguration.shouldUseVirtualThreads()
+                            && VirtualThreads.isSupported(),
+                    okClientConfiguration.getMaxRequests(),
+                    okClientConfiguration.getMaxRequestsPerHost()));
+        }
+
+        if (okClientConfiguration.hasConnectionPoolConfiguration()) {
+            Integer maxIdleConnections = okClientConfiguration.getMaxIdleConnections();
+            Long keepAliveDurationMillis = okClientConfiguration.getKeepAliveDurationMillis();
+            clientBuilder.connectionPool(SharedConnectionResources.getConnectionPool(
+                    maxIdleConnections != null ? maxIdleConnections
+                            : DEFAULT_MAX_IDLE_CONNECTIONS,
+                    keepAliveDurationMillis != null ? keepAliveDurationMillis
+                            : DEFAULT_KEEP_ALIVE_DURATION_MILLIS));
+        }
+    }
+
     /**
      * Builds a {@link Proxy} instance using the provided proxy configuration.
      *
@@ -158,52 +466,39 @@ public class OkClient implements HttpClient {
     }
 
     /**
-     * Getter for the default static instance of the OkHttpClient.
-     * @param httpClientConfiguration The client configuration
+     * Getter for the static instance of the OkHttpClient trusting every certificate. It is
+     * derived from the default instance, so both share one dispatcher and one connection pool.
+     * The pool keys its connections by address, which includes the SSL socket factory and the
+     * hostname verifier, so the insecure connections are never handed to the verifying clients.
      * @return {@link OkHttpClient}
      */
-    private OkHttpClient
-            getInsecureOkHttpClient(ClientConfiguration httpClientConfiguration) {
+    private OkHttpClient getInsecureOkHttpClient() {
         if (insecureOkHttpClient == null) {
-            synchronized (SYNC_OBJECT) {
+            OkHttpClient defaultClient = getDefaultOkHttpClient();
+            CLIENT_LOCK.lock();
+            try {
                 if (insecureOkHttpClient == null) {
-                    insecureOkHttpClient = createInsecureOkHttpClient(httpClientConfiguration);
+                    insecureOkHttpClient = createInsecureOkHttpClient(defaultClient);
                 }
+            } finally {
+                CLIENT_LOCK.unlock();
             }
         }
         return insecureOkHttpClient;
     }
 
-    private static OkHttpClient
-            createInsecureOkHttpClient(final ClientConfiguration httpClientConfiguration) {
+    private static OkHttpClient createInsecureOkHttpClient(final OkHttpClient defaultClient) {
         try {
-            // Create a trust manager that does not validate certificate chains
-            final TrustManager[] trustAllCerts = new TrustManager[] {new X509TrustManager() {
-                public void checkClientTrusted(final X509Certificate[] chain, final String authType)
-                        throws CertificateException {}
+            // Install the all-trusting trust manager of the shared insecure context
+            final SSLContext sslContext = SharedSslContexts.getInsecureContext();
 
-                public void checkServerTrusted(final X509Certificate[] chain, final String authType)
-                        throws CertificateException {}
-
-                public X509Certificate[] getAcceptedIssuers() {
-                    return new X509Certificate[0];
-                }
-            } };
-
-            // Install the all-trusting trust manager
-            final SSLContext sslContext = SSLContext.getInstance("SSL");
-            sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
-            // Create an ssl socket factory with our all-trusting manager
-            final SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
-
-            return new OkHttpClient().newBuilder()
-                    .sslSocketFactory(sslSocketFactory, (X509TrustManager) trustAllCerts[0])
+            return defaultClient.newBuilder()
+                    .sslSocketFactory(sslContext.getSocketFactory(), SharedSslContexts.TRUST_ALL)
                     .hostnameVerifier(new HostnameVerifier() {
                         public boolean verify(final String hostname, final SSLSession session) {
                             return true;
                         }
-                    }).retryOnConnectionFailure(true)
-                    .callTimeout(httpClientConfiguration.getTimeout(), TimeUnit.SECONDS).build();
+                    }).build();
 
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -211,35 +506,162 @@ public class OkClient implements HttpClient {
     }
 
     /**
-     * Getter for the default static instance of the OkHttpClient.
+     * Getter for the default static instance of the OkHttpClient, the root of the dispatcher
+     * and the connection pool shared by all the OkClient instances built without a custom
+     * OkHttpClient.
      * @return {@link OkHttpClient}
      */
     private OkHttpClient getDefaultOkHttpClient() {
         if (defaultOkHttpClient == null) {
-            synchronized (SYNC_OBJECT) {
+            CLIENT_LOCK.lock();
+            try {
                 if (defaultOkHttpClient == null) {
                     defaultOkHttpClient =
                             new OkHttpClient.Builder().retryOnConnectionFailure(true)
                                     .callTimeout(0, TimeUnit.SECONDS).build();
                 }
+            } finally {
+                CLIENT_LOCK.unlock();
             }
         }
         return defaultOkHttpClient;
     }
 
     /**
-     * Shutdown the underlying OkHttpClient instance.
+     * Shutdown the underlying OkHttpClient instance, along with the dispatchers and the
+     * connection pools shared by the OkClient instances, and closes their HTTP response caches.
+     * The OkClient instances created afterwards get new ones. The asynchronous calls waiting
+     * for a scheduled retry or for their rate limit fail with an IOException.
      */
     public static void shutdown() {
-        if (defaultOkHttpClient != null) {
-            defaultOkHttpClient.dispatcher().executorService().shutdown();
-            defaultOkHttpClient.connectionPool().evictAll();
+        ConnectionPrewarmer.cancelAll();
+        SharedTimer.shutdown();
+        ClientRegistry.clear();
+        SharedConnectionResources.shutdown();
+        SharedHttpCaches.shutdown();
+
+        CLIENT_LOCK.lock();
+        try {
+            // The insecure instance shares the dispatcher and the pool of the default one
+            if (defaultOkHttpClient != null) {
+                defaultOkHttpClient.dispatcher().executorService().shutdown();
+                defaultOkHttpClient.connectionPool().evictAll();
+            }
+            defaultOkHttpClient = null;
+            insecureOkHttpClient = null;
+        } finally {
+            CLIENT_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Stops the periodic warm-ups of the connections started by this instance. The warm-ups of
+     * a shared client go on until none of the OkClient instances sharing it is reachable, or
+     * until {@link #shutdown()}. The client remains usable.
+     */
+    @Override
+    public void close() {
+        if (keepWarm != null && sharedClient == null) {
+            keepWarm.cancel();
         }
+    }
 
-        if (insecureOkHttpClient != null) {
-            insecureOkHttpClient.dispatcher().executorService().shutdown();
-            insecureOkHttpClient.connectionPool().evictAll();
+    /**
+     * Getter for the counters of the HTTP response cache, counting every attempt of the calls.
+     * @return A snapshot of the counters, all zero if no cache is configured.
+     */
+    public HttpCacheStatistics getHttpCacheStatistics() {
+        if (cacheStatistics == null) {
+            return HttpCacheStatistics.EMPTY;
         }
+        return new HttpCacheStatistics(cacheStatistics.getHitCount(),
+                cacheStatistics.getConditionalHitCount(), cacheStatistics.getMissCount(),
+                cacheStatistics.getMissNetworkTimeMillis());
+    }
+
+    /**
+     * Getter for the adaptive limiter of the calls in flight to each host, to monitor its
+     * current limits.
+     * @return The concurrency limiter, null if it is not configured.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Getter for the policy of the hedged requests, to monitor the hedges sent and used.
+     * @return The request hedger, null if hedging is not configured.
+     */
+    public RequestHedger getRequestHedger() {
+        return requestHedger;
+    }
+
+    /**
+     * Getter for the rate limits of the hosts, to monitor the calls delayed and rejected.
+     * @return The host rate limiter, null if it is not configured.
+     */
+    public HostRateLimiter getHostRateLimiter() {
+        return hostRateLimiter;
+    }
+
+    /**
+     * Getter for the counters of the request body compression, with its compression ratio.
+     * @return A snapshot of the counters, all zero if no compression is configured.
+     */
+    public RequestCompressionStatistics getRequestCompressionStatistics() {
+        if (requestCompression == null) {
+            return RequestCompressionStatistics.EMPTY;
+        }
+        return new RequestCompressionStatistics(requestCompression.getCompressedCount(),
+                requestCompression.getUncompressedBytes(),
+                requestCompression.getCompressedBytes());
+    }
+
+    /**
+     * Getter for the counters of the DNS cache, with its hit ratio and resolve latency.
+     * @return A snapshot of the counters, all zero if no DNS cache is configured.
+     */
+    public DnsCacheStatistics getDnsCacheStatistics() {
+        return cachingDns != null ? cachingDns.getStatistics() : DnsCacheStatistics.EMPTY;
+    }
+
+    /**
+     * Takes a snapshot of the latencies of the call phases and the retry and redirect counts,
+     * per host.
+     * @return The metrics snapshot, empty if the metrics are not collected.
+     */
+    public MetricsSnapshot getMetrics() {
+        return clientMetrics != null ? clientMetrics.snapshot() : MetricsSnapshot.EMPTY;
+    }
+
+    /**
+     * Getter for the OkHttpClient sending the calls, with the interceptors and the settings
+     * applied by this instance.
+     * @return The OkHttpClient.
+     */
+    public OkHttpClient getHttpClient() {
+        return client;
+    }
+
+    /**
+     * Opens pooled connections to the given hosts ahead of the traffic, resolving their names
+     * and completing the TCP and TLS handshakes and the HTTP/2 negotiation, so that the first
+     * calls do not pay them. The connections are opened by concurrent HEAD requests to the base
+     * URLs, bypassing the interceptors and the cache, and their responses are discarded. The
+     * HTTP/1.1 connections opened at once are bounded by the maximum requests per host, while
+     * an HTTP/2 host is served by a single connection.
+     * @param baseUrls The non-empty base URLs of the hosts.
+     * @param connections The positive number of connections to each host.
+     * @return A future completed with the number of successful warm-up calls once all of them
+     *         completed, never exceptionally.
+     */
+    public CompletableFuture<Integer> prewarm(final List<String> baseUrls,
+            final int connections) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("prewarm connections < 1: " + connections);
+        }
+        return new ConnectionPrewarmer(client)
+                .prewarm(OkClientConfiguration.Builder.parseBaseUrls(baseUrls), connections);
     }
 
     /**
@@ -250,25 +672,101 @@ public class OkClient implements HttpClient {
      */
     public CompletableFuture<Response> executeAsync(final Request httpRequest,
             final CoreEndpointConfiguration endpointConfiguration) {
-        okhttp3.Request okHttpRequest = convertRequest(httpRequest);
+        final okhttp3.Request okHttpRequest = convertRequest(httpRequest,
+                new CallContext(endpointConfiguration, httpRequest, true));
 
-        RetryInterceptor retryInterceptor = getRetryInterceptor();
-        if (retryInterceptor != null) {
-            retryInterceptor.addRequestEntry(okHttpRequest, endpointConfiguration, httpRequest);
+        Response cachedResponse = getCachedResponse(okHttpRequest,
+                endpointConfiguration.hasBinaryResponse());
+        if (cachedResponse != null) {
+            return CompletableFuture.completedFuture(cachedResponse);
         }
 
         final CompletableFuture<Response> callBack = new CompletableFuture<>();
-        client.newCall(okHttpRequest).enqueue(new okhttp3.Callback() {
+        final RequestCoalescer.Flight flight = joinFlight(okHttpRequest,
+                endpointConfiguration.hasBinaryResponse());
+        if (flight != null && !flight.isLeader()) {
+            flight.getResult().whenComplete((bufferedResponse, error) -> {
+                if (error == null) {
+                    callBack.complete(createStringResponse(bufferedResponse));
+                } else {
+                    callBack.completeExceptionally(error);
+                }
+            });
+            return callBack;
+        }
+        final okhttp3.Request sentRequest;
+        if (flight == null) {
+            sentRequest = okHttpRequest;
+        } else {
+            sentRequest =
+                    okHttpRequest.newBuilder().tag(RequestCoalescer.Flight.class, flight).build();
+            // The flight is complete already when the leader succeeded
+            callBack.whenComplete((response, error) -> flight.fail(error != null ? error
+                    : new IOException("The coalesced request completed without a response")));
+        }
+
+        final RetryInterceptor retryInterceptor = getRetryInterceptor();
+
+        enqueueCall(sentRequest, new okhttp3.Callback() {
 
             public void onFailure(final okhttp3.Call call, final IOException e) {
-                publishResponse(null, httpRequest, callBack, e,
+                try {
+                    if (!call.isCanceled() && scheduleRetry(call, null, e)) {
+                        return;
+                    }
+                } catch (RuntimeException retryException) {
+                    callBack.completeExceptionally(retryException);
+                    return;
+                }
+                publishResponse(sentRequest, null, httpRequest, callBack, e,
                         endpointConfiguration.hasBinaryResponse());
             }
 
             public void onResponse(final okhttp3.Call call, final okhttp3.Response okHttpResponse) {
-                publishResponse(okHttpResponse, httpRequest, callBack, null,
+                try {
+                    if (scheduleRetry(call, okHttpResponse, null)) {
+                        return;
+                    }
+                } catch (RuntimeException retryException) {
+                    okHttpResponse.close();
+                    callBack.completeExceptionally(retryException);
+                    return;
+                }
+                publishResponse(sentRequest, okHttpResponse, httpRequest, callBack, null,
                         endpointConfiguration.hasBinaryResponse());
             }
+
+            /**
+             * Schedules the next attempt on the shared timer if the outcome of this one has to
+             * be retried, so that no dispatcher thread is held during the back-off.
+             * @param call The call of the attempt.
+             * @param okHttpResponse The response of the attempt, null if it failed.
+             * @param e The exception of the attempt, null if it succeeded.
+             * @return true if another attempt has been scheduled.
+             */
+            private boolean scheduleRetry(final okhttp3.Call call,
+                    final okhttp3.Response okHttpResponse, final IOException e) {
+                if (retryInterceptor == null) {
+                    return false;
+                }
+
+                long waitTime = retryInterceptor.getScheduledRetryWaitTime(call.request(),
+                        okHttpResponse, e);
+                if (waitTime < 0) {
+                    return false;
+                }
+
+                if (okHttpResponse != null) {
+                    okHttpResponse.close();
+                }
+                final okhttp3.Callback callback = this;
+                SharedTimer.schedule(() -> enqueueCall(call.request(), callback),
+                        () -> publishResponse(sentRequest, null, httpRequest, callBack,
+                                new IOException(SHUTDOWN_MESSAGE),
+                                endpointConfiguration.hasBinaryResponse()),
+                        waitTime, TimeUnit.MILLISECONDS);
+                return true;
+            }
         });
 
         return callBack;
@@ -283,18 +781,389 @@ public class OkClient implements HttpClient {
      */
     public Response execute(final Request httpRequest,
             final CoreEndpointConfiguration endpointConfiguration) throws IOException {
-        okhttp3.Request okHttpRequest = convertRequest(httpRequest);
+        okhttp3.Request okHttpRequest = convertRequest(httpRequest,
+                new CallContext(endpointConfiguration, httpRequest, false));
 
-        RetryInterceptor retryInterceptor = getRetryInterceptor();
-        if (retryInterceptor != null) {
-            retryInterceptor.addRequestEntry(okHttpRequest, endpointConfiguration, httpRequest);
+        Response cachedResponse = getCachedResponse(okHttpRequest,
+                endpointConfiguration.hasBinaryResponse());
+        if (cachedResponse != null) {
+            return cachedResponse;
         }
 
-        okhttp3.Response okHttpResponse = client.newCall(okHttpRequest).execute();
-
-        return convertResponse(httpRequest,
-                okHttpResponse,
+        RequestCoalescer.Flight flight = joinFlight(okHttpRequest,
                 endpointConfiguration.hasBinaryResponse());
+        if (flight == null) {
+            okhttp3.Response okHttpResponse = executeCall(okHttpRequest);
+            return convertResponse(httpRequest, okHttpRequest, okHttpResponse,
+                    endpointConfiguration.hasBinaryResponse());
+        }
+        if (!flight.isLeader()) {
+            return createStringResponse(flight.await());
+        }
+
+        try {
+            okhttp3.Request leaderRequest =
+                    okHttpRequest.newBuilder().tag(RequestCoalescer.Flight.class, flight).build();
+            okhttp3.Response okHttpResponse = executeCall(leaderRequest);
+            return convertResponse(httpRequest, leaderRequest, okHttpResponse, false);
+        } catch (Throwable e) {
+            flight.fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a call once the concurrency limiter, when configured, permits it, along with a
+     * hedge when its response is late if hedging is configured.
+     * @param okHttpRequest The okhttp request to send.
+     * @return The okhttp response.
+     * @throws IOException If the call failed or the concurrency limit of the host is exceeded.
+     */
+    private okhttp3.Response executeCall(final okhttp3.Request okHttpRequest) throws IOException {
+        if (isHedgeable(okHttpRequest)) {
+            return executeHedgedCall(okHttpRequest);
+        }
+
+        okhttp3.Call call = client.newCall(okHttpRequest);
+        if (concurrencyLimiter == null) {
+            return call.execute();
+        }
+
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(okHttpRequest.url().host());
+        okhttp3.Response okHttpResponse;
+        try {
+            okHttpResponse = call.execute();
+        } catch (IOException e) {
+            releasePermit(permit, call, null, e);
+            throw e;
+        } catch (RuntimeException e) {
+            permit.onIgnored();
+            throw e;
+        }
+        releasePermit(permit, call, okHttpResponse, null);
+        return okHttpResponse;
+    }
+
+    /**
+     * Sends a hedged call from the calling thread, whose calls are enqueued so that they can
+     * run in parallel.
+     * @param okHttpRequest The okhttp request to send.
+     * @return The okhttp response of the first call to answer.
+     * @throws IOException If the calls failed, or if interrupted.
+     */
+    private okhttp3.Response executeHedgedCall(final okhttp3.Request okHttpRequest)
+            throws IOException {
+        final CompletableFuture<okhttp3.Response> result = new CompletableFuture<>();
+        HedgedCall hedgedCall = new HedgedCall(okHttpRequest, this::enqueueLimitedCall,
+                requestHedger, new okhttp3.Callback() {
+                    public void onFailure(final okhttp3.Call call, final IOException e) {
+                        result.completeExceptionally(e);
+                    }
+
+                    public void onResponse(final okhttp3.Call call,
+                            final okhttp3.Response okHttpResponse) {
+                        result.complete(okHttpResponse);
+                    }
+                });
+        hedgedCall.start();
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            hedgedCall.cancel();
+            result.thenAccept(okhttp3.Response::close);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a hedged call");
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Whether a second call may be sent for a request whose response is late, which requires
+     * its method and endpoint to allow retries.
+     * @param okHttpRequest The okhttp request to send.
+     * @return true if hedging is configured and the request may be retried.
+     */
+    private boolean isHedgeable(final okhttp3.Request okHttpRequest) {
+        return requestHedger != null
+                && RetryInterceptor.isRetryAllowed(httpClientConfiguration, okHttpRequest);
+    }
+
+    /**
+     * Enqueues a call, along with a hedge when its response is late if hedging is configured.
+     * @param okHttpRequest The okhttp request to send.
+     * @param callback The callback of the call.
+     */
+    private void enqueueCall(final okhttp3.Request okHttpRequest,
+            final okhttp3.Callback callback) {
+        if (isHedgeable(okHttpRequest)) {
+            new HedgedCall(okHttpRequest, this::enqueueLimitedCall, requestHedger, callback)
+                    .start();
+        } else {
+            enqueueLimitedCall(okHttpRequest, callback);
+        }
+    }
+
+    /**
+     * Enqueues a call at the send time given by the rate limit of its host, once the
+     * concurrency limiter permits it, when they are configured. A call waits for both without
+     * holding a thread, and a rejected call is reported to the callback as a failure, from the
+     * executor of the dispatcher.
+     * @param okHttpRequest The okhttp request to send.
+     * @param callback The callback of the call.
+     * @return The call, which may be cancelled before it is enqueued.
+     */
+    private okhttp3.Call enqueueLimitedCall(final okhttp3.Request okHttpRequest,
+            final okhttp3.Callback callback) {
+        final okhttp3.Call limitedCall = client.newCall(okHttpRequest);
+        final String host = okHttpRequest.url().host();
+        if (hostRateLimiter == null || !RateLimitInterceptor.isPacedByCaller(okHttpRequest)) {
+            enqueuePermittedCall(host, limitedCall, callback);
+            return limitedCall;
+        }
+
+        long waitNanos = hostRateLimiter.reserve(host);
+        if (waitNanos < 0) {
+            dispatch(() -> callback.onFailure(limitedCall, new RateLimitExceededException(host)));
+        } else if (waitNanos > 0) {
+            SharedTimer.schedule(
+                    () -> dispatch(() -> enqueuePermittedCall(host, limitedCall, callback)),
+                    () -> dispatch(() -> {
+                        // A cancelled call is not retried
+                        limitedCall.cancel();
+                        callback.onFailure(limitedCall, new IOException(SHUTDOWN_MESSAGE));
+                    }), waitNanos, TimeUnit.NANOSECONDS);
+        } else {
+            enqueuePermittedCall(host, limitedCall, callback);
+        }
+        return limitedCall;
+    }
+
+    /**
+     * Runs the continuation of a call on the executor of the dispatcher, which runs the
+     * callbacks of the calls, rather than on the thread of the shared timer or of the caller.
+     * It runs on the calling thread once the executor is shut down.
+     * @param continuation The continuation of the call.
+     */
+    private void dispatch(final Runnable continuation) {
+        try {
+            client.dispatcher().executorService().execute(continuation);
+        } catch (RejectedExecutionException e) {
+            continuation.run();
+        }
+    }
+
+    /**
+     * Enqueues a call once the concurrency limiter, when configured, permits it. A rejected
+     * call is reported to the callback as a failure, from the executor of the dispatcher.
+     * @param host The host of the call.
+     * @param limitedCall The call to enqueue.
+     * @param callback The callback of the call.
+     */
+    private void enqueuePermittedCall(final String host, final okhttp3.Call limitedCall,
+            final okhttp3.Callback callback) {
+        if (concurrencyLimiter == null) {
+            applyCallDeadline(limitedCall);
+            limitedCall.enqueue(callback);
+            return;
+        }
+
+        concurrencyLimiter.acquireAsync(host).whenComplete(
+                (permit, error) -> {
+                    if (error != null) {
+                        dispatch(() -> callback.onFailure(limitedCall, (IOException) error));
+                        return;
+                    }
+                    // A permit released by another call is granted on the releasing thread,
+                    // which only hands the call over to the dispatcher
+                    applyCallDeadline(limitedCall);
+                    limitedCall.enqueue(new okhttp3.Callback() {
+                        public void onFailure(final okhttp3.Call call, final IOException e) {
+                            releasePermit(permit, call, null, e);
+                            callback.onFailure(call, e);
+                        }
+
+                        public void onResponse(final okhttp3.Call call,
+                                final okhttp3.Response okHttpResponse) throws IOException {
+                            releasePermit(permit, call, okHttpResponse, null);
+                            callback.onResponse(call, okHttpResponse);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Bounds an attempt of a call whose retries are scheduled by the time left of the call
+     * timeout, so that the timeout spans all the attempts of the call, as it does for the
+     * retries made by the RetryInterceptor.
+     * @param call The call of the attempt, before it is enqueued.
+     */
+    private void applyCallDeadline(final okhttp3.Call call) {
+        CallContext callContext = CallContext.of(call.request());
+        if (callContext == null || !callContext.hasScheduledRetries()
+                || client.callTimeoutMillis() == 0) {
+            return;
+        }
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(client.callTimeoutMillis())
+                - callContext.getElapsedNanos();
+        // A timeout of zero would disable it
+        call.timeout().timeout(Math.max(remainingNanos, 1), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Releases a concurrency permit with the outcome of its call. Failures and overload
+     * statuses shrink the limit of the host, while cancelled, short-circuited, rate limited and
+     * cached calls leave it unchanged. The latency of a response is the one of its last attempt.
+     * @param permit The permit of the call.
+     * @param call The call.
+     * @param okHttpResponse The response of the call, null if it failed.
+     * @param e The exception of the call, null if it succeeded.
+     */
+    private static void releasePermit(final ConcurrencyLimiter.Permit permit,
+            final okhttp3.Call call, final okhttp3.Response okHttpResponse, final IOException e) {
+        if (call.isCanceled() || e instanceof CircuitBreakerOpenException
+                || e instanceof RateLimitExceededException
+                || okHttpResponse != null && okHttpResponse.networkResponse() == null) {
+            permit.onIgnored();
+        } else if (okHttpResponse == null || isOverloaded(okHttpResponse.code())) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess(okHttpResponse.receivedResponseAtMillis()
+                    - okHttpResponse.sentRequestAtMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Whether a status code reports an overloaded upstream.
+     * @param code The status code.
+     * @return true for 429, 503 and 504.
+     */
+    private static boolean isOverloaded(final int code) {
+        return code == HTTP_TOO_MANY_REQUESTS || code == HttpURLConnection.HTTP_UNAVAILABLE
+                || code == HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Serves a request from the in-memory response cache, starting a background refresh of a
+     * stale entry. Requests with unsafe methods drop the cached responses of their URL instead.
+     * @param okHttpRequest The okhttp request to serve.
+     * @param hasBinaryResponse Whether the response is binary or string.
+     * @return The cached response, null if the request has to be sent.
+     */
+    private Response getCachedResponse(final okhttp3.Request okHttpRequest,
+            final boolean hasBinaryResponse) {
+        if (responseCache == null || hasBinaryResponse) {
+            return null;
+        }
+        if (!isSafeMethod(okHttpRequest.method())) {
+            responseCache.invalidate(okHttpRequest.url());
+            return null;
+        }
+
+        ResponseCache.Entry entry = responseCache.get(okHttpRequest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isStale() && entry.startRefresh()) {
+            refreshCachedResponse(okHttpRequest, entry);
+        }
+        return createStringResponse(entry.getResponse());
+    }
+
+    /**
+     * Sends the request of a stale entry in the background to store a fresh response.
+     * @param okHttpRequest The okhttp request of the entry.
+     * @param entry The stale entry.
+     */
+    private void refreshCachedResponse(final okhttp3.Request okHttpRequest,
+            final ResponseCache.Entry entry) {
+        CallContext callContext = CallContext.of(okHttpRequest);
+        // A single attempt, so that the dispatcher thread is not held by retry back-offs
+        okhttp3.Request refreshRequest = okHttpRequest.newBuilder()
+                .tag(CallContext.class, callContext == null ? null
+                        : new CallContext(callContext.getEndpointConfiguration(),
+                                callContext.getHttpRequest(), true))
+                .build();
+        enqueueCall(refreshRequest, new okhttp3.Callback() {
+            public void onFailure(final okhttp3.Call call, final IOException e) {
+                entry.refreshFailed();
+            }
+
+            public void onResponse(final okhttp3.Call call, final okhttp3.Response okHttpResponse) {
+                try {
+                    convertResponse(null, okHttpRequest, okHttpResponse, false);
+                } catch (IOException e) {
+                    entry.refreshFailed();
+                }
+            }
+        });
+    }
+
+    /**
+     * Joins the flight of an identical request in progress when request coalescing is enabled.
+     * @param okHttpRequest The okhttp request to send.
+     * @param hasBinaryResponse Whether the response is binary or string.
+     * @return The flight, null if the request is not coalesced.
+     */
+    private RequestCoalescer.Flight joinFlight(final okhttp3.Request okHttpRequest,
+            final boolean hasBinaryResponse) {
+        if (requestCoalescer == null || hasBinaryResponse
+                || !RequestCoalescer.isCoalescable(okHttpRequest)) {
+            return null;
+        }
+        return requestCoalescer.join(okHttpRequest);
+    }
+
+    /**
+     * Converts an okhttp response. The string responses of cacheable requests are stored in the
+     * in-memory response cache, and the ones of coalesced requests are shared with the other
+     * requests of their flight.
+     * @param httpRequest The given http request in internal format.
+     * @param okHttpRequest The okhttp request sent.
+     * @param okHttpResponse The okhttp response received.
+     * @param hasBinaryResponse Whether the response is binary or string.
+     * @return The converted http response.
+     * @throws IOException exception to be thrown while converting response.
+     */
+    private Response convertResponse(final Request httpRequest,
+            final okhttp3.Request okHttpRequest, final okhttp3.Response okHttpResponse,
+            final boolean hasBinaryResponse) throws IOException {
+        RequestCoalescer.Flight flight = okHttpRequest.tag(RequestCoalescer.Flight.class);
+        boolean isCacheable = responseCache != null && ResponseCache.isCacheable(okHttpRequest);
+        if (hasBinaryResponse || okHttpResponse == null || (flight == null && !isCacheable)) {
+            return convertResponse(httpRequest, okHttpResponse, hasBinaryResponse);
+        }
+
+        BufferedResponse bufferedResponse = BufferedResponse.read(okHttpResponse);
+        if (isCacheable) {
+            responseCache.put(okHttpRequest, okHttpResponse, bufferedResponse);
+        }
+        if (flight != null) {
+            flight.complete(bufferedResponse);
+        }
+        return createStringResponse(bufferedResponse);
+    }
+
+    /**
+     * Creates an http response with a string body, over its own view of the buffered body.
+     * @param bufferedResponse The buffered response.
+     * @return The http response.
+     */
+    private static Response createStringResponse(final BufferedResponse bufferedResponse) {
+        BufferedResponseBody body = bufferedResponse.getBody();
+        return compatibilityFactory.createHttpResponse(bufferedResponse.getCode(),
+                compatibilityFactory.createHttpHeaders(bufferedResponse.getHeaders()),
+                body.byteStream(), body.string());
+    }
+
+    /**
+     * Whether an HTTP method leaves the resource unchanged.
+     * @param method The HTTP method.
+     * @return true for GET, HEAD, OPTIONS and TRACE.
+     */
+    private static boolean isSafeMethod(final String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                || "TRACE".equals(method);
     }
 
     /**
@@ -309,6 +1178,7 @@ public class OkClient implements HttpClient {
 
     /**
      * Publishes success or failure result as HttpResponse from a HttpRequest.
+     * @param okHttpRequest The okhttp request sent.
      * @param okHttpResponse The okhttp response to publish.
      * @param httpRequest The internal http request.
      * @param completionBlock The success and failure code block reference to invoke the delegate.
@@ -316,12 +1186,14 @@ public class OkClient implements HttpClient {
      * @param hasBinaryResponse Whether the response is binary or string.
      * @return The converted http response.
      */
-    private Response publishResponse(final okhttp3.Response okHttpResponse,
+    private Response publishResponse(final okhttp3.Request okHttpRequest,
+            final okhttp3.Response okHttpResponse,
             final Request httpRequest, final CompletableFuture<Response> completionBlock,
             final Throwable error, final boolean hasBinaryResponse) {
         Response httpResponse = null;
         try {
-            httpResponse = convertResponse(httpRequest, okHttpResponse, hasBinaryResponse);
+            httpResponse = convertResponse(httpRequest, okHttpRequest, okHttpResponse,
+                    hasBinaryResponse);
 
             // if there are no errors, pass on to the callback function
             if (error == null && httpResponse != null) {
@@ -360,13 +1232,15 @@ public class OkClient implements HttpClient {
                 httpResponse = compatibilityFactory.createHttpResponse(response.code(), headers,
                         responseStream);
             } else {
-                String responseString = responseBody.string();
-                InputStream responseStream = new ByteArrayInputStream(responseString.getBytes());
+                BufferedResponseBody bufferedBody;
+                try {
+                    bufferedBody = BufferedResponseBody.read(responseBody);
+                } finally {
+                    responseBody.close();
+                    response.close();
+                }
                 httpResponse = compatibilityFactory.createHttpResponse(response.code(), headers,
-                        responseStream, responseString);
-
-                responseBody.close();
-                response.close();
+                        bufferedBody.byteStream(), bufferedBody.string());
             }
         }
 
@@ -378,7 +1252,18 @@ public class OkClient implements HttpClient {
      * @param httpRequest The given http request in internal format.
      * @return The converted okhttp request
      */
-    private okhttp3.Request convertRequest(final Request httpRequest) {
+    okhttp3.Request convertRequest(final Request httpRequest) {
+        return convertRequest(httpRequest, null);
+    }
+
+    /**
+     * Converts a given internal http request into an okhttp request model.
+     * @param httpRequest The given http request in internal format.
+     * @param callContext The state of the call, attached to the okhttp request as a tag.
+     * @return The converted okhttp request
+     */
+    private okhttp3.Request convertRequest(final Request httpRequest,
+            final CallContext callContext) {
         okhttp3.RequestBody requestBody;
 
         if (httpRequest.getBody() != null) {
@@ -401,7 +1286,7 @@ public class OkClient implements HttpClient {
                     httpRequest.getHeaders().add("content-type", contentType);
                 }
 
-                requestBody = okhttp3.RequestBody.create(file.getFile(),
+                requestBody = createFileRequestBody(file.getFile(),
                         okhttp3.MediaType.parse(contentType));
             } else {
                 // set request body
@@ -424,7 +1309,8 @@ public class OkClient implements HttpClient {
                 // check if a request is a multipart request
                 for (SimpleEntry<String, Object> param : parameters) {
                     if ((param.getValue() instanceof MultipartFile)
-                            || (param.getValue() instanceof Multipart)) {
+                            || (param.getValue() instanceof Multipart)
+                            || (param.getValue() instanceof StreamingMultipartPart)) {
                         multipartRequest = true;
                         break;
                     }
@@ -458,12 +1344,18 @@ public class OkClient implements HttpClient {
         okhttp3.Request okHttpRequest = new okhttp3.Request.Builder()
                 .method(httpRequest.getHttpMethod().toString(), requestBody)
                 .headers(requestHeaders.build()).url(httpRequest.getQueryUrl())
+                .tag(CallContext.class, callContext)
                 .build();
 
         return okHttpRequest;
     }
 
-    private okhttp3.RequestBody createMultipartRequestBody(Request httpRequest) {
+    /**
+     * Creates a multipart request body from the parameters of the given request.
+     * @param httpRequest The given http request in internal format.
+     * @return The multipart request body.
+     */
+    okhttp3.RequestBody createMultipartRequestBody(Request httpRequest) {
         okhttp3.MultipartBody.Builder multipartBuilder =
                 new okhttp3.MultipartBody.Builder().setType(okhttp3.MultipartBody.FORM);
 
@@ -480,8 +1372,8 @@ public class OkClient implements HttpClient {
                             okhttp3.MediaType.parse(wrapperObj.getHeaders().value("content-type"));
                 }
 
-                okhttp3.RequestBody body = okhttp3.RequestBody
-                        .create(wrapperObj.getFileWrapper().getFile(), mediaType);
+                okhttp3.RequestBody body =
+                        createFileRequestBody(wrapperObj.getFileWrapper().getFile(), mediaType);
                 HttpHeaders fileWrapperHeaders =
                         compatibilityFactory.createHttpHeaders(wrapperObj.getHeaders());
                 fileWrapperHeaders.remove("content-type");
@@ -507,6 +1399,17 @@ public class OkClient implements HttpClient {
                 wrapperHeadersBuilder.add("Content-Disposition", "form-data; name="
                         + appendQuotedStringAndEncodeEscapeCharacters(param.getKey()));
                 multipartBuilder.addPart(wrapperHeadersBuilder.build(), body);
+            } else if (param.getValue() instanceof StreamingMultipartPart) {
+                // streamed to the connection when the body is written, never held in memory
+                StreamingMultipartPart part = (StreamingMultipartPart) param.getValue();
+                String disposition = "form-data; name="
+                        + appendQuotedStringAndEncodeEscapeCharacters(param.getKey());
+                if (part.getFileName() != null) {
+                    disposition += "; filename="
+                            + appendQuotedStringAndEncodeEscapeCharacters(part.getFileName());
+                }
+                multipartBuilder.addPart(part.getHeaders().newBuilder()
+                        .add("Content-Disposition", disposition).build(), part.toRequestBody());
             } else {
                 multipartBuilder.addFormDataPart(param.getKey(),
                         (param.getValue() == null) ? "" : param.getValue().toString());
@@ -515,7 +1418,28 @@ public class OkClient implements HttpClient {
         return multipartBuilder.build();
     }
 
-    private static okhttp3.Headers.Builder createRequestHeaders(final HttpHeaders headers) {
+    /**
+     * Creates the body sending a file, through its file channel when it is configured.
+     * @param file The file to send.
+     * @param mediaType The content type of the file.
+     * @return The file request body.
+     */
+    private okhttp3.RequestBody createFileRequestBody(final File file,
+            final okhttp3.MediaType mediaType) {
+        if (okClientConfiguration.getFileBufferSizeBytes() > 0) {
+            return new ChannelFileRequestBody(file, mediaType,
+                    okClientConfiguration.getFileBufferSizeBytes(),
+                    okClientConfiguration.getUploadProgressListener());
+        }
+        return okhttp3.RequestBody.create(file, mediaType);
+    }
+
+    /**
+     * Copies the given internal headers into an okhttp headers builder.
+     * @param headers The headers in internal format.
+     * @return The okhttp headers builder.
+     */
+    static okhttp3.Headers.Builder createRequestHeaders(final HttpHeaders headers) {
         okhttp3.Headers.Builder requestHeaders = new okhttp3.Headers.Builder();
         for (Entry<String, List<String>> kv : headers.asMultimap().entrySet()) {
             for (String value : kv.getValue()) {
@@ -525,7 +1449,13 @@ public class OkClient implements HttpClient {
         return requestHeaders;
     }
 
-    private static String appendQuotedStringAndEncodeEscapeCharacters(final String key) {
+    /**
+     * Quotes the given multipart parameter name and encodes the characters which cannot appear
+     * in a quoted Content-Disposition value.
+     * @param key The parameter name.
+     * @return The quoted and encoded name.
+     */
+    static String appendQuotedStringAndEncodeEscapeCharacters(final String key) {
         String target = "\"";
         for (int i = 0, len = key.length(); i < len; i++) {
             char ch = key.charAt(i);
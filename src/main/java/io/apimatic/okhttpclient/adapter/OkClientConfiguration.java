@@ -0,0 +1,1113 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimiterConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.HedgingConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.RetryBudget;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+
+/**
+ * Configurations specific to the OkHttp adapter, applied by {@link OkClient} on top of the core
+ * {@link io.apimatic.coreinterfaces.http.ClientConfiguration} when it builds its OkHttpClient.
+ * Unset values keep the OkHttp defaults.
+ */
+public final class OkClientConfiguration {
+
+    /**
+     * The configuration used when none is provided, keeping all OkHttp defaults.
+     */
+    public static final OkClientConfiguration DEFAULT = new Builder().build();
+
+    /**
+     * Maximum number of requests executing concurrently, null for the OkHttp default.
+     */
+    private final Integer maxRequests;
+
+    /**
+     * Maximum number of requests executing concurrently for each host, null for the OkHttp
+     * default.
+     */
+    private final Integer maxRequestsPerHost;
+
+    /**
+     * Maximum number of idle connections kept in the pool, null for the OkHttp default.
+     */
+    private final Integer maxIdleConnections;
+
+    /**
+     * Time in milliseconds an idle connection is kept alive, null for the OkHttp default.
+     */
+    private final Long keepAliveDurationMillis;
+
+    /**
+     * Whether the dispatcher runs the calls on virtual threads.
+     */
+    private final boolean useVirtualThreads;
+
+    /**
+     * The protocols the client may use, null for the OkHttp default.
+     */
+    private final List<Protocol> protocols;
+
+    /**
+     * Directory of the HTTP response cache, null to disable the cache.
+     */
+    private final File cacheDirectory;
+
+    /**
+     * Maximum size in bytes of the HTTP response cache.
+     */
+    private final long cacheMaxSizeBytes;
+
+    /**
+     * Maximum number of converted responses kept in memory, 0 to disable the response cache.
+     */
+    private final int responseCacheMaxEntries;
+
+    /**
+     * Maximum time in milliseconds a converted response is kept fresh in memory.
+     */
+    private final long responseCacheMaxTtlMillis;
+
+    /**
+     * Names of the request headers identifying coalesced requests, null to disable coalescing.
+     */
+    private final List<String> coalescingKeyHeaderNames;
+
+    /**
+     * Thresholds of the per host circuit breakers, null to disable them.
+     */
+    private final CircuitBreakerConfiguration circuitBreakerConfiguration;
+
+    /**
+     * Scope of the retry budget, null to disable it.
+     */
+    private final RetryBudget.Scope retryBudgetScope;
+
+    /**
+     * Maximum retries as a percentage of the first attempts.
+     */
+    private final float retryBudgetPercent;
+
+    /**
+     * Maximum retries allowed in a burst.
+     */
+    private final int retryBudgetMaxRetries;
+
+    /**
+     * Bounds of the adaptive per host concurrency limits, null to disable them.
+     */
+    private final ConcurrencyLimiterConfiguration concurrencyLimiterConfiguration;
+
+    /**
+     * Settings of the hedged requests, null to disable hedging.
+     */
+    private final HedgingConfiguration hedgingConfiguration;
+
+    /**
+     * Maximum requests per second to each host, 0 to only follow the limits announced by the
+     * servers, null to disable the client side rate limits.
+     */
+    private final Double rateLimitRequestsPerSecond;
+
+    /**
+     * Longest time a call may wait for the rate limit of its host, in milliseconds.
+     */
+    private final long rateLimitMaxWaitMillis;
+
+    /**
+     * Whether the latencies of the call phases and the retry and redirect counts are recorded.
+     */
+    private final boolean collectMetrics;
+
+    /**
+     * The base URLs of the hosts whose connections are opened ahead of the traffic, null to
+     * disable the warm-up.
+     */
+    private final List<HttpUrl> prewarmBaseUrls;
+
+    /**
+     * Number of connections opened to each warmed up host.
+     */
+    private final int prewarmConnections;
+
+    /**
+     * Interval between the warm-ups keeping the connections alive, in milliseconds, 0 to only
+     * warm them up once.
+     */
+    private final long keepWarmIntervalMillis;
+
+    /**
+     * Settings of the cache of the host name resolutions, null to use the system resolver.
+     */
+    private final DnsCacheConfiguration dnsCacheConfiguration;
+
+    /**
+     * TLS settings of the connections, null for the OkHttp and JDK defaults.
+     */
+    private final TlsConfiguration tlsConfiguration;
+
+    /**
+     * Settings of the gzip compression of the request bodies, null to send them as is.
+     */
+    private final RequestCompressionConfiguration requestCompressionConfiguration;
+
+    /**
+     * Size of the direct buffer reading the uploaded files in bytes, 0 to send the files with
+     * the default OkHttp file bodies.
+     */
+    private final long fileBufferSizeBytes;
+
+    /**
+     * Listener of the progress of the file channel uploads, null for none.
+     */
+    private final UploadProgressListener uploadProgressListener;
+
+    /**
+     * Whether the OkClient instances with equivalent configurations share one OkHttpClient.
+     */
+    private final boolean shareClients;
+
+    private OkClientConfiguration(final Builder builder) {
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveDurationMillis = builder.keepAliveDurationMillis;
+        this.useVirtualThreads = builder.useVirtualThreads;
+        this.protocols = builder.protocols;
+        this.cacheDirectory = builder.cacheDirectory;
+        this.cacheMaxSizeBytes = builder.cacheMaxSizeBytes;
+        this.responseCacheMaxEntries = builder.responseCacheMaxEntries;
+        this.responseCacheMaxTtlMillis = builder.responseCacheMaxTtlMillis;
+        this.coalescingKeyHeaderNames = builder.coalescingKeyHeaderNames;
+        this.circuitBreakerConfiguration = builder.circuitBreakerConfiguration;
+        this.retryBudgetScope = builder.retryBudgetScope;
+        this.retryBudgetPercent = builder.retryBudgetPercent;
+        this.retryBudgetMaxRetries = builder.retryBudgetMaxRetries;
+        this.concurrencyLimiterConfiguration = builder.concurrencyLimiterConfiguration;
+        this.hedgingConfiguration = builder.hedgingConfiguration;
+        this.rateLimitRequestsPerSecond = builder.rateLimitRequestsPerSecond;
+        this.rateLimitMaxWaitMillis = builder.rateLimitMaxWaitMillis;
+        this.collectMetrics = builder.collectMetrics;
+        this.prewarmBaseUrls = builder.prewarmBaseUrls;
+        this.prewarmConnections = builder.prewarmConnections;
+        this.keepWarmIntervalMillis = builder.keepWarmIntervalMillis;
+        this.dnsCacheConfiguration = builder.dnsCacheConfiguration;
+        this.tlsConfiguration = builder.tlsConfiguration;
+        this.requestCompressionConfiguration = builder.requestCompressionConfiguration;
+        this.fileBufferSizeBytes = builder.fileBufferSizeBytes;
+        this.uploadProgressListener = builder.uploadProgressListener;
+        this.shareClients = builder.shareClients;
+    }
+
+    /**
+     * Getter for the maximum number of requests executing concurrently.
+     * @return The maximum number of requests, null for the OkHttp default.
+     */
+    public Integer getMaxRequests() {
+        return maxRequests;
+    }
+
+    /**
+     * Getter for the maximum number of requests executing concurrently for each host.
+     * @return The maximum number of requests per host, null for the OkHttp default.
+     */
+    public Integer getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * Getter for the maximum number of idle connections kept in the pool.
+     * @return The maximum number of idle connections, null for the OkHttp default.
+     */
+    public Integer getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * Getter for the time an idle connection is kept alive.
+     * @return The keep alive duration in milliseconds, null for the OkHttp default.
+     */
+    public Long getKeepAliveDurationMillis() {
+        return keepAliveDurationMillis;
+    }
+
+    /**
+     * Whether the dispatcher runs the calls on virtual threads.
+     * @return true if virtual threads are requested.
+     */
+    public boolean shouldUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Getter for the protocols the client may use.
+     * @return An unmodifiable list of protocols, null for the OkHttp default.
+     */
+    public List<Protocol> getProtocols() {
+        return protocols;
+    }
+
+    /**
+     * Getter for the directory of the HTTP response cache.
+     * @return The cache directory, null if the cache is disabled.
+     */
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Getter for the maximum size of the HTTP response cache.
+     * @return The maximum size in bytes.
+     */
+    public long getCacheMaxSizeBytes() {
+        return cacheMaxSizeBytes;
+    }
+
+    /**
+     * Getter for the maximum number of converted responses kept in memory.
+     * @return The maximum number of entries, 0 if the response cache is disabled.
+     */
+    public int getResponseCacheMaxEntries() {
+        return responseCacheMaxEntries;
+    }
+
+    /**
+     * Getter for the maximum time a converted response is kept fresh in memory.
+     * @return The maximum time to live in milliseconds.
+     */
+    public long getResponseCacheMaxTtlMillis() {
+        return responseCacheMaxTtlMillis;
+    }
+
+    /**
+     * Getter for the names of the request headers identifying coalesced requests.
+     * @return An unmodifiable list of header names, empty to use all the request headers, null
+     *         if coalescing is disabled.
+     */
+    public List<String> getCoalescingKeyHeaderNames() {
+        return coalescingKeyHeaderNames;
+    }
+
+    /**
+     * Getter for the thresholds of the per host circuit breakers.
+     * @return The circuit breaker configuration, null if circuit breakers are disabled.
+     */
+    public CircuitBreakerConfiguration getCircuitBreakerConfiguration() {
+        return circuitBreakerConfiguration;
+    }
+
+    /**
+     * Getter for the scope of the retry budget.
+     * @return The scope, null if the retry budget is disabled.
+     */
+    public RetryBudget.Scope getRetryBudgetScope() {
+        return retryBudgetScope;
+    }
+
+    /**
+     * Getter for the maximum retries as a percentage of the first attempts.
+     * @return The percentage.
+     */
+    public float getRetryBudgetPercent() {
+        return retryBudgetPercent;
+    }
+
+    /**
+     * Getter for the maximum retries allowed in a burst.
+     * @return The number of retries.
+     */
+    public int getRetryBudgetMaxRetries() {
+        return retryBudgetMaxRetries;
+    }
+
+    /**
+     * Getter for the bounds of the adaptive per host concurrency limits.
+     * @return The concurrency limiter configuration, null if the limits are disabled.
+     */
+    public ConcurrencyLimiterConfiguration getConcurrencyLimiterConfiguration() {
+        return concurrencyLimiterConfiguration;
+    }
+
+    /**
+     * Getter for the settings of the hedged requests.
+     * @return The hedging configuration, null if hedging is disabled.
+     */
+    public HedgingConfiguration getHedgingConfiguration() {
+        return hedgingConfiguration;
+    }
+
+    /**
+     * Getter for the maximum requests per second to each host.
+     * @return The rate, 0 if only the limits announced by the servers are followed, null if
+     *         the client side rate limits are disabled.
+     */
+    public Double getRateLimitRequestsPerSecond() {
+        return rateLimitRequestsPerSecond;
+    }
+
+    /**
+     * Getter for the longest time a call may wait for the rate limit of its host.
+     * @return The maximum wait in milliseconds.
+     */
+    public long getRateLimitMaxWaitMillis() {
+        return rateLimitMaxWaitMillis;
+    }
+
+    /**
+     * Whether the latencies of the call phases and the retry and redirect counts are recorded.
+     * @return true if the metrics are collected.
+     */
+    public boolean shouldCollectMetrics() {
+        return collectMetrics;
+    }
+
+    /**
+     * Getter for the base URLs of the hosts whose connections are opened ahead of the traffic.
+     * @return An unmodifiable list of URLs, null if the warm-up is disabled.
+     */
+    public List<HttpUrl> getPrewarmBaseUrls() {
+        return prewarmBaseUrls;
+    }
+
+    /**
+     * Getter for the number of connections opened to each warmed up host.
+     * @return The number of connections.
+     */
+    public int getPrewarmConnections() {
+        return prewarmConnections;
+    }
+
+    /**
+     * Getter for the interval between the warm-ups keeping the connections alive.
+     * @return The interval in milliseconds, 0 if the connections are only warmed up once.
+     */
+    public long getKeepWarmIntervalMillis() {
+        return keepWarmIntervalMillis;
+    }
+
+    /**
+     * Getter for the settings of the cache of the host name resolutions.
+     * @return The DNS cache configuration, null if the system resolver is used.
+     */
+    public DnsCacheConfiguration getDnsCacheConfiguration() {
+        return dnsCacheConfiguration;
+    }
+
+    /**
+     * Getter for the TLS settings of the connections.
+     * @return The TLS configuration, null for the OkHttp and JDK defaults.
+     */
+    public TlsConfiguration getTlsConfiguration() {
+        return tlsConfiguration;
+    }
+
+    /**
+     * Getter for the settings of the gzip compression of the request bodies.
+     * @return The compression settings, null if the bodies are sent as is.
+     */
+    public RequestCompressionConfiguration getRequestCompressionConfiguration() {
+        return requestCompressionConfiguration;
+    }
+
+    /**
+     * Getter for the size of the direct buffer reading the uploaded files.
+     * @return The size in bytes, 0 if the files are sent with the default OkHttp file bodies.
+     */
+    public long getFileBufferSizeBytes() {
+        return fileBufferSizeBytes;
+    }
+
+    /**
+     * Getter for the listener of the progress of the file channel uploads.
+     * @return The listener, null for none.
+     */
+    public UploadProgressListener getUploadProgressListener() {
+        return uploadProgressListener;
+    }
+
+    /**
+     * Whether the OkClient instances with equivalent configurations share one OkHttpClient.
+     * @return true if the clients are shared.
+     */
+    public boolean shouldShareClients() {
+        return shareClients;
+    }
+
+    /**
+     * Whether any of the dispatcher settings is set, virtual threads counting only on the
+     * versions of Java supporting them.
+     * @return true if OkClient needs its own dispatcher.
+     */
+    public boolean hasDispatcherConfiguration() {
+        return maxRequests != null || maxRequestsPerHost != null
+                || useVirtualThreads && VirtualThreads.isSupported();
+    }
+
+    /**
+     * Whether any of the connection pool limits is set.
+     * @return true if OkClient needs its own connection pool.
+     */
+    public boolean hasConnectionPoolConfiguration() {
+        return maxIdleConnections != null || keepAliveDurationMillis != null;
+    }
+
+    /**
+     * Compares the values of two configurations, including the values of the nested
+     * configurations. The upload progress listener is compared by identity.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OkClientConfiguration)) {
+            return false;
+        }
+        OkClientConfiguration other = (OkClientConfiguration) obj;
+        return Objects.equals(maxRequests, other.maxRequests)
+                && Objects.equals(maxRequestsPerHost, other.maxRequestsPerHost)
+                && Objects.equals(maxIdleConnections, other.maxIdleConnections)
+                && Objects.equals(keepAliveDurationMillis, other.keepAliveDurationMillis)
+                && useVirtualThreads == other.useVirtualThreads
+                && Objects.equals(protocols, other.protocols)
+                && Objects.equals(cacheDirectory, other.cacheDirectory)
+                && cacheMaxSizeBytes == other.cacheMaxSizeBytes
+                && responseCacheMaxEntries == other.responseCacheMaxEntries
+                && responseCacheMaxTtlMillis == other.responseCacheMaxTtlMillis
+                && Objects.equals(coalescingKeyHeaderNames, other.coalescingKeyHeaderNames)
+                && Objects.equals(circuitBreakerConfiguration, other.circuitBreakerConfiguration)
+                && retryBudgetScope == other.retryBudgetScope
+                && retryBudgetPercent == other.retryBudgetPercent
+                && retryBudgetMaxRetries == other.retryBudgetMaxRetries
+                && Objects.equals(concurrencyLimiterConfiguration, other.concurrencyLimiterConfiguration)
+                && Objects.equals(hedgingConfiguration, other.hedgingConfiguration)
+                && Objects.equals(rateLimitRequestsPerSecond, other.rateLimitRequestsPerSecond)
+                && rateLimitMaxWaitMillis == other.rateLimitMaxWaitMillis
+                && collectMetrics == other.collectMetrics
+                && Objects.equals(prewarmBaseUrls, other.prewarmBaseUrls)
+                && prewarmConnections == other.prewarmConnections
+                && keepWarmIntervalMillis == other.keepWarmIntervalMillis
+                && Objects.equals(dnsCacheConfiguration, other.dnsCacheConfiguration)
+                && Objects.equals(tlsConfiguration, other.tlsConfiguration)
+                && Objects.equals(requestCompressionConfiguration, other.requestCompressionConfiguration)
+                && fileBufferSizeBytes == other.fileBufferSizeBytes
+                && uploadProgressListener == other.uploadProgressListener
+                && shareClients == other.shareClients;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRequests, maxRequestsPerHost, maxIdleConnections,
+                keepAliveDurationMillis, useVirtualThreads, protocols, cacheDirectory,
+                cacheMaxSizeBytes, responseCacheMaxEntries, responseCacheMaxTtlMillis,
+                coalescingKeyHeaderNames, circuitBreakerConfiguration, retryBudgetScope,
+                retryBudgetPercent, retryBudgetMaxRetries, concurrencyLimiterConfiguration,
+                hedgingConfiguration, rateLimitRequestsPerSecond, rateLimitMaxWaitMillis,
+                collectMetrics, prewarmBaseUrls, prewarmConnections, keepWarmIntervalMillis,
+                dnsCacheConfiguration, tlsConfiguration, requestCompressionConfiguration,
+                fileBufferSizeBytes, System.identityHashCode(uploadProgressListener),
+                shareClients);
+    }
+
+    /**
+     * Creates a builder initialized with the values of this configuration.
+     * @return The {@link Builder}.
+     */
+    public Builder newBuilder() {
+        Builder builder = new Builder();
+        builder.maxRequests = maxRequests;
+        builder.maxRequestsPerHost = maxRequestsPerHost;
+        builder.maxIdleConnections = maxIdleConnections;
+        builder.keepAliveDurationMillis = keepAliveDurationMillis;
+        builder.useVirtualThreads = useVirtualThreads;
+        builder.protocols = protocols;
+        builder.cacheDirectory = cacheDirectory;
+        builder.cacheMaxSizeBytes = cacheMaxSizeBytes;
+        builder.responseCacheMaxEntries = responseCacheMaxEntries;
+        builder.responseCacheMaxTtlMillis = responseCacheMaxTtlMillis;
+        builder.coalescingKeyHeaderNames = coalescingKeyHeaderNames;
+        builder.circuitBreakerConfiguration = circuitBreakerConfiguration;
+        builder.retryBudgetScope = retryBudgetScope;
+        builder.retryBudgetPercent = retryBudgetPercent;
+        builder.retryBudgetMaxRetries = retryBudgetMaxRetries;
+        builder.concurrencyLimiterConfiguration = concurrencyLimiterConfiguration;
+        builder.hedgingConfiguration = hedgingConfiguration;
+        builder.rateLimitRequestsPerSecond = rateLimitRequestsPerSecond;
+        builder.rateLimitMaxWaitMillis = rateLimitMaxWaitMillis;
+        builder.collectMetrics = collectMetrics;
+        builder.prewarmBaseUrls = prewarmBaseUrls;
+        builder.prewarmConnections = prewarmConnections;
+        builder.keepWarmIntervalMillis = keepWarmIntervalMillis;
+        builder.dnsCacheConfiguration = dnsCacheConfiguration;
+        builder.tlsConfiguration = tlsConfiguration;
+        builder.requestCompressionConfiguration = requestCompressionConfiguration;
+        builder.fileBufferSizeBytes = fileBufferSizeBytes;
+        builder.uploadProgressListener = uploadProgressListener;
+        builder.shareClients = shareClients;
+        return builder;
+    }
+
+    /**
+     * Builder for {@link OkClientConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * Maximum number of requests executing concurrently.
+         */
+        private Integer maxRequests;
+
+        /**
+         * Maximum number of requests executing concurrently for each host.
+         */
+        private Integer maxRequestsPerHost;
+
+        /**
+         * Maximum number of idle connections kept in the pool.
+         */
+        private Integer maxIdleConnections;
+
+        /**
+         * Time in milliseconds an idle connection is kept alive.
+         */
+        private Long keepAliveDurationMillis;
+
+        /**
+         * Whether the dispatcher runs the calls on virtual threads.
+         */
+        private boolean useVirtualThreads;
+
+        /**
+         * The protocols the client may use.
+         */
+        private List<Protocol> protocols;
+
+        /**
+         * Directory of the HTTP response cache.
+         */
+        private File cacheDirectory;
+
+        /**
+         * Maximum size in bytes of the HTTP response cache.
+         */
+        private long cacheMaxSizeBytes;
+
+        /**
+         * Maximum number of converted responses kept in memory.
+         */
+        private int responseCacheMaxEntries;
+
+        /**
+         * Maximum time in milliseconds a converted response is kept fresh in memory.
+         */
+        private long responseCacheMaxTtlMillis;
+
+        /**
+         * Names of the request headers identifying coalesced requests.
+         */
+        private List<String> coalescingKeyHeaderNames;
+
+        /**
+         * Thresholds of the per host circuit breakers.
+         */
+        private CircuitBreakerConfiguration circuitBreakerConfiguration;
+
+        /**
+         * Scope of the retry budget.
+         */
+        private RetryBudget.Scope retryBudgetScope;
+
+        /**
+         * Maximum retries as a percentage of the first attempts.
+         */
+        private float retryBudgetPercent;
+
+        /**
+         * Maximum retries allowed in a burst.
+         */
+        private int retryBudgetMaxRetries;
+
+        /**
+         * Bounds of the adaptive per host concurrency limits.
+         */
+        private ConcurrencyLimiterConfiguration concurrencyLimiterConfiguration;
+
+        /**
+         * Settings of the hedged requests.
+         */
+        private HedgingConfiguration hedgingConfiguration;
+
+        /**
+         * Maximum requests per second to each host.
+         */
+        private Double rateLimitRequestsPerSecond;
+
+        /**
+         * Longest time a call may wait for the rate limit of its host, in milliseconds.
+         */
+        private long rateLimitMaxWaitMillis;
+
+        /**
+         * Whether the latencies of the call phases and the retry and redirect counts are
+         * recorded.
+         */
+        private boolean collectMetrics;
+
+        /**
+         * The base URLs of the hosts whose connections are opened ahead of the traffic.
+         */
+        private List<HttpUrl> prewarmBaseUrls;
+
+        /**
+         * Number of connections opened to each warmed up host.
+         */
+        private int prewarmConnections;
+
+        /**
+         * Interval between the warm-ups keeping the connections alive, in milliseconds.
+         */
+        private long keepWarmIntervalMillis;
+
+        /**
+         * Settings of the cache of the host name resolutions.
+         */
+        private DnsCacheConfiguration dnsCacheConfiguration;
+
+        /**
+         * TLS settings of the connections.
+         */
+        private TlsConfiguration tlsConfiguration;
+
+        /**
+         * Settings of the gzip compression of the request bodies.
+         */
+        private RequestCompressionConfiguration requestCompressionConfiguration;
+
+        /**
+         * Size of the direct buffer reading the uploaded files, in bytes.
+         */
+        private long fileBufferSizeBytes;
+
+        /**
+         * Listener of the progress of the file channel uploads.
+         */
+        private UploadProgressListener uploadProgressListener;
+
+        /**
+         * Whether the OkClient instances with equivalent configurations share one OkHttpClient.
+         */
+        private boolean shareClients;
+
+        /**
+         * Applies all the dispatcher and connection pool limits of a preset. Limits set
+         * afterwards override the ones of the preset.
+         * @param profile The preset to apply.
+         * @return The {@link Builder}.
+         */
+        public Builder connectionProfile(ConnectionProfile profile) {
+            this.maxRequests = profile.getMaxRequests();
+            this.maxRequestsPerHost = profile.getMaxRequestsPerHost();
+            this.maxIdleConnections = profile.getMaxIdleConnections();
+            this.keepAliveDurationMillis = profile.getKeepAliveDurationMillis();
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests executing concurrently.
+         * @param value A positive number of requests.
+         * @return The {@link Builder}.
+         */
+        public Builder maxRequests(int value) {
+            this.maxRequests = requirePositive(value, "maxRequests");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests executing concurrently for each host.
+         * @param value A positive number of requests.
+         * @return The {@link Builder}.
+         */
+        public Builder maxRequestsPerHost(int value) {
+            this.maxRequestsPerHost = requirePositive(value, "maxRequestsPerHost");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of idle connections kept in the pool.
+         * @param value A non negative number of connections.
+         * @return The {@link Builder}.
+         */
+        public Builder maxIdleConnections(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("maxIdleConnections < 0: " + value);
+            }
+            this.maxIdleConnections = value;
+            return this;
+        }
+
+        /**
+         * Sets the time an idle connection is kept alive.
+         * @param duration A positive duration.
+         * @param unit The unit of the duration.
+         * @return The {@link Builder}.
+         */
+        public Builder keepAliveDuration(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("keepAliveDuration <= 0: " + duration);
+            }
+            this.keepAliveDurationMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Runs the asynchronous calls on virtual threads instead of the platform threads of the
+         * OkHttp dispatcher. Only effective on Java 21 and later, ignored on earlier versions.
+         * Combine it with higher request limits to issue many more concurrent calls.
+         * @param value true to use virtual threads.
+         * @return The {@link Builder}.
+         */
+        public Builder useVirtualThreads(boolean value) {
+            this.useVirtualThreads = value;
+            return this;
+        }
+
+        /**
+         * Sets the protocols the client may use. {@link Protocol#HTTP_2} together with
+         * {@link Protocol#HTTP_1_1} negotiates HTTP/2 through ALPN on TLS connections, while
+         * {@link Protocol#H2_PRIOR_KNOWLEDGE} alone speaks HTTP/2 over cleartext connections, to
+         * services known to support it. With HTTP/2, concurrent calls to a host are multiplexed
+         * over a single connection.
+         * @param value The protocols, following the rules of
+         *        {@link okhttp3.OkHttpClient.Builder#protocols(List)}.
+         * @return The {@link Builder}.
+         */
+        public Builder protocols(List<Protocol> value) {
+            List<Protocol> copy = new ArrayList<>(value);
+            if (copy.contains(Protocol.H2_PRIOR_KNOWLEDGE)) {
+                if (copy.size() > 1) {
+                    throw new IllegalArgumentException(
+                            "protocols containing h2_prior_knowledge cannot use other protocols: "
+                                    + copy);
+                }
+            } else if (!copy.contains(Protocol.HTTP_1_1)) {
+                throw new IllegalArgumentException(
+                        "protocols must contain h2_prior_knowledge or http/1.1: " + copy);
+            }
+            if (copy.contains(Protocol.HTTP_1_0)) {
+                throw new IllegalArgumentException("protocols must not contain http/1.0: " + copy);
+            }
+            this.protocols = Collections.unmodifiableList(copy);
+            return this;
+        }
+
+        /**
+         * Enables an on-disk HTTP response cache honouring the Cache-Control and validator
+         * headers of the responses. The OkClient instances configuring the same directory
+         * share one cache, so they must configure the same maximum size. The cache is closed
+         * on OkClient#shutdown().
+         * @param directory The directory of the cache, created if needed.
+         * @param maxSizeBytes The positive maximum size of the cache in bytes.
+         * @return The {@link Builder}.
+         */
+        public Builder cache(File directory, long maxSizeBytes) {
+            if (directory == null) {
+                throw new IllegalArgumentException("cache directory == null");
+            }
+            if (maxSizeBytes <= 0) {
+                throw new IllegalArgumentException("cache maxSizeBytes <= 0: " + maxSizeBytes);
+            }
+            this.cacheDirectory = directory;
+            this.cacheMaxSizeBytes = maxSizeBytes;
+            return this;
+        }
+
+        /**
+         * Enables an in-memory cache of the converted string responses of GET requests, served
+         * without any call while fresh. Only responses with an explicit Cache-Control max-age
+         * are kept, for at most the given time. Within their stale-while-revalidate window the
+         * stale responses are still served while they are refreshed in the background.
+         * @param maxEntries The positive maximum number of responses, the least recently used
+         *        being evicted first.
+         * @param maxTtl The positive maximum time a response is fresh.
+         * @param unit The unit of the time.
+         * @return The {@link Builder}.
+         */
+        public Builder responseCache(int maxEntries, long maxTtl, TimeUnit unit) {
+            if (maxTtl <= 0) {
+                throw new IllegalArgumentException("responseCache maxTtl <= 0: " + maxTtl);
+            }
+            this.responseCacheMaxEntries = requirePositive(maxEntries, "responseCache maxEntries");
+            this.responseCacheMaxTtlMillis = unit.toMillis(maxTtl);
+            return this;
+        }
+
+        /**
+         * Coalesces the identical GET requests of string responses sent while one of them is in
+         * flight: a single call is made and all the callers receive its response. Requests are
+         * identical when their URL and the values of the given headers are equal.
+         * @param keyHeaderNames The names of the headers identifying a request, such as the
+         *        credentials and the content negotiation headers. When none is given, all the
+         *        request headers have to be equal.
+         * @return The {@link Builder}.
+         */
+        public Builder coalesceRequests(String... keyHeaderNames) {
+            this.coalescingKeyHeaderNames =
+                    Collections.unmodifiableList(new ArrayList<>(Arrays.asList(keyHeaderNames)));
+            return this;
+        }
+
+        /**
+         * Enables a circuit breaker per host, which short-circuits the calls to a failing host
+         * and stops their retries while it is open.
+         * @param value The thresholds of the circuit breakers.
+         * @return The {@link Builder}.
+         */
+        public Builder circuitBreaker(CircuitBreakerConfiguration value) {
+            this.circuitBreakerConfiguration = value;
+            return this;
+        }
+
+        /**
+         * Limits the retries of all the calls to a share of their first attempts, so that
+         * retries cannot multiply the traffic during an outage. Once the budget is exhausted,
+         * the outcome of the last attempt is returned without further retries.
+         * @param scope Whether the budget is shared by all the hosts or kept for each host.
+         * @param retryPercent The positive maximum retries, as a percentage of the recent first
+         *        attempts.
+         * @param maxRetries The positive maximum retries allowed in a burst.
+         * @return The {@link Builder}.
+         */
+        public Builder retryBudget(RetryBudget.Scope scope, float retryPercent,
+                int maxRetries) {
+            if (!(retryPercent > 0)) {
+                throw new IllegalArgumentException("retryBudget retryPercent <= 0: "
+                        + retryPercent);
+            }
+            this.retryBudgetMaxRetries = requirePositive(maxRetries, "retryBudget maxRetries");
+            this.retryBudgetScope = scope;
+            this.retryBudgetPercent = retryPercent;
+            return this;
+        }
+
+        /**
+         * Enables an adaptive limit of the calls in flight to each host, which follows the
+         * latency and the errors of the host. The calls over the limit wait for a permit, and
+         * fail with a ConcurrencyLimitExceededException once the queue of the host is full.
+         * @param value The bounds of the limits.
+         * @return The {@link Builder}.
+         */
+        public Builder concurrencyLimiter(ConcurrencyLimiterConfiguration value) {
+            this.concurrencyLimiterConfiguration = value;
+            return this;
+        }
+
+        /**
+         * Enables hedged requests: a request whose method and endpoint allow retries is sent a
+         * second time when its response is late, and the first response is used while the
+         * other call is cancelled.
+         * @param value The settings of the hedges.
+         * @return The {@link Builder}.
+         */
+        public Builder hedging(HedgingConfiguration value) {
+            this.hedgingConfiguration = value;
+            return this;
+        }
+
+        /**
+         * Enables a rate limit per host shared by all the calls of the client. The calls are
+         * paced at the given rate, paused after a 429 or 503 response with a Retry-After
+         * header, and spread over the quota announced by the RateLimit-Remaining and
+         * RateLimit-Reset headers. A call that would wait longer than the maximum wait fails
+         * with a RateLimitExceededException.
+         * @param requestsPerSecond The maximum requests per second to each host, 0 to only
+         *        follow the limits announced by the servers.
+         * @param maxWait The positive longest time a call may wait.
+         * @param unit The unit of the maximum wait.
+         * @return The {@link Builder}.
+         */
+        public Builder rateLimiter(double requestsPerSecond, long maxWait, TimeUnit unit) {
+            if (!(requestsPerSecond >= 0)) {
+                throw new IllegalArgumentException("rateLimiter requestsPerSecond < 0: "
+                        + requestsPerSecond);
+            }
+            if (maxWait < 1) {
+                throw new IllegalArgumentException("rateLimiter maxWait < 1: " + maxWait);
+            }
+            this.rateLimitRequestsPerSecond = requestsPerSecond;
+            this.rateLimitMaxWaitMillis = unit.toMillis(maxWait);
+            return this;
+        }
+
+        /**
+         * Records, per host, histograms of the latencies of the phases of the calls, from the
+         * queueing to the DNS, connect, TLS, time to first byte and response body, along with
+         * the retry and redirect counts, available through OkClient#getMetrics(). Recording
+         * takes no lock. The metrics are collected by an OkHttp EventListener, which replaces
+         * the one of a custom OkHttpClient instance.
+         * @param value true to collect the metrics.
+         * @return The {@link Builder}.
+         */
+        public Builder collectMetrics(boolean value) {
+            this.collectMetrics = value;
+            return this;
+        }
+
+        /**
+         * Opens connections to the given hosts when the client is created, resolving their
+         * names and completing the TCP and TLS handshakes and the HTTP/2 negotiation ahead of
+         * the traffic. The connections are opened by HEAD requests to the base URLs, whose
+         * responses are discarded. See OkClient#prewarm(List, int).
+         * @param baseUrls The non-empty base URLs of the hosts.
+         * @param connections The positive number of connections to each host.
+         * @return The {@link Builder}.
+         */
+        public Builder prewarm(List<String> baseUrls, int connections) {
+            this.prewarmBaseUrls = parseBaseUrls(baseUrls);
+            this.prewarmConnections = requirePositive(connections, "prewarm connections");
+            return this;
+        }
+
+        /**
+         * Warms up the connections of {@link #prewarm(List, int)} again after each interval,
+         * so that the pool keeps them while the client is idle. The interval should be shorter
+         * than the keep alive duration of the pool. The warm-ups stop on OkClient#close(), once
+         * the client is no longer reachable, or on OkClient#shutdown().
+         * @param interval The positive interval between the warm-ups.
+         * @param unit The unit of the interval.
+         * @return The {@link Builder}.
+         */
+        public Builder keepWarm(long interval, TimeUnit unit) {
+            if (interval < 1) {
+                throw new IllegalArgumentException("keepWarm interval < 1: " + interval);
+            }
+            this.keepWarmIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Resolves the host names through a {@link CachingDns}, caching the addresses with
+         * their own time to live, refreshing the hot hosts in the background and serving the
+         * expired addresses when the resolver is slow. Its counters are available through
+         * OkClient#getDnsCacheStatistics().
+         * @param value The settings of the DNS cache.
+         * @return The {@link Builder}.
+         */
+        public Builder dnsCache(DnsCacheConfiguration value) {
+            if (value == null) {
+                throw new IllegalArgumentException("dnsCache must not be null");
+            }
+            this.dnsCacheConfiguration = value;
+            return this;
+        }
+
+        /**
+         * Sets the TLS versions, cipher suites and session cache of the connections, to reduce
+         * the cost of their handshakes. The session cache settings apply to the SSL context
+         * shared by the OkClient instances built without a custom OkHttpClient, which must all
+         * set the same ones.
+         * @param value The TLS settings.
+         * @return The {@link Builder}.
+         */
+        public Builder tls(TlsConfiguration value) {
+            if (value == null) {
+                throw new IllegalArgumentException("tls must not be null");
+            }
+            this.tlsConfiguration = value;
+            return this;
+        }
+
+        /**
+         * Compresses the large request bodies with gzip while they are sent, for the endpoints
+         * accepting the gzip content encoding. The bodies already encoded or of an unknown
+         * length are sent as is. The savings are available through
+         * OkClient#getRequestCompressionStatistics().
+         * @param value The settings of the compression.
+         * @return The {@link Builder}.
+         */
+        public Builder requestCompression(RequestCompressionConfiguration value) {
+            if (value == null) {
+                throw new IllegalArgumentException("requestCompression must not be null");
+            }
+            this.requestCompressionConfiguration = value;
+            return this;
+        }
+
+        /**
+         * Sends the file bodies and the multipart file parts by reading the files through their
+         * channel into a direct buffer, with one read per buffer instead of the 8 KiB reads of
+         * the default OkHttp file bodies. The retries read the file again rather than buffering
+         * it.
+         * @param bufferSizeBytes The size of the direct buffer in bytes, such as 64 KiB, and
+         *        the granularity of the progress reports. Buffers larger than the CPU caches
+         *        are slower than the default file bodies.
+         * @param listener The listener of the progress of the uploads, null for none.
+         * @return The {@link Builder}.
+         */
+        public Builder channelFileUploads(long bufferSizeBytes, UploadProgressListener listener) {
+            if (bufferSizeBytes < 1 || bufferSizeBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("channelFileUploads bufferSize out of range: "
+                        + bufferSizeBytes);
+            }
+            this.fileBufferSizeBytes = bufferSizeBytes;
+            this.uploadProgressListener = listener;
+            return this;
+        }
+
+        /**
+         * Makes the OkClient instances with equivalent configurations share one OkHttpClient,
+         * along with its interceptors, pooled connections, retry budget, circuit breakers, rate
+         * limits, DNS cache and metrics, instead of building one each. Configurations are
+         * equivalent when the settings of their ClientConfiguration applied by OkClient are
+         * equal and their OkClientConfiguration are equal. Clients built on a custom
+         * OkHttpClient instance are never shared. A shared client is released once no OkClient
+         * references it.
+         * @param value true to share the clients.
+         * @return The {@link Builder}.
+         */
+        public Builder shareClients(boolean value) {
+            this.shareClients = value;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link OkClientConfiguration}.
+         */
+        public OkClientConfiguration build() {
+            return new OkClientConfiguration(this);
+        }
+
+        private static int requirePositive(int value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " < 1: " + value);
+            }
+            return value;
+        }
+
+        /**
+         * Parses base URLs of hosts.
+         * @param baseUrls The base URLs.
+         * @return An unmodifiable list of parsed URLs.
+         */
+        static List<HttpUrl> parseBaseUrls(List<String> baseUrls) {
+            if (baseUrls.isEmpty()) {
+                throw new IllegalArgumentException("baseUrls must not be empty");
+            }
+            List<HttpUrl> urls = new ArrayList<>();
+            for (String baseUrl : baseUrls) {
+                urls.add(HttpUrl.get(baseUrl));
+            }
+            return Collections.unmodifiableList(urls);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import okhttp3.HttpUrl;
+
+/**
+ * Coalesces identical GET requests in flight, so that a single call is sent for all of them.
+ * The first caller leads the flight and sends the request; the callers joining while it runs
+ * wait for its buffered response, each of them getting its own view of the body.
+ */
+public final class RequestCoalescer {
+
+    /**
+     * The names of the request headers identifying a flight along with the URL, empty to use all
+     * the request headers.
+     */
+    private final List<String> keyHeaderNames;
+
+    /**
+     * The flights in progress.
+     */
+    private final ConcurrentHashMap<Key, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Initialization constructor.
+     * @param keyHeaderNames The names of the request headers identifying a flight along with the
+     *        URL, empty to use all the request headers
+     */
+    public RequestCoalescer(final List<String> keyHeaderNames) {
+        this.keyHeaderNames = keyHeaderNames;
+    }
+
+    /**
+     * Whether the request may share the response of another one.
+     * @param request The okhttp request.
+     * @return true for GET requests.
+     */
+    public static boolean isCoalescable(okhttp3.Request request) {
+        return "GET".equals(request.method());
+    }
+
+    /**
+     * Joins the flight of an identical request in progress, or starts a new one.
+     * @param request The okhttp request.
+     * @return The flight, led by the caller if {@link Flight#isLeader()}.
+     */
+    public Flight join(okhttp3.Request request) {
+        Key key = new Key(request.url(), keyHeaders(request));
+        Flight flight = new Flight(this, key, new CompletableFuture<>(), true);
+        Flight current = flights.putIfAbsent(key, flight);
+        if (current == null) {
+            return flight;
+        }
+        return new Flight(this, key, current.result, false);
+    }
+
+    /**
+     * Getter for the number of flights in progress.
+     * @return The number of flights.
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private List<String> keyHeaders(okhttp3.Request request) {
+        List<String> values = new ArrayList<>();
+        if (keyHeaderNames.isEmpty()) {
+            for (int i = 0; i < request.headers().size(); i++) {
+                values.add(request.headers().name(i).toLowerCase(Locale.ROOT));
+                values.add(request.headers().value(i));
+            }
+        } else {
+            for (String name : keyHeaderNames) {
+                values.addAll(request.headers(name));
+                values.add(null);
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * A call shared by identical requests.
+     */
+    public static final class Flight {
+
+        /**
+         * The coalescer of the flight.
+         */
+        private final RequestCoalescer coalescer;
+
+        /**
+         * The identity of the flight.
+         */
+        private final Key key;
+
+        /**
+         * The response of the flight.
+         */
+        private final CompletableFuture<BufferedResponse> result;
+
+        /**
+         * Whether the holder of this instance sends the request.
+         */
+        private final boolean leader;
+
+        private Flight(final RequestCoalescer coalescer, final Key key,
+                final CompletableFuture<BufferedResponse> result, final boolean leader) {
+            this.coalescer = coalescer;
+            this.key = key;
+            this.result = result;
+            this.leader = leader;
+        }
+
+        /**
+         * Whether the caller has to send the request and complete the flight.
+         * @return true for the leader of the flight.
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Getter for the response of the flight.
+         * @return A future completed with the response of the leader.
+         */
+        public CompletableFuture<BufferedResponse> getResult() {
+            return result;
+        }
+
+        /**
+         * Waits for the response of the leader.
+         * @return The buffered response.
+         * @throws IOException If the call of the leader failed, or if interrupted.
+         */
+        public BufferedResponse await() throws IOException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a coalesced request");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+
+        /**
+         * Completes the flight with the response of the leader. Later requests start a new
+         * flight.
+         * @param response The buffered response.
+         */
+        public void complete(BufferedResponse response) {
+            coalescer.flights.remove(key, this);
+            result.complete(response);
+        }
+
+        /**
+         * Fails the flight, unless it is already complete.
+         * @param error The failure of the leader.
+         */
+        public void fail(Throwable error) {
+            coalescer.flights.remove(key, this);
+            result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * The identity of a flight: the URL and the values of the key headers.
+     */
+    private static final class Key {
+
+        /**
+         * The URL of the request.
+         */
+        private final HttpUrl url;
+
+        /**
+         * The values of the key headers.
+         */
+        private final List<String> headers;
+
+        private Key(final HttpUrl url, final List<String> headers) {
+            this.url = url;
+            this.headers = headers;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return url.equals(other.url) && headers.equals(other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, headers);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Settings of the gzip compression of the request bodies of an OkClient. The bodies of a known
+ * length of at least the minimum size are compressed while they are sent, with a
+ * Content-Encoding: gzip header, when the path of their URL starts with one of the configured
+ * prefixes, or for every path when no prefix is configured. The servers of these endpoints must
+ * accept the gzip content encoding.
+ */
+public final class RequestCompressionConfiguration {
+
+    /**
+     * Default minimum size of a compressed body, in bytes.
+     */
+    private static final long DEFAULT_MINIMUM_SIZE_BYTES = 1024;
+
+    /**
+     * Minimum size of a compressed body, in bytes.
+     */
+    private final long minimumSizeBytes;
+
+    /**
+     * Prefixes of the paths of the endpoints accepting compressed bodies, empty for all.
+     */
+    private final List<String> pathPrefixes;
+
+    private RequestCompressionConfiguration(final Builder builder) {
+        this.minimumSizeBytes = builder.minimumSizeBytes;
+        this.pathPrefixes = builder.pathPrefixes;
+    }
+
+    /**
+     * Getter for the minimum size of a compressed body.
+     * @return The size in bytes.
+     */
+    public long getMinimumSizeBytes() {
+        return minimumSizeBytes;
+    }
+
+    /**
+     * Getter for the prefixes of the paths of the endpoints accepting compressed bodies.
+     * @return An unmodifiable list of prefixes, empty for all the endpoints.
+     */
+    public List<String> getPathPrefixes() {
+        return pathPrefixes;
+    }
+
+    /**
+     * Compares the values of two configurations.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RequestCompressionConfiguration)) {
+            return false;
+        }
+        RequestCompressionConfiguration other = (RequestCompressionConfiguration) obj;
+        return minimumSizeBytes == other.minimumSizeBytes
+                && Objects.equals(pathPrefixes, other.pathPrefixes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minimumSizeBytes, pathPrefixes);
+    }
+
+    /**
+     * Builder for {@link RequestCompressionConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * Minimum size of a compressed body, in bytes.
+         */
+        private long minimumSizeBytes = DEFAULT_MINIMUM_SIZE_BYTES;
+
+        /**
+         * Prefixes of the paths of the endpoints accepting compressed bodies.
+         */
+        private List<String> pathPrefixes = Collections.emptyList();
+
+        /**
+         * Sets the minimum size of a compressed body, 1 KiB by default. Smaller bodies are sent
+         * as is, since their compression would save little.
+         * @param bytes The size in bytes, 0 to compress every body.
+         * @return The {@link Builder}.
+         */
+        public Builder minimumSize(long bytes) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("minimumSize < 0: " + bytes);
+            }
+            this.minimumSizeBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Restricts the compression to the endpoints whose path starts with one of the prefixes,
+         * such as "/v1/ingest".
+         * @param prefixes The non-empty prefixes, each starting with a slash.
+         * @return The {@link Builder}.
+         */
+        public Builder pathPrefixes(String... prefixes) {
+            if (prefixes.length == 0) {
+                throw new IllegalArgumentException("pathPrefixes must not be empty");
+            }
+            for (String prefix : prefixes) {
+                if (prefix == null || !prefix.startsWith("/")) {
+                    throw new IllegalArgumentException("Invalid path prefix: " + prefix);
+                }
+            }
+            this.pathPrefixes =
+                    Collections.unmodifiableList(new ArrayList<>(Arrays.asList(prefixes)));
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link RequestCompressionConfiguration}.
+         */
+        public RequestCompressionConfiguration build() {
+            return new RequestCompressionConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.apimatic.okhttpclient.adapter;
+
+/**
+ * A snapshot of the counters of the request body compression of an {@link OkClient}.
+ */
+public final class RequestCompressionStatistics {
+
+    /**
+     * Statistics of a client without request compression.
+     */
+    static final RequestCompressionStatistics EMPTY = new RequestCompressionStatistics(0, 0, 0);
+
+    /**
+     * Request bodies sent compressed.
+     */
+    private final long compressedCount;
+
+    /**
+     * Size of the compressed request bodies before their compression, in bytes.
+     */
+    private final long uncompressedBytes;
+
+    /**
+     * Size of the compressed request bodies as sent, in bytes.
+     */
+    private final long compressedBytes;
+
+    /**
+     * Initialization constructor.
+     * @param compressedCount Request bodies sent compressed
+     * @param uncompressedBytes Size of the bodies before their compression
+     * @param compressedBytes Size of the bodies as sent
+     */
+    public RequestCompressionStatistics(final long compressedCount,
+            final long uncompressedBytes, final long compressedBytes) {
+        this.compressedCount = compressedCount;
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+    }
+
+    /**
+     * Getter for the number of request bodies sent compressed, counting every attempt.
+     * @return The compressed count.
+     */
+    public long getCompressedCount() {
+        return compressedCount;
+    }
+
+    /**
+     * Getter for the size of the compressed request bodies before their compression.
+     * @return The size in bytes.
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Getter for the size of the compressed request bodies as sent.
+     * @return The size in bytes.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Getter for the size of the compressed bodies relative to their original size.
+     * @return The ratio, below 1 when the compression saves bytes, 0 without compressed bodies.
+     */
+    public double getCompressionRatio() {
+        return uncompressedBytes == 0 ? 0 : (double) compressedBytes / uncompressedBytes;
+    }
+
+    /**
+     * Getter for the bytes not sent thanks to the compression.
+     * @return The saved size in bytes, negative if the compression grew the bodies.
+     */
+    public long getSavedBytes() {
+        return uncompressedBytes - compressedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCompressionStatistics [compressedCount=" + compressedCount
+                + ", uncompressedBytes=" + uncompressedBytes + ", compressedBytes="
+                + compressedBytes + "]";
+    }
+}
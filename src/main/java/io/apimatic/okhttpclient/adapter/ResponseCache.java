@@ -0,0 +1,332 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import okhttp3.CacheControl;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+
+/**
+ * A bounded in-memory cache of buffered string responses, so that the hot GET requests are
+ * answered without a call. Responses are stored only when their Cache-Control gives an explicit
+ * max-age, and are kept for at most the configured time to live. Within the stale-while-revalidate
+ * window of a response, the stale entry is still returned and the caller refreshes it in the
+ * background. The least recently used entries are evicted once the cache is full.
+ */
+public final class ResponseCache {
+
+    /**
+     * The Cache-Control directive allowing a stale response while it is revalidated.
+     */
+    private static final String STALE_WHILE_REVALIDATE = "stale-while-revalidate=";
+
+    /**
+     * The initial capacity of the entry map.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The load factor of the entry map.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int maxEntries;
+
+    /**
+     * Maximum time in nanoseconds an entry is fresh, and maximum length of its stale window.
+     */
+    private final long maxTtlNanos;
+
+    /**
+     * A lock guarding the entries.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The entries in access order, the eldest being the least recently used.
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * Initialization constructor.
+     * @param maxEntries The maximum number of entries
+     * @param maxTtlMillis The maximum time in milliseconds an entry is fresh
+     */
+    public ResponseCache(final int maxEntries, final long maxTtlMillis) {
+        this.maxEntries = maxEntries;
+        this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMillis);
+        this.entries = new LinkedHashMap<Key, Entry>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ResponseCache.Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Whether the response of the request may be served from or stored in the cache.
+     * @param request The okhttp request.
+     * @return true for GET requests without a no-store directive.
+     */
+    public static boolean isCacheable(okhttp3.Request request) {
+        return "GET".equals(request.method()) && !request.cacheControl().noStore();
+    }
+
+    /**
+     * Getter for the entry of a request, fresh or within its stale-while-revalidate window.
+     * @param request The okhttp request.
+     * @return The entry, null if there is none or the request asks for a network response.
+     */
+    public Entry get(okhttp3.Request request) {
+        if (!isCacheable(request) || request.cacheControl().noCache()) {
+            return null;
+        }
+
+        Key key = new Key(request.url(), request.headers());
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.staleUntilNanos > 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a response if its status and Cache-Control allow it, otherwise drops the entry it
+     * would have replaced.
+     * @param request The okhttp request sent.
+     * @param response The okhttp response received, only its status and headers are used.
+     * @param bufferedResponse The buffered response to store.
+     * @return The stored entry, null if the response is not cacheable.
+     */
+    public Entry put(okhttp3.Request request, okhttp3.Response response,
+            BufferedResponse bufferedResponse) {
+        if (!isCacheable(request)) {
+            return null;
+        }
+
+        Entry entry = createEntry(response, bufferedResponse);
+        Key key = new Key(request.url(), request.headers());
+        lock.lock();
+        try {
+            if (entry == null) {
+                entries.remove(key);
+            } else {
+                entries.put(key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the entries of a URL, after an unsafe request changed the resource.
+     * @param url The URL of the resource.
+     */
+    public void invalidate(HttpUrl url) {
+        lock.lock();
+        try {
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().url.equals(url)) {
+                    keys.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Getter for the number of entries.
+     * @return The number of entries, including the expired ones not yet evicted.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry createEntry(okhttp3.Response response, BufferedResponse bufferedResponse) {
+        CacheControl cacheControl = response.cacheControl();
+        if (!isCacheableStatus(response.code()) || cacheControl.noStore()
+                || cacheControl.noCache() || cacheControl.maxAgeSeconds() < 0) {
+            return null;
+        }
+
+        long ageSeconds = parseSeconds(response.header("Age"));
+        long freshNanos = Math.min(maxTtlNanos,
+                TimeUnit.SECONDS.toNanos(cacheControl.maxAgeSeconds() - ageSeconds));
+        long staleNanos = Math.min(maxTtlNanos,
+                TimeUnit.SECONDS.toNanos(parseStaleWhileRevalidate(response.headers())));
+        if (freshNanos <= 0 && staleNanos <= 0) {
+            return null;
+        }
+
+        long freshUntilNanos = System.nanoTime() + Math.max(freshNanos, 0);
+        return new Entry(bufferedResponse, freshUntilNanos, freshUntilNanos + staleNanos);
+    }
+
+    private static boolean isCacheableStatus(int code) {
+        switch (code) {
+            case HttpURLConnection.HTTP_OK:
+            case HttpURLConnection.HTTP_NOT_AUTHORITATIVE:
+            case HttpURLConnection.HTTP_NO_CONTENT:
+            case HttpURLConnection.HTTP_MULT_CHOICE:
+            case HttpURLConnection.HTTP_MOVED_PERM:
+            case HttpURLConnection.HTTP_NOT_FOUND:
+            case HttpURLConnection.HTTP_GONE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static long parseStaleWhileRevalidate(Headers headers) {
+        for (String value : headers.values("Cache-Control")) {
+            for (String directive : value.split(",")) {
+                String trimmed = directive.trim();
+                if (trimmed.regionMatches(true, 0, STALE_WHILE_REVALIDATE, 0,
+                        STALE_WHILE_REVALIDATE.length())) {
+                    return parseSeconds(trimmed.substring(STALE_WHILE_REVALIDATE.length()));
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(Long.parseLong(value.trim()), 0);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A cached response.
+     */
+    public static final class Entry {
+
+        /**
+         * The cached response.
+         */
+        private final BufferedResponse response;
+
+        /**
+         * The {@link System#nanoTime()} until which the entry is fresh.
+         */
+        private final long freshUntilNanos;
+
+        /**
+         * The {@link System#nanoTime()} until which the entry may be served stale.
+         */
+        private final long staleUntilNanos;
+
+        /**
+         * Whether a background refresh of the entry is running.
+         */
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(final BufferedResponse response, final long freshUntilNanos,
+                final long staleUntilNanos) {
+            this.response = response;
+            this.freshUntilNanos = freshUntilNanos;
+            this.staleUntilNanos = staleUntilNanos;
+        }
+
+        /**
+         * Getter for the cached response.
+         * @return The buffered response.
+         */
+        public BufferedResponse getResponse() {
+            return response;
+        }
+
+        /**
+         * Whether the entry is past its freshness lifetime and has to be revalidated.
+         * @return true if the entry is stale.
+         */
+        public boolean isStale() {
+            return System.nanoTime() - freshUntilNanos >= 0;
+        }
+
+        /**
+         * Claims the background refresh of the entry, so that a single refresh runs at a time.
+         * @return true if the caller has to refresh the entry.
+         */
+        public boolean startRefresh() {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        /**
+         * Releases the refresh claim after a failed refresh, so that a later hit retries it.
+         */
+        public void refreshFailed() {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * The identity of a cached response: the URL and every header of the request, so that
+     * responses varying on the credentials or the negotiated content are never mixed.
+     */
+    private static final class Key {
+
+        /**
+         * The URL of the request.
+         */
+        private final HttpUrl url;
+
+        /**
+         * The headers of the request.
+         */
+        private final Headers headers;
+
+        private Key(final HttpUrl url, final Headers headers) {
+            this.url = url;
+            this.headers = headers;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return url.equals(other.url) && headers.equals(other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, headers);
+        }
+    }
+}
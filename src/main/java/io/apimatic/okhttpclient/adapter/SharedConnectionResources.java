@@ -0,0 +1,116 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+
+/**
+ * The dispatchers and connection pools of the OkClient instances configuring their own limits,
+ * shared by the instances configuring the same limits, so that their threads and connections
+ * are not multiplied by the number of instances. They live until {@link #shutdown()}.
+ */
+final class SharedConnectionResources {
+
+    /**
+     * Name of the threads of a dedicated dispatcher.
+     */
+    private static final String DISPATCHER_NAME = "OkClient Dispatcher";
+
+    /**
+     * A lock guarding the shared dispatchers and pools, which does not pin virtual threads.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The dispatchers, by their thread kind and request limits.
+     */
+    private static final Map<List<Object>, Dispatcher> DISPATCHERS = new HashMap<>();
+
+    /**
+     * The connection pools, by their idle connection limit and keep alive duration.
+     */
+    private static final Map<List<Object>, ConnectionPool> CONNECTION_POOLS = new HashMap<>();
+
+    private SharedConnectionResources() {
+    }
+
+    /**
+     * Getter for the dispatcher of the given limits, created on first use.
+     * @param virtualThreads Whether the calls run on virtual threads.
+     * @param maxRequests The maximum requests in flight, null for the OkHttp default.
+     * @param maxRequestsPerHost The maximum requests in flight per host, null for the OkHttp
+     *        default.
+     * @return The shared dispatcher.
+     */
+    static Dispatcher getDispatcher(final boolean virtualThreads, final Integer maxRequests,
+            final Integer maxRequestsPerHost) {
+        List<Object> key = Arrays.asList(virtualThreads, maxRequests, maxRequestsPerHost);
+        LOCK.lock();
+        try {
+            Dispatcher dispatcher = DISPATCHERS.get(key);
+            if (dispatcher == null) {
+                dispatcher = virtualThreads
+                        ? new Dispatcher(VirtualThreads.newThreadPerTaskExecutor(DISPATCHER_NAME))
+                        : new Dispatcher();
+                if (maxRequests != null) {
+                    dispatcher.setMaxRequests(maxRequests);
+                }
+                if (maxRequestsPerHost != null) {
+                    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+                }
+                DISPATCHERS.put(key, dispatcher);
+            }
+            return dispatcher;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Getter for the connection pool of the given limits, created on first use.
+     * @param maxIdleConnections The maximum idle connections of the pool.
+     * @param keepAliveDurationMillis The time an idle connection is kept, in milliseconds.
+     * @return The shared connection pool.
+     */
+    static ConnectionPool getConnectionPool(final int maxIdleConnections,
+            final long keepAliveDurationMillis) {
+        List<Object> key = Arrays.asList(maxIdleConnections, keepAliveDurationMillis);
+        LOCK.lock();
+        try {
+            ConnectionPool connectionPool = CONNECTION_POOLS.get(key);
+            if (connectionPool == null) {
+                connectionPool = new ConnectionPool(maxIdleConnections, keepAliveDurationMillis,
+                        TimeUnit.MILLISECONDS);
+                CONNECTION_POOLS.put(key, connectionPool);
+            }
+            return connectionPool;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Shuts the executors of the dispatchers down, closes the idle connections of the pools and
+     * forgets them, so that the next OkClient instances create new ones.
+     */
+    static void shutdown() {
+        LOCK.lock();
+        try {
+            for (Dispatcher dispatcher : DISPATCHERS.values()) {
+                dispatcher.executorService().shutdown();
+            }
+            for (ConnectionPool connectionPool : CONNECTION_POOLS.values()) {
+                connectionPool.evictAll();
+            }
+            DISPATCHERS.clear();
+            CONNECTION_POOLS.clear();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import okhttp3.Cache;
+
+/**
+ * The HTTP response caches of the OkClient instances, one per directory, so that the instances
+ * configuring the same directory share its journal instead of corrupting it with concurrent
+ * writers. They stay open until {@link #shutdown()}.
+ */
+final class SharedHttpCaches {
+
+    /**
+     * A lock guarding the shared caches, which does not pin virtual threads.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The open caches, by their canonical directory.
+     */
+    private static final Map<File, Cache> CACHES = new HashMap<>();
+
+    private SharedHttpCaches() {
+    }
+
+    /**
+     * Getter for the cache of a directory, opened on first use.
+     * @param directory The directory of the cache.
+     * @param maxSizeBytes The maximum size of the cache in bytes.
+     * @return The shared cache.
+     * @throws IllegalArgumentException if the cache of the directory has another maximum size.
+     */
+    static Cache getCache(final File directory, final long maxSizeBytes) {
+        File canonicalDirectory;
+        try {
+            canonicalDirectory = directory.getCanonicalFile();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        LOCK.lock();
+        try {
+            Cache cache = CACHES.get(canonicalDirectory);
+            if (cache == null) {
+                cache = new Cache(canonicalDirectory, maxSizeBytes);
+                CACHES.put(canonicalDirectory, cache);
+            } else if (cache.maxSize() != maxSizeBytes) {
+                throw new IllegalArgumentException("cache directory " + canonicalDirectory
+                        + " is already used with maxSizeBytes " + cache.maxSize());
+            }
+            return cache;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Closes the caches and forgets them, so that the next OkClient instances open them again.
+     */
+    static void shutdown() {
+        LOCK.lock();
+        try {
+            for (Cache cache : CACHES.values()) {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    // The journal is rebuilt when the cache is opened again
+                }
+            }
+            CACHES.clear();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
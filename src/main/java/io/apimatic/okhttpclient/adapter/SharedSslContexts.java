@@ -0,0 +1,188 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * The SSL contexts shared by all the OkClient instances, so that their connections share a
+ * single client session cache and resume the TLS sessions of each other. The verifying context
+ * trusts the default certificate authorities of the JDK, while the insecure one trusts every
+ * certificate.
+ */
+final class SharedSslContexts {
+
+    /**
+     * The TLS protocol of the contexts, enabling every TLS version supported by the JDK.
+     */
+    private static final String PROTOCOL = "TLS";
+
+    /**
+     * A trust manager that does not validate certificate chains.
+     */
+    static final X509TrustManager TRUST_ALL = new X509TrustManager() {
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType) {
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType) {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    };
+
+    /**
+     * A lock guarding the creation of the contexts.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The session cache settings applied to the shared contexts, as their size and timeout.
+     */
+    private static final Map<SSLContext, List<Integer>> SESSION_CACHE_SETTINGS =
+            new IdentityHashMap<>();
+
+    /**
+     * The trust manager of the verifying context.
+     */
+    private static volatile X509TrustManager defaultTrustManager;
+
+    /**
+     * The lazily created verifying context.
+     */
+    private static volatile SSLContext defaultContext;
+
+    /**
+     * The lazily created insecure context.
+     */
+    private static volatile SSLContext insecureContext;
+
+    private SharedSslContexts() {
+    }
+
+    /**
+     * Getter for the trust manager of the default certificate authorities.
+     * @return The trust manager of {@link #getDefaultContext()}.
+     * @throws GeneralSecurityException if the JDK provides no such trust manager.
+     */
+    static X509TrustManager getDefaultTrustManager() throws GeneralSecurityException {
+        getDefaultContext();
+        return defaultTrustManager;
+    }
+
+    /**
+     * Getter for the shared context verifying the certificates.
+     * @return The SSL context.
+     * @throws GeneralSecurityException if the context cannot be created.
+     */
+    static SSLContext getDefaultContext() throws GeneralSecurityException {
+        SSLContext current = defaultContext;
+        if (current == null) {
+            LOCK.lock();
+            try {
+                current = defaultContext;
+                if (current == null) {
+                    TrustManagerFactory factory = TrustManagerFactory
+                            .getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                    factory.init((KeyStore) null);
+                    X509TrustManager trustManager = findX509TrustManager(
+                            factory.getTrustManagers());
+                    current = SSLContext.getInstance(PROTOCOL);
+                    current.init(null, new TrustManager[] {trustManager}, null);
+                    defaultTrustManager = trustManager;
+                    defaultContext = current;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Getter for the shared context trusting every certificate.
+     * @return The SSL context.
+     * @throws GeneralSecurityException if the context cannot be created.
+     */
+    static SSLContext getInsecureContext() throws GeneralSecurityException {
+        SSLContext current = insecureContext;
+        if (current == null) {
+            LOCK.lock();
+            try {
+                current = insecureContext;
+                if (current == null) {
+                    current = SSLContext.getInstance(PROTOCOL);
+                    current.init(null, new TrustManager[] {TRUST_ALL}, new SecureRandom());
+                    insecureContext = current;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Applies the session cache settings of a TLS configuration to the client sessions of a
+     * context. Since the context is shared, the settings are applied once, and the later
+     * configurations must have the same ones.
+     * @param context The SSL context.
+     * @param tlsConfiguration The TLS configuration.
+     * @throws IllegalArgumentException if other session cache settings were applied already.
+     */
+    static void configureSessionCache(final SSLContext context,
+            final TlsConfiguration tlsConfiguration) {
+        List<Integer> settings = Arrays.asList(tlsConfiguration.getSessionCacheSize(),
+                tlsConfiguration.getSessionTimeoutSeconds());
+        LOCK.lock();
+        try {
+            List<Integer> appliedSettings = SESSION_CACHE_SETTINGS.get(context);
+            if (appliedSettings != null) {
+                if (!appliedSettings.equals(settings)) {
+                    throw new IllegalArgumentException("sessionCache " + settings
+                            + " conflicts with the settings of the shared SSL context "
+                            + appliedSettings);
+                }
+                return;
+            }
+
+            SSLSessionContext sessionContext = context.getClientSessionContext();
+            if (sessionContext != null) {
+                if (tlsConfiguration.getSessionCacheSize() != null) {
+                    sessionContext.setSessionCacheSize(tlsConfiguration.getSessionCacheSize());
+                }
+                if (tlsConfiguration.getSessionTimeoutSeconds() != null) {
+                    sessionContext.setSessionTimeout(tlsConfiguration.getSessionTimeoutSeconds());
+                }
+            }
+            SESSION_CACHE_SETTINGS.put(context, settings);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static X509TrustManager findX509TrustManager(final TrustManager[] trustManagers)
+            throws GeneralSecurityException {
+        for (TrustManager trustManager : trustManagers) {
+            if (trustManager instanceof X509TrustManager) {
+                return (X509TrustManager) trustManager;
+            }
+        }
+        throw new GeneralSecurityException("No X509TrustManager in the default TrustManagers");
+    }
+}
@@ -0,0 +1,144 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A single daemon timer thread shared by all OkClient instances, to run short tasks after a
+ * delay without parking a thread per pending task. Scheduled tasks must not block, they are only
+ * expected to hand work over to an OkHttp dispatcher.
+ */
+final class SharedTimer {
+
+    /**
+     * Name of the timer thread.
+     */
+    private static final String THREAD_NAME = "OkClient SharedTimer";
+
+    /**
+     * A lock guarding the timer lifecycle, which does not pin virtual threads.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * The tasks with a shutdown action which have not run yet.
+     */
+    private static final Set<PendingTask> PENDING = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The lazily started timer.
+     */
+    private static volatile ScheduledThreadPoolExecutor timer;
+
+    private SharedTimer() {
+    }
+
+    /**
+     * Runs the task once after the given delay. The task is dropped if the timer is shut down
+     * first.
+     * @param task The non-blocking task to run.
+     * @param delay The delay before running the task.
+     * @param unit The unit of the delay.
+     * @return The future of the scheduled task, to cancel it if needed.
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return getTimer().schedule(task, delay, unit);
+    }
+
+    /**
+     * Runs the task once after the given delay, or the shutdown action instead if the timer is
+     * shut down first, so that the caller waiting for the task is not left hanging.
+     * @param task The non-blocking task to run.
+     * @param onShutdown The non-blocking action run instead of the task by {@link #shutdown()}.
+     * @param delay The delay before running the task.
+     * @param unit The unit of the delay.
+     */
+    static void schedule(Runnable task, Runnable onShutdown, long delay, TimeUnit unit) {
+        PendingTask pendingTask = new PendingTask(task, onShutdown);
+        PENDING.add(pendingTask);
+        try {
+            getTimer().schedule(pendingTask, delay, unit);
+        } catch (RejectedExecutionException e) {
+            // The timer was shut down concurrently, after draining the pending tasks
+            if (PENDING.remove(pendingTask)) {
+                onShutdown.run();
+            }
+        }
+    }
+
+    /**
+     * Stops the timer, running the shutdown actions of the pending tasks which have one, on
+     * the calling thread, and discarding the other ones. It is restarted on the next schedule.
+     */
+    static void shutdown() {
+        LOCK.lock();
+        try {
+            if (timer != null) {
+                timer.shutdownNow();
+                timer = null;
+            }
+        } finally {
+            LOCK.unlock();
+        }
+        for (PendingTask pendingTask : PENDING) {
+            if (PENDING.remove(pendingTask)) {
+                pendingTask.onShutdown.run();
+            }
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor getTimer() {
+        ScheduledThreadPoolExecutor current = timer;
+        if (current == null) {
+            LOCK.lock();
+            try {
+                current = timer;
+                if (current == null) {
+                    current = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new Thread(runnable, THREAD_NAME);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    current.setRemoveOnCancelPolicy(true);
+                    timer = current;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * A task with a shutdown action, of which exactly one runs.
+     */
+    private static final class PendingTask implements Runnable {
+
+        /**
+         * The task to run after the delay.
+         */
+        private final Runnable task;
+
+        /**
+         * The action to run instead if the timer is shut down first.
+         */
+        private final Runnable onShutdown;
+
+        PendingTask(final Runnable task, final Runnable onShutdown) {
+            this.task = task;
+            this.onShutdown = onShutdown;
+        }
+
+        @Override
+        public void run() {
+            if (PENDING.remove(this)) {
+                task.run();
+            }
+        }
+    }
+}
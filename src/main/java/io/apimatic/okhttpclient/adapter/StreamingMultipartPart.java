@@ -0,0 +1,251 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * A part of a multipart request whose content is streamed from a file or an input stream while
+ * the request is sent, instead of being held in a byte array. The parts of a multipart body are
+ * written one after the other, so the memory used by an upload does not grow with its size. It
+ * is passed as the value of a request parameter, like the multipart parts of the core
+ * interfaces. The content is opened again for every attempt of the request.
+ */
+public final class StreamingMultipartPart {
+
+    /**
+     * Content type of a part without one.
+     */
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * Opens the content of the part.
+     */
+    private final InputStreamSupplier content;
+
+    /**
+     * Length of the content in bytes, -1 if unknown.
+     */
+    private final long contentLength;
+
+    /**
+     * Content type of the part.
+     */
+    private final String contentType;
+
+    /**
+     * File name of the part in its Content-Disposition, null for none.
+     */
+    private final String fileName;
+
+    /**
+     * Additional headers of the part.
+     */
+    private final Headers headers;
+
+    private StreamingMultipartPart(final Builder builder) {
+        this.content = builder.content;
+        this.contentLength = builder.contentLength;
+        this.contentType = builder.contentType;
+        this.fileName = builder.fileName;
+        this.headers = builder.headers.build();
+    }
+
+    /**
+     * Getter for the length of the content.
+     * @return The length in bytes, -1 if unknown.
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Getter for the content type of the part.
+     * @return The content type.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Getter for the file name of the part.
+     * @return The file name, null for none.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Getter for the additional headers of the part.
+     * @return The headers, without the Content-Type and Content-Disposition ones.
+     */
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Creates a request body copying the content to the connection while it is written, one
+     * segment at a time.
+     * @return The {@link RequestBody}.
+     */
+    public RequestBody toRequestBody() {
+        final MediaType mediaType = MediaType.parse(contentType);
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return mediaType;
+            }
+
+            @Override
+            public long contentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(content.open())) {
+                    sink.writeAll(source);
+                }
+            }
+        };
+    }
+
+    /**
+     * Opens an input stream of the content of a part, each time the part is sent.
+     */
+    @FunctionalInterface
+    public interface InputStreamSupplier {
+
+        /**
+         * Opens a new stream of the content, closed once the content is sent.
+         * @return The input stream.
+         * @throws IOException if the content cannot be opened.
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Builder for {@link StreamingMultipartPart}.
+     */
+    public static final class Builder {
+
+        /**
+         * Opens the content of the part.
+         */
+        private final InputStreamSupplier content;
+
+        /**
+         * Length of the content in bytes.
+         */
+        private long contentLength;
+
+        /**
+         * Content type of the part.
+         */
+        private String contentType = DEFAULT_CONTENT_TYPE;
+
+        /**
+         * File name of the part.
+         */
+        private String fileName;
+
+        /**
+         * Additional headers of the part.
+         */
+        private final Headers.Builder headers = new Headers.Builder();
+
+        /**
+         * Initializes a part streaming a file, named after the file.
+         * @param path The path of the file.
+         * @throws IOException if the size of the file cannot be read.
+         */
+        public Builder(final Path path) throws IOException {
+            if (path == null) {
+                throw new IllegalArgumentException("path must not be null");
+            }
+            this.content = () -> Files.newInputStream(path);
+            this.contentLength = Files.size(path);
+            this.fileName = path.getFileName() != null ? path.getFileName().toString() : null;
+        }
+
+        /**
+         * Initializes a part streaming the input streams of a supplier, of an unknown length
+         * unless {@link #contentLength(long)} is set.
+         * @param content The supplier of the content, called once for each attempt.
+         */
+        public Builder(final InputStreamSupplier content) {
+            if (content == null) {
+                throw new IllegalArgumentException("content must not be null");
+            }
+            this.content = content;
+            this.contentLength = -1;
+        }
+
+        /**
+         * Sets the length of the content, so that the request is not sent chunked.
+         * @param length The length in bytes, -1 if unknown.
+         * @return The {@link Builder}.
+         */
+        public Builder contentLength(long length) {
+            if (length < -1) {
+                throw new IllegalArgumentException("contentLength < -1: " + length);
+            }
+            this.contentLength = length;
+            return this;
+        }
+
+        /**
+         * Sets the content type of the part, application/octet-stream by default.
+         * @param value The content type.
+         * @return The {@link Builder}.
+         */
+        public Builder contentType(String value) {
+            if (value == null || MediaType.parse(value) == null) {
+                throw new IllegalArgumentException("Invalid contentType: " + value);
+            }
+            this.contentType = value;
+            return this;
+        }
+
+        /**
+         * Sets the file name of the part in its Content-Disposition header.
+         * @param value The file name, null for none.
+         * @return The {@link Builder}.
+         */
+        public Builder fileName(String value) {
+            this.fileName = value;
+            return this;
+        }
+
+        /**
+         * Adds a header to the part. The Content-Type and Content-Disposition headers are
+         * derived from the content type, the parameter name and the file name.
+         * @param name The header name.
+         * @param value The header value.
+         * @return The {@link Builder}.
+         */
+        public Builder header(String name, String value) {
+            if ("content-type".equalsIgnoreCase(name)
+                    || "content-disposition".equalsIgnoreCase(name)) {
+                throw new IllegalArgumentException("Header not allowed: " + name);
+            }
+            this.headers.add(name, value);
+            return this;
+        }
+
+        /**
+         * Builds the part.
+         * @return The {@link StreamingMultipartPart}.
+         */
+        public StreamingMultipartPart build() {
+            return new StreamingMultipartPart(this);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import okhttp3.CipherSuite;
+import okhttp3.TlsVersion;
+
+/**
+ * TLS settings of an OkClient, to reduce the cost of the handshakes. The TLS versions and
+ * cipher suites restrict the connection spec of the client, such as TLS 1.3 only for its single
+ * round trip handshake. The session cache settings apply to the SSL context shared by all the
+ * OkClient instances built without a custom OkHttpClient, so that the connections to a host
+ * resume the sessions of the earlier ones with abbreviated handshakes.
+ */
+public final class TlsConfiguration {
+
+    /**
+     * The TLS versions the client may use, null for the OkHttp defaults.
+     */
+    private final List<TlsVersion> tlsVersions;
+
+    /**
+     * The cipher suites the client may use, null for the OkHttp defaults.
+     */
+    private final List<CipherSuite> cipherSuites;
+
+    /**
+     * Maximum number of cached TLS sessions, 0 for no limit, null for the JDK default.
+     */
+    private final Integer sessionCacheSize;
+
+    /**
+     * Time to live of the cached TLS sessions in seconds, 0 for no limit, null for the JDK
+     * default.
+     */
+    private final Integer sessionTimeoutSeconds;
+
+    private TlsConfiguration(final Builder builder) {
+        this.tlsVersions = builder.tlsVersions;
+        this.cipherSuites = builder.cipherSuites;
+        this.sessionCacheSize = builder.sessionCacheSize;
+        this.sessionTimeoutSeconds = builder.sessionTimeoutSeconds;
+    }
+
+    /**
+     * Getter for the TLS versions the client may use.
+     * @return An unmodifiable list of versions, null for the OkHttp defaults.
+     */
+    public List<TlsVersion> getTlsVersions() {
+        return tlsVersions;
+    }
+
+    /**
+     * Getter for the cipher suites the client may use.
+     * @return An unmodifiable list of cipher suites, null for the OkHttp defaults.
+     */
+    public List<CipherSuite> getCipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * Getter for the maximum number of cached TLS sessions.
+     * @return The size, 0 for no limit, null for the JDK default.
+     */
+    public Integer getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Getter for the time to live of the cached TLS sessions.
+     * @return The timeout in seconds, 0 for no limit, null for the JDK default.
+     */
+    public Integer getSessionTimeoutSeconds() {
+        return sessionTimeoutSeconds;
+    }
+
+    /**
+     * Whether any of the session cache settings is set.
+     * @return true if the shared SSL context must be configured.
+     */
+    public boolean hasSessionCacheConfiguration() {
+        return sessionCacheSize != null || sessionTimeoutSeconds != null;
+    }
+
+    /**
+     * Compares the values of two configurations.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TlsConfiguration)) {
+            return false;
+        }
+        TlsConfiguration other = (TlsConfiguration) obj;
+        return Objects.equals(tlsVersions, other.tlsVersions)
+                && Objects.equals(cipherSuites, other.cipherSuites)
+                && Objects.equals(sessionCacheSize, other.sessionCacheSize)
+                && Objects.equals(sessionTimeoutSeconds, other.sessionTimeoutSeconds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tlsVersions, cipherSuites, sessionCacheSize, sessionTimeoutSeconds);
+    }
+
+    /**
+     * Builder for {@link TlsConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * The TLS versions the client may use.
+         */
+        private List<TlsVersion> tlsVersions;
+
+        /**
+         * The cipher suites the client may use.
+         */
+        private List<CipherSuite> cipherSuites;
+
+        /**
+         * Maximum number of cached TLS sessions.
+         */
+        private Integer sessionCacheSize;
+
+        /**
+         * Time to live of the cached TLS sessions, in seconds.
+         */
+        private Integer sessionTimeoutSeconds;
+
+        /**
+         * Restricts the TLS versions of the connections, such as {@link TlsVersion#TLS_1_3}
+         * alone for the one round trip handshakes, which requires a JDK supporting TLS 1.3.
+         * @param versions The non-empty TLS versions.
+         * @return The {@link Builder}.
+         */
+        public Builder tlsVersions(TlsVersion... versions) {
+            if (versions.length == 0) {
+                throw new IllegalArgumentException("tlsVersions must not be empty");
+            }
+            this.tlsVersions =
+                    Collections.unmodifiableList(new ArrayList<>(Arrays.asList(versions)));
+            return this;
+        }
+
+        /**
+         * Restricts the cipher suites of the connections.
+         * @param suites The non-empty cipher suites.
+         * @return The {@link Builder}.
+         */
+        public Builder cipherSuites(CipherSuite... suites) {
+            if (suites.length == 0) {
+                throw new IllegalArgumentException("cipherSuites must not be empty");
+            }
+            this.cipherSuites =
+                    Collections.unmodifiableList(new ArrayList<>(Arrays.asList(suites)));
+            return this;
+        }
+
+        /**
+         * Sets the client session cache of the shared SSL context. The sessions are kept for
+         * resumption until they time out or are evicted from a full cache. Since the context is
+         * shared, the OkClient instances setting its session cache must all set the same one,
+         * an OkClient setting another one is rejected with an IllegalArgumentException.
+         * @param size The maximum number of cached sessions, 0 for no limit.
+         * @param timeout The time to live of the sessions, 0 for no limit.
+         * @param unit The unit of the time to live.
+         * @return The {@link Builder}.
+         */
+        public Builder sessionCache(int size, long timeout, TimeUnit unit) {
+            if (size < 0) {
+                throw new IllegalArgumentException("sessionCache size < 0: " + size);
+            }
+            long timeoutSeconds = unit.toSeconds(timeout);
+            if (timeoutSeconds < 0 || timeoutSeconds > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("sessionCache timeout out of range: "
+                        + timeout);
+            }
+            this.sessionCacheSize = size;
+            this.sessionTimeoutSeconds = (int) timeoutSeconds;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link TlsConfiguration}.
+         */
+        public TlsConfiguration build() {
+            return new TlsConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.io.File;
+
+/**
+ * Listener of the progress of the file uploads sent with a {@link ChannelFileRequestBody}. It is
+ * called on the thread writing the request, after each buffer of the file, so it must return
+ * quickly.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * Reports the progress of an attempt to send a file. A retried upload starts again from 0.
+     * @param file The uploaded file.
+     * @param bytesWritten The bytes of the file written so far by this attempt.
+     * @param contentLength The size of the file in bytes.
+     * @param elapsedNanos The time spent writing the file so far, in nanoseconds, from which
+     *        the throughput follows.
+     */
+    void onProgress(File file, long bytesWritten, long contentLength, long elapsedNanos);
+}
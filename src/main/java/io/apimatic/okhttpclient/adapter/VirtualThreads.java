@@ -0,0 +1,31 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads. This is the Java 8 variant, where they are not available; the
+ * multi-release JAR replaces it with the variant in {@code src/main/java21} on Java 21 and later.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether virtual threads are available on the running JVM.
+     * @return false, virtual threads require Java 21.
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task.
+     * @param namePrefix The prefix of the thread names.
+     * @return Never returns on this variant.
+     * @throws UnsupportedOperationException Always, virtual threads require Java 21.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+}
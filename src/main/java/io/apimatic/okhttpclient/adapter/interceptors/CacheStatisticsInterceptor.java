@@ -0,0 +1,90 @@
+package io.apimatic.okhttpclient.adapter.interceptors;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * CacheStatisticsInterceptor counts how the responses of an OkHttpClient with a
+ * {@link okhttp3.Cache} were served. It must be the last application interceptor, so that it
+ * sees every attempt right after the cache.
+ */
+public final class CacheStatisticsInterceptor implements Interceptor {
+
+    /**
+     * Responses served from the cache without contacting the server.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Responses served from the cache after the server validated them.
+     */
+    private final LongAdder conditionalHitCount = new LongAdder();
+
+    /**
+     * Responses served by the server.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Time in milliseconds spent waiting for the server on the cache misses.
+     */
+    private final LongAdder missNetworkTimeMillis = new LongAdder();
+
+    /**
+     * Counts the way the response was served.
+     * @see okhttp3.Interceptor#intercept(okhttp3.Interceptor.Chain)
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        Response networkResponse = response.networkResponse();
+        if (networkResponse == null) {
+            if (response.cacheResponse() != null) {
+                hitCount.increment();
+            }
+        } else if (response.cacheResponse() != null
+                && networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            conditionalHitCount.increment();
+        } else {
+            missCount.increment();
+            missNetworkTimeMillis.add(networkResponse.receivedResponseAtMillis()
+                    - networkResponse.sentRequestAtMillis());
+        }
+        return response;
+    }
+
+    /**
+     * Getter for the number of responses served from the cache without contacting the server.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Getter for the number of responses served from the cache after the server validated them.
+     * @return The conditional hit count.
+     */
+    public long getConditionalHitCount() {
+        return conditionalHitCount.sum();
+    }
+
+    /**
+     * Getter for the number of responses served by the server.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Getter for the time spent waiting for the server on the cache misses.
+     * @return The total time in milliseconds.
+     */
+    public long getMissNetworkTimeMillis() {
+        return missNetworkTimeMillis.sum();
+    }
+}
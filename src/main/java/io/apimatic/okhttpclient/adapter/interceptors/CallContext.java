@@ -0,0 +1,133 @@
+package io.apimatic.okhttpclient.adapter.interceptors;
+
+import io.apimatic.coreinterfaces.http.request.Request;
+import io.apimatic.coreinterfaces.http.request.configuration.CoreEndpointConfiguration;
+
+/**
+ * Holds the state of a single OkClient call while it goes through the interceptors. It is
+ * attached to the okhttp request as a tag, so it is carried along to the follow-up requests
+ * built from it and released together with the call.
+ */
+public final class CallContext {
+
+    /**
+     * The internal HTTP request.
+     */
+    private final Request httpRequest;
+
+    /**
+     * To keep track of request endpoint configurations.
+     */
+    private final CoreEndpointConfiguration endpointConfiguration;
+
+    /**
+     * Whether the retries are scheduled by the caller.
+     */
+    private final boolean hasScheduledRetries;
+
+    /**
+     * The time the call started at, from {@link System#nanoTime()}.
+     */
+    private final long startNanos;
+
+    /**
+     * To keep track of requests count.
+     */
+    int retryCount = 0;
+
+    /**
+     * To store the wait time for next request.
+     */
+    long currentWaitInMilliSeconds = 0;
+
+    /**
+     * To keep track of overall wait time.
+     */
+    long totalWaitTimeInMilliSeconds = 0;
+
+    /**
+     * Initialization constructor.
+     * @param endpointConfiguration The end point configuration, null for the default retry
+     *        option of the request method
+     * @param httpRequest The client request, null if unknown
+     * @param hasScheduledRetries Whether the caller schedules the retries itself using
+     *        {@link RetryInterceptor#getScheduledRetryWaitTime}, instead of the interceptor
+     *        waiting for them.
+     */
+    public CallContext(final CoreEndpointConfiguration endpointConfiguration,
+            final Request httpRequest, final boolean hasScheduledRetries) {
+        this(endpointConfiguration, httpRequest, hasScheduledRetries, System.nanoTime());
+    }
+
+    private CallContext(final CoreEndpointConfiguration endpointConfiguration,
+            final Request httpRequest, final boolean hasScheduledRetries,
+            final long startNanos) {
+        this.endpointConfiguration = endpointConfiguration;
+        this.httpRequest = httpRequest;
+        this.hasScheduledRetries = hasScheduledRetries;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Getter for the call context attached to an okhttp request.
+     * @param okHttpRequest The OK HTTP Request.
+     * @return The call context, or null if the request was not created by OkClient.
+     */
+    public static CallContext of(okhttp3.Request okHttpRequest) {
+        return okHttpRequest.tag(CallContext.class);
+    }
+
+    /**
+     * Creates a copy of the state of the call, for an attempt sent in parallel to the ones of
+     * this call, which keeps its own retry count and shares its start time.
+     * @return The copy.
+     */
+    public CallContext copy() {
+        CallContext copy = new CallContext(endpointConfiguration, httpRequest,
+                hasScheduledRetries, startNanos);
+        copy.retryCount = retryCount;
+        copy.currentWaitInMilliSeconds = currentWaitInMilliSeconds;
+        copy.totalWaitTimeInMilliSeconds = totalWaitTimeInMilliSeconds;
+        return copy;
+    }
+
+    /**
+     * Getter for the internal HTTP request.
+     * @return The core interface Request.
+     */
+    public Request getHttpRequest() {
+        return httpRequest;
+    }
+
+    /**
+     * Getter for the endpoint configuration.
+     * @return The endpoint configuration of the call.
+     */
+    public CoreEndpointConfiguration getEndpointConfiguration() {
+        return endpointConfiguration;
+    }
+
+    /**
+     * Whether the retries of the call are scheduled by the caller.
+     * @return true if the interceptor has to make a single attempt.
+     */
+    public boolean hasScheduledRetries() {
+        return hasScheduledRetries;
+    }
+
+    /**
+     * Getter for the number of retries made so far.
+     * @return The retry count.
+     */
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Getter for the time elapsed since the call started, across all its attempts.
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,108 @@
+package io.apimatic.okhttpclient.adapter.interceptors;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import io.apimatic.coreinterfaces.http.ClientConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreaker;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerOpenException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * CircuitBreakerInterceptor short-circuits the calls to the hosts whose circuit breaker is open.
+ * It is registered after the {@link RetryInterceptor}, so that every attempt is recorded, and
+ * classifies the outcomes the same way: I/O errors and timeouts, and responses the
+ * RetryInterceptor would retry, are failures.
+ */
+public final class CircuitBreakerInterceptor implements Interceptor {
+
+    /**
+     * User specified retry configurations, classifying the failed responses.
+     */
+    private final ClientConfiguration httpClientConfiguration;
+
+    /**
+     * The thresholds of the circuit breakers.
+     */
+    private final CircuitBreakerConfiguration configuration;
+
+    /**
+     * The circuit breakers by host and port.
+     */
+    private final ConcurrentHashMap<String, CircuitBreaker> circuitBreakers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Initialization constructor.
+     * @param httpClientConfig The user specified configurations.
+     * @param circuitBreakerConfig The thresholds of the circuit breakers.
+     */
+    public CircuitBreakerInterceptor(final ClientConfiguration httpClientConfig,
+            final CircuitBreakerConfiguration circuitBreakerConfig) {
+        this.httpClientConfiguration = httpClientConfig;
+        this.configuration = circuitBreakerConfig;
+    }
+
+    /**
+     * Sends the request if the circuit breaker of its host permits it and records the outcome.
+     * @see okhttp3.Interceptor#intercept(okhttp3.Interceptor.Chain)
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = getHost(request);
+        CircuitBreaker circuitBreaker = getCircuitBreaker(host);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException(host);
+        }
+
+        long startNanos = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled()) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onResult(true, System.nanoTime() - startNanos);
+            }
+            throw e;
+        }
+
+        if (response.networkResponse() == null && response.cacheResponse() != null) {
+            circuitBreaker.onIgnored();
+        } else {
+            circuitBreaker.onResult(
+                    RetryInterceptor.isRetryableResponse(httpClientConfiguration, response),
+                    System.nanoTime() - startNanos);
+        }
+        return response;
+    }
+
+    /**
+     * Getter for the state of the circuit breaker of a host.
+     * @param host The host, followed by its port when it is not the default port of the scheme.
+     * @return The state, {@link CircuitBreaker.State#CLOSED} for hosts not called yet.
+     */
+    public CircuitBreaker.State getState(String host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+        return circuitBreaker == null ? CircuitBreaker.State.CLOSED : circuitBreaker.getState();
+    }
+
+    private CircuitBreaker getCircuitBreaker(String host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+        if (circuitBreaker == null) {
+            circuitBreaker = circuitBreakers.computeIfAbsent(host,
+                    key -> new CircuitBreaker(configuration));
+        }
+        return circuitBreaker;
+    }
+
+    private static String getHost(Request request) {
+        int defaultPort = okhttp3.HttpUrl.defaultPort(request.url().scheme());
+        return request.url().port() == defaultPort ? request.url().host()
+                : request.url().host() + ":" + request.url().port();
+    }
+}
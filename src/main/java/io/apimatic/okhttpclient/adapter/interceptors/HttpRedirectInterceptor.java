@@ -3,6 +3,7 @@ package io.apimatic.okhttpclient.adapter.interceptors;
 import java.io.IOException;
 import java.net.ProtocolException;
 import java.net.SocketTimeoutException;
+import io.apimatic.okhttpclient.adapter.metrics.ClientMetrics;
 import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -34,12 +35,27 @@ public class HttpRedirectInterceptor implements Interceptor {
      */
     private boolean followSslRedirects;
 
+    /**
+     * Metrics counting the redirects, null for no metrics.
+     */
+    private final ClientMetrics metrics;
+
     /**
      * Initialization constructor.
      * @param isfollowSslRedirects Bboolean true if following ssl redirects
      */
     public HttpRedirectInterceptor(boolean isfollowSslRedirects) {
+        this(isfollowSslRedirects, null);
+    }
+
+    /**
+     * Initialization constructor with the metrics counting the redirects.
+     * @param isfollowSslRedirects boolean true if following ssl redirects
+     * @param metrics the metrics counting the redirects, null for no metrics.
+     */
+    public HttpRedirectInterceptor(boolean isfollowSslRedirects, final ClientMetrics metrics) {
         this.followSslRedirects = isfollowSslRedirects;
+        this.metrics = metrics;
     }
 
     /**
@@ -94,6 +110,9 @@ public class HttpRedirectInterceptor implements Interceptor {
                 }
             }
 
+            if (metrics != null) {
+                metrics.onRedirect(request.url().host());
+            }
             response = it.proceed(followUpRequestBuilder.build());
         }
 
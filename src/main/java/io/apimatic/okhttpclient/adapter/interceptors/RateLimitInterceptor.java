@@ -0,0 +1,115 @@
+package io.apimatic.okhttpclient.adapter.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+import io.apimatic.okhttpclient.adapter.resilience.HostRateLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.RateLimitExceededException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * RateLimitInterceptor paces the attempts to each host with a {@link HostRateLimiter}, and
+ * teaches it the limits announced in the responses: the Retry-After header of a 429 or 503
+ * response pauses the host, while the RateLimit-Remaining and RateLimit-Reset headers spread
+ * the calls over the quota window. It is registered after the {@link RetryInterceptor}, so
+ * that every attempt is paced. The calls whose retries are scheduled by OkClient are paced by
+ * OkClient before they are enqueued instead, so that no dispatcher thread waits.
+ */
+public final class RateLimitInterceptor implements Interceptor {
+
+    /**
+     * Status code of a response rejected by the rate limit of the server.
+     */
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The rate limits of the hosts.
+     */
+    private final HostRateLimiter rateLimiter;
+
+    /**
+     * Initialization constructor.
+     * @param rateLimiter The rate limits of the hosts, shared with OkClient.
+     */
+    public RateLimitInterceptor(final HostRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Waits for the send time of the request, sends it and learns the limits of its response.
+     * @see okhttp3.Interceptor#intercept(okhttp3.Interceptor.Chain)
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = request.url().host();
+        if (!isPacedByCaller(request)) {
+            long waitNanos = rateLimiter.reserve(host);
+            if (waitNanos < 0) {
+                throw new RateLimitExceededException(host);
+            }
+            holdExecution(waitNanos);
+        }
+
+        Response response = chain.proceed(request);
+        learnLimits(host, response);
+        return response;
+    }
+
+    /**
+     * Whether the caller paces the request before enqueuing it, because its retries are
+     * scheduled by the caller too.
+     * @param request The OK HTTP Request.
+     * @return true if the interceptor must not wait for the send time of the request.
+     */
+    public static boolean isPacedByCaller(Request request) {
+        CallContext callContext = CallContext.of(request);
+        return callContext != null && callContext.hasScheduledRetries();
+    }
+
+    private void learnLimits(String host, Response response) {
+        String retryAfter = response.header("Retry-After");
+        if ((response.code() == HTTP_TOO_MANY_REQUESTS
+                || response.code() == HttpURLConnection.HTTP_UNAVAILABLE)
+                && retryAfter != null && !retryAfter.isEmpty()) {
+            try {
+                rateLimiter.pause(host, RetryInterceptor.getCalculatedHeaderValue(retryAfter),
+                        TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // An unparsable Retry-After is left to the RetryInterceptor
+            }
+        }
+
+        long remaining = parseLong(response.header("RateLimit-Remaining"));
+        long reset = parseLong(response.header("RateLimit-Reset"));
+        if (remaining >= 0 && reset > 0) {
+            rateLimiter.onQuota(host, remaining, reset, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void holdExecution(long waitNanos) throws InterruptedIOException {
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the rate limit");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package io.apimatic.okhttpclient.adapter.interceptors;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * RequestCompressionInterceptor sends the large request bodies compressed with gzip. The body
+ * is compressed while it is written to the connection, so that it is never held twice in
+ * memory, and sent with a chunked transfer encoding since its compressed length is unknown.
+ * Each attempt of a call compresses the body again, and is counted.
+ */
+public final class RequestCompressionInterceptor implements Interceptor {
+
+    /**
+     * Name of the header of the content encoding.
+     */
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    /**
+     * The gzip content encoding.
+     */
+    private static final String GZIP = "gzip";
+
+    /**
+     * Minimum size of a compressed body, in bytes.
+     */
+    private final long minimumSizeBytes;
+
+    /**
+     * Prefixes of the paths of the endpoints accepting compressed bodies, empty for all.
+     */
+    private final List<String> pathPrefixes;
+
+    /**
+     * Request bodies sent compressed.
+     */
+    private final LongAdder compressedCount = new LongAdder();
+
+    /**
+     * Size of the compressed request bodies before their compression, in bytes.
+     */
+    private final LongAdder uncompressedBytes = new LongAdder();
+
+    /**
+     * Size of the compressed request bodies as sent, in bytes.
+     */
+    private final LongAdder compressedBytes = new LongAdder();
+
+    /**
+     * Initialization constructor.
+     * @param minimumSizeBytes The minimum size of a compressed body, in bytes.
+     * @param pathPrefixes The prefixes of the paths of the endpoints accepting compressed
+     *        bodies, empty for all.
+     */
+    public RequestCompressionInterceptor(final long minimumSizeBytes,
+            final List<String> pathPrefixes) {
+        this.minimumSizeBytes = minimumSizeBytes;
+        this.pathPrefixes = pathPrefixes;
+    }
+
+    /**
+     * Replaces the body of an eligible request with its gzip compression.
+     * @see okhttp3.Interceptor#intercept(okhttp3.Interceptor.Chain)
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!shouldCompress(request)) {
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder()
+                .header(CONTENT_ENCODING, GZIP)
+                .removeHeader("Content-Length")
+                .method(request.method(), new GzipRequestBody(request.body()))
+                .build());
+    }
+
+    private boolean shouldCompress(final Request request) throws IOException {
+        RequestBody body = request.body();
+        if (body == null || body.isDuplex() || request.header(CONTENT_ENCODING) != null) {
+            return false;
+        }
+        long contentLength = body.contentLength();
+        return contentLength >= minimumSizeBytes
+                && matchesPath(request.url().encodedPath());
+    }
+
+    private boolean matchesPath(final String path) {
+        if (pathPrefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : pathPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Getter for the number of request bodies sent compressed.
+     * @return The compressed count.
+     */
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    /**
+     * Getter for the size of the compressed request bodies before their compression.
+     * @return The size in bytes.
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    /**
+     * Getter for the size of the compressed request bodies as sent.
+     * @return The size in bytes.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * A request body compressing another one while it is written.
+     */
+    private final class GzipRequestBody extends RequestBody {
+
+        /**
+         * The uncompressed body.
+         */
+        private final RequestBody body;
+
+        GzipRequestBody(final RequestBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return body.isOneShot();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            CountingSink countingSink = new CountingSink(sink);
+            BufferedSink gzipSink = Okio.buffer(new GzipSink(countingSink));
+            body.writeTo(gzipSink);
+            gzipSink.close();
+
+            compressedCount.increment();
+            uncompressedBytes.add(body.contentLength());
+            compressedBytes.add(countingSink.byteCount);
+        }
+    }
+
+    /**
+     * A sink counting the bytes written to another one.
+     */
+    private static final class CountingSink extends ForwardingSink {
+
+        /**
+         * The bytes written.
+         */
+        private long byteCount;
+
+        CountingSink(final Sink delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(Buffer source, long count) throws IOException {
+            super.write(source, count);
+            byteCount += count;
+        }
+    }
+}
@@ -6,15 +6,22 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 import io.apimatic.coreinterfaces.http.ClientConfiguration;
 import io.apimatic.coreinterfaces.http.HttpMethodType;
 import io.apimatic.coreinterfaces.http.request.Request;
 import io.apimatic.coreinterfaces.http.request.configuration.CoreEndpointConfiguration;
+import io.apimatic.coreinterfaces.http.request.configuration.RetryOption;
 import io.apimatic.coreinterfaces.http.response.Response;
 import io.apimatic.okhttpclient.adapter.OkClient;
+import io.apimatic.okhttpclient.adapter.metrics.ClientMetrics;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerOpenException;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimitExceededException;
+import io.apimatic.okhttpclient.adapter.resilience.RateLimitExceededException;
+import io.apimatic.okhttpclient.adapter.resilience.RetryBudget;
 import okhttp3.Interceptor;
 
 /**
@@ -40,22 +47,57 @@ public class RetryInterceptor implements Interceptor {
             DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss z").withZone(ZoneId.of("GMT"));
 
     /**
-     * To keep track of requests being sent and its current state.
+     * User specified retry configurations.
      */
-    private final ConcurrentMap<okhttp3.Request, RequestState> requestEntries;
+    private final ClientConfiguration httpClientConfiguration;
 
     /**
-     * User specified retry configurations.
+     * Budget shared by the retries of all the calls, null for no budget.
      */
-    private final ClientConfiguration httpClientConfiguration;
+    private final RetryBudget retryBudget;
+
+    /**
+     * Metrics counting the retries, null for no metrics.
+     */
+    private final ClientMetrics metrics;
+
+    /**
+     * The states registered through the deprecated {@link #addRequestEntry}, weakly keyed by
+     * their requests so that the requests never sent are released with them.
+     */
+    private final Map<okhttp3.Request, CallContext> requestEntries =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Default Constructor, Initializes the httpClientConfiguration attribute.
      * @param httpClientConfig the user specified configurations.
      */
     public RetryInterceptor(final ClientConfiguration httpClientConfig) {
+        this(httpClientConfig, null);
+    }
+
+    /**
+     * Initializes the httpClientConfiguration attribute and a budget limiting the retries.
+     * @param httpClientConfig the user specified configurations.
+     * @param retryBudget the budget shared by the retries of all the calls, null for no budget.
+     */
+    public RetryInterceptor(final ClientConfiguration httpClientConfig,
+            final RetryBudget retryBudget) {
+        this(httpClientConfig, retryBudget, null);
+    }
+
+    /**
+     * Initializes the httpClientConfiguration attribute, a budget limiting the retries and the
+     * metrics counting them.
+     * @param httpClientConfig the user specified configurations.
+     * @param retryBudget the budget shared by the retries of all the calls, null for no budget.
+     * @param metrics the metrics counting the retries, null for no metrics.
+     */
+    public RetryInterceptor(final ClientConfiguration httpClientConfig,
+            final RetryBudget retryBudget, final ClientMetrics metrics) {
         this.httpClientConfiguration = httpClientConfig;
-        requestEntries = new ConcurrentHashMap<>();
+        this.retryBudget = retryBudget;
+        this.metrics = metrics;
     }
 
     /**
@@ -66,14 +108,30 @@ public class RetryInterceptor implements Interceptor {
     public okhttp3.Response intercept(Chain chain) throws IOException {
 
         okhttp3.Request request = chain.request();
-        RequestState requestState = getRequestState(request);
-        boolean isWhitelistedRequestMethod = this.httpClientConfiguration.getHttpMethodsToRetry()
-                .contains(HttpMethodType.valueOf(request.method()));
-        boolean isRetryAllowedForRequest = requestState.endpointConfiguration.getRetryOption()
-                .isRetryAllowed(isWhitelistedRequestMethod);
+        CallContext callContext = CallContext.of(request);
+
+        // Requests not created by OkClient get a state of their own for this interception,
+        // retried by the ClientConfiguration alone unless an entry was added for them.
+        if (callContext == null) {
+            callContext = requestEntries.remove(request);
+            if (callContext == null) {
+                callContext = new CallContext(null, null, false);
+            }
+        }
+
+        if (retryBudget != null && callContext.getRetryCount() == 0) {
+            retryBudget.onFirstAttempt(request.url().host());
+        }
+
+        // The caller schedules the next attempt itself, only a single attempt is made here.
+        if (callContext.hasScheduledRetries()) {
+            return getResponse(chain, request, null, false);
+        }
+
+        boolean isRetryAllowedForRequest = isRetryAllowed(request, callContext);
         okhttp3.Response response = null;
         IOException timeoutException = null;
-        boolean shouldRetry = false;
+        long waitTimeInMilliSeconds;
 
         do {
             try {
@@ -82,34 +140,17 @@ public class RetryInterceptor implements Interceptor {
             } catch (IOException ioException) {
                 timeoutException = ioException;
                 response = null;
-                if (!httpClientConfiguration.shouldRetryOnTimeout()) {
-                    break;
-                }
             }
 
-            shouldRetry = isRetryAllowedForRequest
-                    && needToRetry(requestState, response, timeoutException != null);
-
-            if (shouldRetry) {
-
-                // Performing wait time calculation.
-                calculateWaitTime(requestState, response);
-
-                // Checking total wait time against allowed max back-off time
-                if (hasWaitTimeLimitExceeded(requestState)) {
-                    break;
-                }
+            waitTimeInMilliSeconds = getNextWaitTime(request, callContext,
+                    isRetryAllowedForRequest, response, timeoutException);
 
+            if (waitTimeInMilliSeconds >= 0) {
                 // Waiting before making next request
-                holdExecution(requestState.currentWaitInMilliSeconds);
-
-                // Incrementing retry attempt count
-                requestState.retryCount++;
+                holdExecution(waitTimeInMilliSeconds);
             }
 
-        } while (shouldRetry);
-
-        this.requestEntries.remove(request);
+        } while (waitTimeInMilliSeconds >= 0);
 
         if (timeoutException != null) {
             throw timeoutException;
@@ -118,6 +159,108 @@ public class RetryInterceptor implements Interceptor {
         return response;
     }
 
+    /**
+     * Evaluates the outcome of an attempt made for a request whose {@link CallContext} has
+     * scheduled retries, and calculates the time to wait before its next attempt.
+     * @param okHttpRequest The OK HTTP Request.
+     * @param response The HTTP response of the attempt, null if it failed.
+     * @param exception The exception of the attempt, null if it succeeded.
+     * @return The wait time in milliseconds before the next attempt, or -1 if the outcome of
+     *         this attempt is final.
+     */
+    public long getScheduledRetryWaitTime(okhttp3.Request okHttpRequest,
+            okhttp3.Response response, IOException exception) {
+        CallContext callContext = CallContext.of(okHttpRequest);
+        if (callContext == null) {
+            return -1;
+        }
+
+        return getNextWaitTime(okHttpRequest, callContext,
+                isRetryAllowed(okHttpRequest, callContext), response, exception);
+    }
+
+    /**
+     * Checks if the request is allowed to be retried by its method and endpoint configuration.
+     * @param request The OK HTTP Request.
+     * @param callContext The current state of the call.
+     * @return true if retries are allowed for the request.
+     */
+    private boolean isRetryAllowed(okhttp3.Request request, CallContext callContext) {
+        return isRetryAllowed(httpClientConfiguration, request, callContext);
+    }
+
+    /**
+     * Checks if a request created by OkClient is allowed to be retried by its method and
+     * endpoint configuration.
+     * @param httpClientConfig The user specified configurations.
+     * @param request The OK HTTP Request.
+     * @return true if retries are allowed for the request, false if it carries no
+     *         {@link CallContext}.
+     */
+    public static boolean isRetryAllowed(ClientConfiguration httpClientConfig,
+            okhttp3.Request request) {
+        CallContext callContext = CallContext.of(request);
+        return callContext != null && isRetryAllowed(httpClientConfig, request, callContext);
+    }
+
+    private static boolean isRetryAllowed(ClientConfiguration httpClientConfig,
+            okhttp3.Request request, CallContext callContext) {
+        boolean isWhitelistedRequestMethod = httpClientConfig.getHttpMethodsToRetry()
+                .contains(HttpMethodType.valueOf(request.method()));
+        RetryOption retryOption = callContext.getEndpointConfiguration() != null
+                ? callContext.getEndpointConfiguration().getRetryOption()
+                : RetryOption.DEFAULT;
+        return retryOption.isRetryAllowed(isWhitelistedRequestMethod);
+    }
+
+    /**
+     * Decides whether another attempt is to be made and how long to wait before it.
+     * @param request The OK HTTP Request.
+     * @param callContext The current state of the call.
+     * @param isRetryAllowedForRequest Whether the request may be retried at all.
+     * @param response The HTTP response of the last attempt, null if it failed.
+     * @param timeoutException The exception of the last attempt, null if it succeeded.
+     * @return The wait time in milliseconds before the next attempt, or -1 if no further
+     *         attempt is to be made.
+     */
+    private long getNextWaitTime(okhttp3.Request request, CallContext callContext,
+            boolean isRetryAllowedForRequest, okhttp3.Response response,
+            IOException timeoutException) {
+        // A short-circuited or rejected call is not retried while its host is unavailable.
+        if (timeoutException instanceof CircuitBreakerOpenException
+                || timeoutException instanceof ConcurrencyLimitExceededException
+                || timeoutException instanceof RateLimitExceededException
+                || timeoutException != null && !httpClientConfiguration.shouldRetryOnTimeout()) {
+            return -1;
+        }
+
+        boolean shouldRetry = isRetryAllowedForRequest
+                && needToRetry(callContext, response, timeoutException != null);
+        if (!shouldRetry) {
+            return -1;
+        }
+
+        // Performing wait time calculation.
+        calculateWaitTime(callContext, response);
+
+        // Checking total wait time against allowed max back-off time
+        if (hasWaitTimeLimitExceeded(callContext)) {
+            return -1;
+        }
+
+        // Returning the last outcome once the retries of all the calls exhausted their budget
+        if (retryBudget != null && !retryBudget.tryAcquireRetry(request.url().host())) {
+            return -1;
+        }
+
+        // Incrementing retry attempt count
+        callContext.retryCount++;
+        if (metrics != null) {
+            metrics.onRetry(request.url().host());
+        }
+        return callContext.currentWaitInMilliSeconds;
+    }
+
     /**
      * Get the response Recursively since we have to handle the SocketException gracefully.
      * @param chain the interceptor chain.
@@ -145,46 +288,70 @@ public class RetryInterceptor implements Interceptor {
 
     /**
      * Checks if the retry request is to be made against provided response.
-     * @param requestState The current state of request entry.
+     * @param callContext The current state of the call.
      * @param response The HTTP response.
      * @param isTimeoutException We are retrying because of timeout or not
      * @return true If request is needed to be retried.
      */
-    private boolean needToRetry(RequestState requestState, okhttp3.Response response,
+    private boolean needToRetry(CallContext callContext, okhttp3.Response response,
             boolean isTimeoutException) {
         boolean isValidAttempt =
-                requestState.retryCount < this.httpClientConfiguration.getNumberOfRetries();
+                callContext.retryCount < this.httpClientConfiguration.getNumberOfRetries();
         boolean isValidResponseToRetry =
-                response != null && (this.httpClientConfiguration.getHttpStatusCodesToRetry()
-                        .contains(response.code()) || hasRetryAfterHeader(response));
+                response != null && isRetryableResponse(httpClientConfiguration, response);
         return isValidAttempt && (isTimeoutException || isValidResponseToRetry);
     }
 
     /**
-     * Checks if the overall wait time has reached to its limit.
-     * @param requestState the current state of request entry.
+     * Checks if a response is a failure to retry, by its status code or Retry-After header.
+     * @param httpClientConfiguration The configuration with the status codes to retry.
+     * @param response The HTTP response.
+     * @return true If the response is to be retried.
+     */
+    static boolean isRetryableResponse(ClientConfiguration httpClientConfiguration,
+            okhttp3.Response response) {
+        return httpClientConfiguration.getHttpStatusCodesToRetry().contains(response.code())
+                || hasRetryAfterHeader(response);
+    }
+
+    /**
+     * Checks if the overall wait time has reached to its limit. The scheduled retries must
+     * also start before the call has lasted the maximum back-off time.
+     * @param callContext the current state of request entry.
      * @return true if total wait time exceeds maximum back-off time.
      */
-    private boolean hasWaitTimeLimitExceeded(RequestState requestState) {
-        return this.httpClientConfiguration.getMaximumRetryWaitTime() > 0
-                && toMilliseconds(this.httpClientConfiguration
-                        .getMaximumRetryWaitTime()) < requestState.totalWaitTimeInMilliSeconds;
+    private boolean hasWaitTimeLimitExceeded(CallContext callContext) {
+        if (this.httpClientConfiguration.getMaximumRetryWaitTime() <= 0) {
+            return false;
+        }
+        long maximumWaitTimeInMilliSeconds =
+                toMilliseconds(this.httpClientConfiguration.getMaximumRetryWaitTime());
+        if (callContext.hasScheduledRetries()) {
+            // The scheduled attempts are separate calls, which the call timeout does not span
+            long elapsedInNanoSeconds = callContext.getElapsedNanos() + TimeUnit.MILLISECONDS
+                    .toNanos(callContext.currentWaitInMilliSeconds);
+            if (TimeUnit.MILLISECONDS.toNanos(maximumWaitTimeInMilliSeconds)
+                    < elapsedInNanoSeconds) {
+                return true;
+            }
+        }
+        return maximumWaitTimeInMilliSeconds < callContext.totalWaitTimeInMilliSeconds;
     }
 
     /**
      * Calculates the wait time for next request.
-     * @param requestState The current state of request entry.
+     * @param callContext The current state of the call.
      * @param response The HTTP response.
      */
-    private void calculateWaitTime(RequestState requestState, okhttp3.Response response) {
+    private void calculateWaitTime(CallContext callContext, okhttp3.Response response) {
         long retryAfterHeaderValue = 0;
         if (response != null && hasRetryAfterHeader(response)) {
             retryAfterHeaderValue = getCalculatedHeaderValue(response.header("Retry-After"));
         }
-        long calculatedBackOffInMilliSeconds = getCalculatedBackOffValue(requestState);
-        requestState.currentWaitInMilliSeconds =
+        long calculatedBackOffInMilliSeconds = getCalculatedBackOffValue(callContext);
+        callContext.currentWaitInMilliSeconds =
                 Math.max(retryAfterHeaderValue, calculatedBackOffInMilliSeconds);
-        requestState.totalWaitTimeInMilliSeconds += requestState.currentWaitInMilliSeconds;
+        callContext.totalWaitTimeInMilliSeconds += callContext.currentWaitInMilliSeconds;
     }
 
     /**
@@ -192,7 +359,7 @@ public class RetryInterceptor implements Interceptor {
      * @param response The HTTP response.
      * @return true If response contains Retry-After header.
      */
-    private boolean hasRetryAfterHeader(okhttp3.Response response) {
+    private static boolean hasRetryAfterHeader(okhttp3.Response response) {
         String retryAfter = response.header("Retry-After");
         return retryAfter != null && !retryAfter.isEmpty();
     }
@@ -203,7 +370,7 @@ public class RetryInterceptor implements Interceptor {
      * @param headerValue The retry-after header value.
      * @return long value of calculated wait time in milliseconds.
      */
-    private long getCalculatedHeaderValue(String headerValue) {
+    static long getCalculatedHeaderValue(String headerValue) {
         try {
             return toMilliseconds(Long.parseLong(headerValue));
         } catch (NumberFormatException nfe) {
@@ -217,12 +384,12 @@ public class RetryInterceptor implements Interceptor {
 
     /**
      * Calculates the back-off value based on a formula which uses back-off factor and retry Count.
-     * @param requestState The current state of request entry.
+     * @param callContext The current state of the call.
      * @return long value of back-off time based on formula in milliseconds.
      */
-    private long getCalculatedBackOffValue(RequestState requestState) {
+    private long getCalculatedBackOffValue(CallContext callContext) {
         return (long) (TO_MILLISECOND_MULTIPLIER * this.httpClientConfiguration.getRetryInterval()
-                * Math.pow(this.httpClientConfiguration.getBackOffFactor(), requestState.retryCount)
+                * Math.pow(this.httpClientConfiguration.getBackOffFactor(), callContext.retryCount)
                 + Math.random() * RANDOM_NUMBER_MULTIPLIER);
     }
 
@@ -243,85 +410,39 @@ public class RetryInterceptor implements Interceptor {
      * @param seconds The seconds to convert.
      * @return long value of milliseconds.
      */
-    private long toMilliseconds(long seconds) {
+    private static long toMilliseconds(long seconds) {
         return seconds * TO_MILLISECOND_MULTIPLIER;
     }
 
     /**
-     * Adds entry into Request entry map.
+     * Adds the state of a request not created by OkClient, so that its endpoint configuration
+     * applies to its retries. It is used by the next interception of the request.
      * @param okHttpRequest The OK HTTP Request.
      * @param endpointConfiguration The overridden endpointConfiguration for request.
      * @param request The core interface Request
+     * @deprecated OkClient attaches a {@link CallContext} to the requests it creates, and the
+     *             other requests are retried by the {@link ClientConfiguration} without an
+     *             entry.
      */
+    @Deprecated
     public void addRequestEntry(okhttp3.Request okHttpRequest,
             CoreEndpointConfiguration endpointConfiguration, Request request) {
-        this.requestEntries.put(okHttpRequest, new RequestState(endpointConfiguration, request));
-    }
-
-    /**
-     * getter for current request state entry from map.
-     * @param okHttpRequest The OK HTTP Request.
-     * @return RequestEntry The current request entry.
-     */
-    private RequestState getRequestState(okhttp3.Request okHttpRequest) {
-        return this.requestEntries.get(okHttpRequest);
+        requestEntries.put(okHttpRequest, new CallContext(endpointConfiguration, request, false));
     }
 
     /**
      * Logs the response.
-     * @param requestState The current state of request.
+     * @param callContext The current state of the call.
      * @param response The OKhttp Response.
      */
     @SuppressWarnings("unused")
-    private void logResponse(RequestState requestState, okhttp3.Response response) {
+    private void logResponse(CallContext callContext, okhttp3.Response response) {
         Response httpResponse = null;
         try {
-            httpResponse = OkClient.convertResponse(requestState.httpRequest, response,
-                    requestState.endpointConfiguration.hasBinaryResponse());
+            httpResponse = OkClient.convertResponse(callContext.getHttpRequest(), response,
+                    callContext.getEndpointConfiguration().hasBinaryResponse());
         } catch (IOException ioException) {
             // log error
         }
     }
-
-    /**
-     * Class to hold the request info until request completes.
-     */
-    private final class RequestState {
-
-        /**
-         * The internal HTTP request.
-         */
-        private Request httpRequest;
-
-        /**
-         * To keep track of requests count.
-         */
-        private int retryCount = 0;
-
-        /**
-         * To store the wait time for next request.
-         */
-        private long currentWaitInMilliSeconds = 0;
-
-        /**
-         * To keep track of overall wait time.
-         */
-        private long totalWaitTimeInMilliSeconds = 0;
-
-        /**
-         * To keep track of request endpoint configurations.
-         */
-        private CoreEndpointConfiguration endpointConfiguration;
-
-        /**
-         * Default Constructor.
-         * @param coreEndpointConfiguration The end point configuration
-         * @param request The client request
-         */
-        private RequestState(final CoreEndpointConfiguration coreEndpointConfiguration,
-                final Request request) {
-            this.endpointConfiguration = coreEndpointConfiguration;
-            this.httpRequest = request;
-        }
-    }
 }
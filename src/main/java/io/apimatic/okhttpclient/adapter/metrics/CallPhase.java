@@ -0,0 +1,44 @@
+package io.apimatic.okhttpclient.adapter.metrics;
+
+/**
+ * The phases of a call whose latencies are recorded by the {@link MetricsEventListener}.
+ */
+public enum CallPhase {
+
+    /**
+     * From the start of the call to its first DNS, connection or proxy activity, covering the
+     * waits of the interceptors and the dispatcher queue of an asynchronous call.
+     */
+    QUEUE,
+
+    /**
+     * The resolution of the host name, for each new connection.
+     */
+    DNS,
+
+    /**
+     * The establishment of a connection, including its TLS handshake.
+     */
+    CONNECT,
+
+    /**
+     * The TLS handshake of a connection.
+     */
+    TLS,
+
+    /**
+     * From the start of the request headers to the start of the response headers, for each
+     * attempt.
+     */
+    TIME_TO_FIRST_BYTE,
+
+    /**
+     * The reading of the response body, for each attempt.
+     */
+    RESPONSE_BODY,
+
+    /**
+     * The whole call, including its retries and redirects.
+     */
+    CALL
+}
@@ -0,0 +1,96 @@
+package io.apimatic.okhttpclient.adapter.metrics;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the calls of a client, per host: a {@link LatencyHistogram} for each
+ * {@link CallPhase}, and the numbers of retries and redirects. Recording takes no lock.
+ */
+public final class ClientMetrics {
+
+    /**
+     * The metrics of each host.
+     */
+    private final ConcurrentMap<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Records the latency of a phase of a call.
+     * @param host The host of the call.
+     * @param phase The phase.
+     * @param durationNanos The latency in nanoseconds.
+     */
+    public void record(String host, CallPhase phase, long durationNanos) {
+        hostMetrics(host).histograms.get(phase).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a retry of a call.
+     * @param host The host of the call.
+     */
+    public void onRetry(String host) {
+        hostMetrics(host).retries.increment();
+    }
+
+    /**
+     * Counts a redirect followed by a call.
+     * @param host The host of the call.
+     */
+    public void onRedirect(String host) {
+        hostMetrics(host).redirects.increment();
+    }
+
+    /**
+     * Takes a snapshot of the metrics of all the hosts.
+     * @return The snapshot.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, MetricsSnapshot.HostSnapshot> snapshots = new HashMap<>();
+        hosts.forEach((host, metrics) -> snapshots.put(host, metrics.snapshot()));
+        return new MetricsSnapshot(snapshots);
+    }
+
+    private HostMetrics hostMetrics(String host) {
+        HostMetrics metrics = hosts.get(host);
+        return metrics != null ? metrics : hosts.computeIfAbsent(host, key -> new HostMetrics());
+    }
+
+    /**
+     * The metrics of a host.
+     */
+    private static final class HostMetrics {
+
+        /**
+         * The histogram of each phase, not modified after construction.
+         */
+        private final Map<CallPhase, LatencyHistogram> histograms =
+                new EnumMap<>(CallPhase.class);
+
+        /**
+         * Number of retries.
+         */
+        private final LongAdder retries = new LongAdder();
+
+        /**
+         * Number of redirects.
+         */
+        private final LongAdder redirects = new LongAdder();
+
+        HostMetrics() {
+            for (CallPhase phase : CallPhase.values()) {
+                histograms.put(phase, new LatencyHistogram());
+            }
+        }
+
+        MetricsSnapshot.HostSnapshot snapshot() {
+            Map<CallPhase, HistogramSnapshot> phases = new EnumMap<>(CallPhase.class);
+            histograms.forEach((phase, histogram) -> phases.put(phase, histogram.snapshot()));
+            return new MetricsSnapshot.HostSnapshot(phases, retries.sum(), redirects.sum());
+        }
+    }
+}
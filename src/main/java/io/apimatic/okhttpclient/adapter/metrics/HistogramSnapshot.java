@@ -0,0 +1,115 @@
+package io.apimatic.okhttpclient.adapter.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of a {@link LatencyHistogram}.
+ */
+public final class HistogramSnapshot {
+
+    /**
+     * Snapshot of a histogram without any value.
+     */
+    public static final HistogramSnapshot EMPTY =
+            new HistogramSnapshot(new long[LatencyHistogram.BUCKETS], 0, 0);
+
+    /**
+     * Percent divisor of the percentiles.
+     */
+    private static final double PERCENT = 100;
+
+    /**
+     * Number of values in each bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * Number of values.
+     */
+    private final long count;
+
+    /**
+     * Sum of the values, in microseconds.
+     */
+    private final long sumMicros;
+
+    /**
+     * Highest value, in microseconds.
+     */
+    private final long maxMicros;
+
+    /**
+     * Initialization constructor.
+     * @param counts The number of values in each bucket, owned by the snapshot.
+     * @param sumMicros The sum of the values, in microseconds.
+     * @param maxMicros The highest value, in microseconds.
+     */
+    HistogramSnapshot(final long[] counts, final long sumMicros, final long maxMicros) {
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        this.counts = counts;
+        this.count = total;
+        this.sumMicros = sumMicros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * Getter for the number of values.
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Getter for the mean of the values.
+     * @param unit The unit of the result.
+     * @return The mean, 0 without values.
+     */
+    public long getMean(TimeUnit unit) {
+        return count == 0 ? 0 : unit.convert(sumMicros / count, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Getter for the highest value.
+     * @param unit The unit of the result.
+     * @return The maximum, 0 without values.
+     */
+    public long getMax(TimeUnit unit) {
+        return unit.convert(maxMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Getter for the value below which a percentage of the values fall, such as 99 for the
+     * p99 latency.
+     * @param percentile The percentile, from 0 to 100.
+     * @param unit The unit of the result.
+     * @return The highest value of the bucket of the percentile, capped at the maximum, 0
+     *         without values.
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / PERCENT * count), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return unit.convert(Math.min(LatencyHistogram.highestValueOf(i), maxMicros),
+                        TimeUnit.MICROSECONDS);
+            }
+        }
+        return getMax(unit);
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot [count=" + count + ", meanMicros="
+                + getMean(TimeUnit.MICROSECONDS) + ", p50Micros="
+                + getPercentile(50, TimeUnit.MICROSECONDS) + ", p99Micros="
+                + getPercentile(99, TimeUnit.MICROSECONDS) + ", maxMicros=" + maxMicros + "]";
+    }
+}
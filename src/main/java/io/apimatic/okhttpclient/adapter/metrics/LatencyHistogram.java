@@ -0,0 +1,106 @@
+package io.apimatic.okhttpclient.adapter.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in microseconds, recorded without locks. Like HdrHistogram, the
+ * buckets are spaced logarithmically, each power of two being split into linear sub-buckets,
+ * which bounds the relative error of the percentiles to about 6% with a fixed memory footprint.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of bits of the linear sub-buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of linear sub-buckets of a power of two.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Highest power of two of the recorded values, of about 12 days in microseconds. Larger
+     * values are recorded in the last bucket.
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * Number of buckets.
+     */
+    static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BUCKET_BITS + 2);
+
+    /**
+     * Number of values in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Sum of the recorded values.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Highest recorded value.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency.
+     * @param latency The latency, negative values counting as 0.
+     * @param unit The unit of the latency.
+     */
+    public void record(long latency, TimeUnit unit) {
+        long micros = Math.max(unit.toMicros(latency), 0);
+        counts.incrementAndGet(indexOf(micros));
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    /**
+     * Takes a snapshot of the histogram. Values recorded while it is taken may be partially
+     * included.
+     * @return The snapshot.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] snapshotCounts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshotCounts[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(snapshotCounts, sum.sum(), max.get());
+    }
+
+    /**
+     * Getter for the bucket of a value.
+     * @param micros The value in microseconds.
+     * @return The index of its bucket.
+     */
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (micros >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Getter for the highest value of a bucket.
+     * @param index The index of the bucket.
+     * @return The highest value in microseconds.
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
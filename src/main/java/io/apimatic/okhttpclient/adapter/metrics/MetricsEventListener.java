@@ -0,0 +1,192 @@
+package io.apimatic.okhttpclient.adapter.metrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+
+/**
+ * MetricsEventListener records the latencies of the {@link CallPhase}s of a call in the
+ * {@link ClientMetrics} of its host. OkHttp creates one listener per call, whose events are
+ * sequential, so the listener keeps the start times of the phases in plain fields.
+ */
+public final class MetricsEventListener extends EventListener {
+
+    /**
+     * The metrics of the client.
+     */
+    private final ClientMetrics metrics;
+
+    /**
+     * The host of the call.
+     */
+    private final String host;
+
+    /**
+     * Start time of the call.
+     */
+    private long callStartNanos;
+
+    /**
+     * Whether the {@link CallPhase#QUEUE} phase ended.
+     */
+    private boolean queueRecorded;
+
+    /**
+     * Start time of the host name resolution.
+     */
+    private long dnsStartNanos;
+
+    /**
+     * Start time of the connection.
+     */
+    private long connectStartNanos;
+
+    /**
+     * Start time of the TLS handshake.
+     */
+    private long secureConnectStartNanos;
+
+    /**
+     * Start time of the request headers.
+     */
+    private long requestHeadersStartNanos;
+
+    /**
+     * Start time of the response body.
+     */
+    private long responseBodyStartNanos;
+
+    /**
+     * Initialization constructor.
+     * @param metrics The metrics of the client.
+     * @param host The host of the call.
+     */
+    public MetricsEventListener(final ClientMetrics metrics, final String host) {
+        this.metrics = metrics;
+        this.host = host;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void proxySelectStart(Call call, HttpUrl url) {
+        endQueue();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        endQueue();
+        dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        metrics.record(host, CallPhase.DNS, System.nanoTime() - dnsStartNanos);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        endQueue();
+        connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        metrics.record(host, CallPhase.TLS, System.nanoTime() - secureConnectStartNanos);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol) {
+        metrics.record(host, CallPhase.CONNECT, System.nanoTime() - connectStartNanos);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+            Protocol protocol, IOException ioe) {
+        metrics.record(host, CallPhase.CONNECT, System.nanoTime() - connectStartNanos);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        endQueue();
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestHeadersStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        metrics.record(host, CallPhase.TIME_TO_FIRST_BYTE,
+                System.nanoTime() - requestHeadersStartNanos);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        responseBodyStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        metrics.record(host, CallPhase.RESPONSE_BODY, System.nanoTime() - responseBodyStartNanos);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        metrics.record(host, CallPhase.CALL, System.nanoTime() - callStartNanos);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        metrics.record(host, CallPhase.CALL, System.nanoTime() - callStartNanos);
+    }
+
+    private void endQueue() {
+        if (!queueRecorded) {
+            queueRecorded = true;
+            metrics.record(host, CallPhase.QUEUE, System.nanoTime() - callStartNanos);
+        }
+    }
+
+    /**
+     * Creates a {@link MetricsEventListener} for each call of a client.
+     */
+    public static final class Factory implements EventListener.Factory {
+
+        /**
+         * The metrics of the client.
+         */
+        private final ClientMetrics metrics;
+
+        /**
+         * Initialization constructor.
+         * @param metrics The metrics of the client.
+         */
+        public Factory(final ClientMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public EventListener create(Call call) {
+            return new MetricsEventListener(metrics, call.request().url().host());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.apimatic.okhttpclient.adapter.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the {@link ClientMetrics} of a client.
+ */
+public final class MetricsSnapshot {
+
+    /**
+     * Snapshot of a client without any call, or without metrics.
+     */
+    public static final MetricsSnapshot EMPTY =
+            new MetricsSnapshot(Collections.<String, HostSnapshot>emptyMap());
+
+    /**
+     * The snapshot of each host.
+     */
+    private final Map<String, HostSnapshot> hosts;
+
+    /**
+     * Initialization constructor.
+     * @param hosts The snapshot of each host.
+     */
+    MetricsSnapshot(final Map<String, HostSnapshot> hosts) {
+        this.hosts = Collections.unmodifiableMap(hosts);
+    }
+
+    /**
+     * Getter for the hosts called by the client.
+     * @return The host names.
+     */
+    public Set<String> getHosts() {
+        return hosts.keySet();
+    }
+
+    /**
+     * Getter for the metrics of a host.
+     * @param host The host name.
+     * @return The snapshot of the host, empty if it was not called.
+     */
+    public HostSnapshot getHost(String host) {
+        HostSnapshot snapshot = hosts.get(host);
+        return snapshot != null ? snapshot : HostSnapshot.EMPTY;
+    }
+
+    /**
+     * Getter for the number of retries to all the hosts.
+     * @return The retry count.
+     */
+    public long getRetryCount() {
+        return hosts.values().stream().mapToLong(HostSnapshot::getRetryCount).sum();
+    }
+
+    /**
+     * Getter for the number of redirects followed from all the hosts.
+     * @return The redirect count.
+     */
+    public long getRedirectCount() {
+        return hosts.values().stream().mapToLong(HostSnapshot::getRedirectCount).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot [hosts=" + hosts + "]";
+    }
+
+    /**
+     * An immutable snapshot of the metrics of a host.
+     */
+    public static final class HostSnapshot {
+
+        /**
+         * Snapshot of a host without any call.
+         */
+        public static final HostSnapshot EMPTY =
+                new HostSnapshot(new EnumMap<>(CallPhase.class), 0, 0);
+
+        /**
+         * The latencies of each phase.
+         */
+        private final Map<CallPhase, HistogramSnapshot> phases;
+
+        /**
+         * Number of retries.
+         */
+        private final long retryCount;
+
+        /**
+         * Number of redirects.
+         */
+        private final long redirectCount;
+
+        /**
+         * Initialization constructor.
+         * @param phases The latencies of each phase.
+         * @param retryCount The number of retries.
+         * @param redirectCount The number of redirects.
+         */
+        HostSnapshot(final Map<CallPhase, HistogramSnapshot> phases, final long retryCount,
+                final long redirectCount) {
+            this.phases = phases;
+            this.retryCount = retryCount;
+            this.redirectCount = redirectCount;
+        }
+
+        /**
+         * Getter for the latencies of a phase.
+         * @param phase The phase.
+         * @return The histogram snapshot of the phase.
+         */
+        public HistogramSnapshot getPhase(CallPhase phase) {
+            HistogramSnapshot snapshot = phases.get(phase);
+            return snapshot != null ? snapshot : HistogramSnapshot.EMPTY;
+        }
+
+        /**
+         * Getter for the number of retries.
+         * @return The retry count.
+         */
+        public long getRetryCount() {
+            return retryCount;
+        }
+
+        /**
+         * Getter for the number of redirects.
+         * @return The redirect count.
+         */
+        public long getRedirectCount() {
+            return redirectCount;
+        }
+
+        @Override
+        public String toString() {
+            return "HostSnapshot [phases=" + phases + ", retryCount=" + retryCount
+                    + ", redirectCount=" + redirectCount + "]";
+        }
+    }
+}
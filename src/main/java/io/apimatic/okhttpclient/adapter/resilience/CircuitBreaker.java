@@ -0,0 +1,221 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The circuit breaker of a single host. While closed, the outcomes of the last calls are kept in
+ * a count based sliding window, and the breaker opens when their failure or slow call rate
+ * reaches its threshold. While open, calls are rejected until the open duration has elapsed.
+ * Then it is half-open: a few trial calls are let through, and their rates close the breaker or
+ * open it again.
+ */
+public final class CircuitBreaker {
+
+    /**
+     * States of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Calls are let through and their outcomes recorded.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+
+        /**
+         * A limited number of trial calls are let through.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Percent multiplier of the rates.
+     */
+    private static final float PERCENT = 100;
+
+    /**
+     * The thresholds of the breaker.
+     */
+    private final CircuitBreakerConfiguration configuration;
+
+    /**
+     * A lock guarding the state, which does not pin virtual threads.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Whether each call of the window failed, as a ring buffer.
+     */
+    private final boolean[] failedCalls;
+
+    /**
+     * Whether each call of the window was slow, as a ring buffer.
+     */
+    private final boolean[] slowCalls;
+
+    /**
+     * The current state.
+     */
+    private volatile State state = State.CLOSED;
+
+    /**
+     * The position of the next outcome in the ring buffers.
+     */
+    private int nextIndex;
+
+    /**
+     * The number of outcomes recorded in the window.
+     */
+    private int recordedCalls;
+
+    /**
+     * The number of failed calls in the window.
+     */
+    private int failedCallCount;
+
+    /**
+     * The number of slow calls in the window.
+     */
+    private int slowCallCount;
+
+    /**
+     * The {@link System#nanoTime()} the breaker opened at.
+     */
+    private long openedAtNanos;
+
+    /**
+     * The number of trial calls still to let through while half-open.
+     */
+    private int remainingTrialCalls;
+
+    /**
+     * Initialization constructor.
+     * @param configuration The thresholds of the breaker.
+     */
+    public CircuitBreaker(final CircuitBreakerConfiguration configuration) {
+        this.configuration = configuration;
+        this.failedCalls = new boolean[configuration.getSlidingWindowSize()];
+        this.slowCalls = new boolean[configuration.getSlidingWindowSize()];
+    }
+
+    /**
+     * Getter for the current state.
+     * @return The state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Asks for the permission to send a call. Every permitted call must report its outcome
+     * with {@link #onResult(boolean, long)} or {@link #onIgnored()}.
+     * @return true if the call may be sent, false if it is to be short-circuited.
+     */
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos
+                    >= TimeUnit.MILLISECONDS.toNanos(configuration.getOpenDurationMillis())) {
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN && remainingTrialCalls > 0) {
+                remainingTrialCalls--;
+                return true;
+            }
+            return state == State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     * @param failed Whether the call failed.
+     * @param durationNanos The duration of the call in nanoseconds.
+     */
+    public void onResult(boolean failed, long durationNanos) {
+        boolean slow = durationNanos
+                >= TimeUnit.MILLISECONDS.toNanos(configuration.getSlowCallDurationMillis());
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                return;
+            }
+
+            record(failed, slow);
+            if (state == State.CLOSED) {
+                if (recordedCalls >= configuration.getMinimumNumberOfCalls()
+                        && isAboveThresholds()) {
+                    transitionTo(State.OPEN);
+                }
+            } else if (recordedCalls == getWindowSize()) {
+                transitionTo(isAboveThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the permission of a call whose outcome says nothing about the host, such as a
+     * cancelled call or a response served from the cache.
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                remainingTrialCalls++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        int windowSize = getWindowSize();
+        if (recordedCalls == windowSize) {
+            failedCallCount -= failedCalls[nextIndex] ? 1 : 0;
+            slowCallCount -= slowCalls[nextIndex] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextIndex] = failed;
+        slowCalls[nextIndex] = slow;
+        failedCallCount += failed ? 1 : 0;
+        slowCallCount += slow ? 1 : 0;
+        nextIndex = (nextIndex + 1) % windowSize;
+    }
+
+    private int getWindowSize() {
+        return state == State.HALF_OPEN
+                ? Math.min(failedCalls.length, configuration.getPermittedCallsInHalfOpenState())
+                : failedCalls.length;
+    }
+
+    private boolean isAboveThresholds() {
+        return failedCallCount * PERCENT / recordedCalls >= configuration.getFailureRateThreshold()
+                || slowCallCount * PERCENT / recordedCalls
+                        >= configuration.getSlowCallRateThreshold();
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        nextIndex = 0;
+        recordedCalls = 0;
+        failedCallCount = 0;
+        slowCallCount = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        } else if (newState == State.HALF_OPEN) {
+            remainingTrialCalls = configuration.getPermittedCallsInHalfOpenState();
+        }
+    }
+}
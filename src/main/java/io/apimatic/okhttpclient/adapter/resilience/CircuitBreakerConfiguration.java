@@ -0,0 +1,323 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thresholds of the per host circuit breakers of an OkClient. A breaker opens when, over the
+ * last calls of its window, the rate of failed calls or the rate of slow calls reaches its
+ * threshold. Once the open duration has elapsed, a few trial calls decide whether it closes
+ * again.
+ */
+public final class CircuitBreakerConfiguration {
+
+    /**
+     * Default failure rate threshold, in percent.
+     */
+    private static final float DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+
+    /**
+     * Default slow call rate threshold, in percent.
+     */
+    private static final float DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100;
+
+    /**
+     * Default duration from which a call is slow, in milliseconds.
+     */
+    private static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Default number of calls in the sliding window.
+     */
+    private static final int DEFAULT_SLIDING_WINDOW_SIZE = 50;
+
+    /**
+     * Default number of calls needed before the rates are evaluated.
+     */
+    private static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 20;
+
+    /**
+     * Default time a breaker stays open, in milliseconds.
+     */
+    private static final long DEFAULT_OPEN_DURATION_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Default number of trial calls of a half-open breaker.
+     */
+    private static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 5;
+
+    /**
+     * Upper bound of the rate thresholds, in percent.
+     */
+    private static final float MAX_RATE_THRESHOLD = 100;
+
+    /**
+     * Rate of failed calls opening the breaker, in percent.
+     */
+    private final float failureRateThreshold;
+
+    /**
+     * Rate of slow calls opening the breaker, in percent.
+     */
+    private final float slowCallRateThreshold;
+
+    /**
+     * Duration from which a call is slow, in milliseconds.
+     */
+    private final long slowCallDurationMillis;
+
+    /**
+     * Number of the last calls the rates are evaluated on.
+     */
+    private final int slidingWindowSize;
+
+    /**
+     * Number of calls needed before the rates are evaluated.
+     */
+    private final int minimumNumberOfCalls;
+
+    /**
+     * Time a breaker stays open before trial calls are let through, in milliseconds.
+     */
+    private final long openDurationMillis;
+
+    /**
+     * Number of trial calls of a half-open breaker.
+     */
+    private final int permittedCallsInHalfOpenState;
+
+    private CircuitBreakerConfiguration(final Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationMillis = builder.slowCallDurationMillis;
+        this.slidingWindowSize = builder.slidingWindowSize;
+        this.minimumNumberOfCalls = Math.min(builder.minimumNumberOfCalls,
+                builder.slidingWindowSize);
+        this.openDurationMillis = builder.openDurationMillis;
+        this.permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+    }
+
+    /**
+     * Getter for the rate of failed calls opening the breaker.
+     * @return The threshold in percent.
+     */
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Getter for the rate of slow calls opening the breaker.
+     * @return The threshold in percent.
+     */
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * Getter for the duration from which a call is slow.
+     * @return The duration in milliseconds.
+     */
+    public long getSlowCallDurationMillis() {
+        return slowCallDurationMillis;
+    }
+
+    /**
+     * Getter for the number of the last calls the rates are evaluated on.
+     * @return The size of the sliding window.
+     */
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    /**
+     * Getter for the number of calls needed before the rates are evaluated.
+     * @return The minimum number of calls, at most the size of the sliding window.
+     */
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    /**
+     * Getter for the time a breaker stays open before trial calls are let through.
+     * @return The duration in milliseconds.
+     */
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    /**
+     * Getter for the number of trial calls of a half-open breaker.
+     * @return The number of trial calls.
+     */
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    /**
+     * Compares the values of two configurations.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CircuitBreakerConfiguration)) {
+            return false;
+        }
+        CircuitBreakerConfiguration other = (CircuitBreakerConfiguration) obj;
+        return failureRateThreshold == other.failureRateThreshold
+                && slowCallRateThreshold == other.slowCallRateThreshold
+                && slowCallDurationMillis == other.slowCallDurationMillis
+                && slidingWindowSize == other.slidingWindowSize
+                && minimumNumberOfCalls == other.minimumNumberOfCalls
+                && openDurationMillis == other.openDurationMillis
+                && permittedCallsInHalfOpenState == other.permittedCallsInHalfOpenState;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(failureRateThreshold, slowCallRateThreshold, slowCallDurationMillis,
+                slidingWindowSize, minimumNumberOfCalls, openDurationMillis,
+                permittedCallsInHalfOpenState);
+    }
+
+    /**
+     * Builder for {@link CircuitBreakerConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * Rate of failed calls opening the breaker, in percent.
+         */
+        private float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+        /**
+         * Rate of slow calls opening the breaker, in percent.
+         */
+        private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+
+        /**
+         * Duration from which a call is slow, in milliseconds.
+         */
+        private long slowCallDurationMillis = DEFAULT_SLOW_CALL_DURATION_MILLIS;
+
+        /**
+         * Number of the last calls the rates are evaluated on.
+         */
+        private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+
+        /**
+         * Number of calls needed before the rates are evaluated.
+         */
+        private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
+
+        /**
+         * Time a breaker stays open, in milliseconds.
+         */
+        private long openDurationMillis = DEFAULT_OPEN_DURATION_MILLIS;
+
+        /**
+         * Number of trial calls of a half-open breaker.
+         */
+        private int permittedCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+
+        /**
+         * Sets the rate of failed calls opening the breaker. A call fails when it ends with an
+         * I/O error or timeout, or with a status code that the client configuration retries.
+         * @param percent A rate above 0 and up to 100.
+         * @return The {@link Builder}.
+         */
+        public Builder failureRateThreshold(float percent) {
+            this.failureRateThreshold = requireRate(percent, "failureRateThreshold");
+            return this;
+        }
+
+        /**
+         * Sets the rate of slow calls opening the breaker.
+         * @param percent A rate above 0 and up to 100.
+         * @return The {@link Builder}.
+         */
+        public Builder slowCallRateThreshold(float percent) {
+            this.slowCallRateThreshold = requireRate(percent, "slowCallRateThreshold");
+            return this;
+        }
+
+        /**
+         * Sets the duration from which a call is slow.
+         * @param duration A positive duration.
+         * @param unit The unit of the duration.
+         * @return The {@link Builder}.
+         */
+        public Builder slowCallDuration(long duration, TimeUnit unit) {
+            this.slowCallDurationMillis = unit.toMillis(requirePositive(duration,
+                    "slowCallDuration"));
+            return this;
+        }
+
+        /**
+         * Sets the number of the last calls the rates are evaluated on.
+         * @param size A positive number of calls.
+         * @return The {@link Builder}.
+         */
+        public Builder slidingWindowSize(int size) {
+            this.slidingWindowSize = (int) requirePositive(size, "slidingWindowSize");
+            return this;
+        }
+
+        /**
+         * Sets the number of calls needed in the window before the rates are evaluated.
+         * @param calls A positive number of calls, capped at the size of the window.
+         * @return The {@link Builder}.
+         */
+        public Builder minimumNumberOfCalls(int calls) {
+            this.minimumNumberOfCalls = (int) requirePositive(calls, "minimumNumberOfCalls");
+            return this;
+        }
+
+        /**
+         * Sets the time a breaker stays open before trial calls are let through.
+         * @param duration A positive duration.
+         * @param unit The unit of the duration.
+         * @return The {@link Builder}.
+         */
+        public Builder openDuration(long duration, TimeUnit unit) {
+            this.openDurationMillis = unit.toMillis(requirePositive(duration, "openDuration"));
+            return this;
+        }
+
+        /**
+         * Sets the number of trial calls of a half-open breaker, whose outcome closes the
+         * breaker or opens it again.
+         * @param calls A positive number of calls.
+         * @return The {@link Builder}.
+         */
+        public Builder permittedCallsInHalfOpenState(int calls) {
+            this.permittedCallsInHalfOpenState =
+                    (int) requirePositive(calls, "permittedCallsInHalfOpenState");
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link CircuitBreakerConfiguration}.
+         */
+        public CircuitBreakerConfiguration build() {
+            return new CircuitBreakerConfiguration(this);
+        }
+
+        private static float requireRate(float percent, String name) {
+            if (!(percent > 0 && percent <= MAX_RATE_THRESHOLD)) {
+                throw new IllegalArgumentException(name + " not in (0, 100]: " + percent);
+            }
+            return percent;
+        }
+
+        private static long requirePositive(long value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " < 1: " + value);
+            }
+            return value;
+        }
+    }
+}
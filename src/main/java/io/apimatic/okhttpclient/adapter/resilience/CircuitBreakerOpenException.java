@@ -0,0 +1,36 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of its host is open.
+ */
+public final class CircuitBreakerOpenException extends IOException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The host whose circuit breaker is open.
+     */
+    private final String host;
+
+    /**
+     * Initialization constructor.
+     * @param host The host whose circuit breaker is open.
+     */
+    public CircuitBreakerOpenException(final String host) {
+        super("Circuit breaker is open for " + host);
+        this.host = host;
+    }
+
+    /**
+     * Getter for the host whose circuit breaker is open.
+     * @return The host.
+     */
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,37 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request when its host is at its concurrency limit and no more
+ * calls may wait for it.
+ */
+public final class ConcurrencyLimitExceededException extends IOException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The host at its concurrency limit.
+     */
+    private final String host;
+
+    /**
+     * Initialization constructor.
+     * @param host The host at its concurrency limit.
+     */
+    public ConcurrencyLimitExceededException(final String host) {
+        super("Concurrency limit exceeded for " + host);
+        this.host = host;
+    }
+
+    /**
+     * Getter for the host at its concurrency limit.
+     * @return The host.
+     */
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,308 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limits of the calls in flight to each host, following the additive increase and
+ * multiplicative decrease of TCP congestion control. A limit grows while its calls succeed
+ * quickly, and shrinks when they fail, time out, report an overload or get slow, so that the
+ * calls queue on the client rather than overload the upstream. The calls over the limit of their
+ * host wait in a bounded FIFO queue, and are rejected once it is full.
+ */
+public final class ConcurrencyLimiter {
+
+    /**
+     * The bounds of the limits.
+     */
+    private final ConcurrencyLimiterConfiguration configuration;
+
+    /**
+     * The limits by host.
+     */
+    private final ConcurrentHashMap<String, HostLimit> limits = new ConcurrentHashMap<>();
+
+    /**
+     * Initialization constructor.
+     * @param configuration The bounds of the limits.
+     */
+    public ConcurrencyLimiter(final ConcurrencyLimiterConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Acquires a permit to call a host, waiting in its queue while it is at its limit.
+     * @param host The host to call.
+     * @return The permit, to release with the outcome of the call.
+     * @throws ConcurrencyLimitExceededException If the queue of the host is full.
+     * @throws InterruptedIOException If interrupted while waiting.
+     */
+    public Permit acquire(String host) throws IOException {
+        CompletableFuture<Permit> permit = acquireAsync(host);
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) {
+                permit.join().onIgnored();
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a concurrency permit");
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Acquires a permit to call a host without blocking. While the host is at its limit, the
+     * future is completed by the thread releasing a permit, so its dependent actions must not
+     * block either. Cancelling the future leaves the queue.
+     * @param host The host to call.
+     * @return A future of the permit, failed with a {@link ConcurrencyLimitExceededException}
+     *         if the queue of the host is full.
+     */
+    public CompletableFuture<Permit> acquireAsync(String host) {
+        return getHostLimit(host).acquire();
+    }
+
+    /**
+     * Getter for the current limit of a host.
+     * @param host The host.
+     * @return The number of calls allowed in flight, the initial limit for hosts not called yet.
+     */
+    public int getLimit(String host) {
+        HostLimit hostLimit = limits.get(host);
+        return hostLimit == null ? configuration.getInitialLimit() : hostLimit.getLimit();
+    }
+
+    /**
+     * Getter for the number of calls in flight to a host.
+     * @param host The host.
+     * @return The number of permits held.
+     */
+    public int getInFlight(String host) {
+        HostLimit hostLimit = limits.get(host);
+        return hostLimit == null ? 0 : hostLimit.getInFlight();
+    }
+
+    /**
+     * Getter for the number of calls waiting for a host.
+     * @param host The host.
+     * @return The size of the queue, including the cancelled waits not yet removed.
+     */
+    public int getQueueSize(String host) {
+        HostLimit hostLimit = limits.get(host);
+        return hostLimit == null ? 0 : hostLimit.getQueueSize();
+    }
+
+    private HostLimit getHostLimit(String host) {
+        HostLimit hostLimit = limits.get(host);
+        if (hostLimit == null) {
+            hostLimit = limits.computeIfAbsent(host, key -> new HostLimit(key, configuration));
+        }
+        return hostLimit;
+    }
+
+    /**
+     * The permission to send a call, released once with its outcome.
+     */
+    public static final class Permit {
+
+        /**
+         * The limit the permit was acquired from.
+         */
+        private final HostLimit hostLimit;
+
+        /**
+         * Whether the permit has been released.
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(final HostLimit hostLimit) {
+            this.hostLimit = hostLimit;
+        }
+
+        /**
+         * Releases the permit after a successful call, which grows the limit unless it was
+         * slower than the maximum latency.
+         * @param latency The latency of the call.
+         * @param unit The unit of the latency.
+         */
+        public void onSuccess(long latency, TimeUnit unit) {
+            if (released.compareAndSet(false, true)) {
+                hostLimit.release(unit.toMillis(latency) < hostLimit.configuration
+                        .getMaxLatencyMillis() ? Outcome.SUCCESS : Outcome.DROPPED);
+            }
+        }
+
+        /**
+         * Releases the permit after a call that failed or reported an overload, which shrinks
+         * the limit.
+         */
+        public void onDropped() {
+            if (released.compareAndSet(false, true)) {
+                hostLimit.release(Outcome.DROPPED);
+            }
+        }
+
+        /**
+         * Releases the permit without changing the limit, for a call that was cancelled or not
+         * sent.
+         */
+        public void onIgnored() {
+            if (released.compareAndSet(false, true)) {
+                hostLimit.release(Outcome.IGNORED);
+            }
+        }
+    }
+
+    /**
+     * The outcomes of a call.
+     */
+    private enum Outcome {
+        /**
+         * The call succeeded within the maximum latency.
+         */
+        SUCCESS,
+
+        /**
+         * The call failed, reported an overload or was too slow.
+         */
+        DROPPED,
+
+        /**
+         * The outcome of the call says nothing of the load of the host.
+         */
+        IGNORED
+    }
+
+    /**
+     * The limit, the calls in flight and the waiting calls of a single host.
+     */
+    private static final class HostLimit {
+
+        /**
+         * The host.
+         */
+        private final String host;
+
+        /**
+         * The bounds of the limit.
+         */
+        private final ConcurrencyLimiterConfiguration configuration;
+
+        /**
+         * A lock guarding the state, which does not pin virtual threads.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * The waiting calls in arrival order.
+         */
+        private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+        /**
+         * The current limit, fractional so that it grows by a fraction of a call per success.
+         */
+        private double limit;
+
+        /**
+         * The number of permits held.
+         */
+        private int inFlight;
+
+        private HostLimit(final String host, final ConcurrencyLimiterConfiguration configuration) {
+            this.host = host;
+            this.configuration = configuration;
+            this.limit = configuration.getInitialLimit();
+        }
+
+        private CompletableFuture<Permit> acquire() {
+            lock.lock();
+            try {
+                if (inFlight < (int) limit && waiters.isEmpty()) {
+                    inFlight++;
+                    return CompletableFuture.completedFuture(new Permit(this));
+                }
+                waiters.removeIf(CompletableFuture::isDone);
+                if (waiters.size() >= configuration.getMaxQueueSize()) {
+                    CompletableFuture<Permit> rejected = new CompletableFuture<>();
+                    rejected.completeExceptionally(new ConcurrencyLimitExceededException(host));
+                    return rejected;
+                }
+                CompletableFuture<Permit> waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+                return waiter;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(Outcome outcome) {
+            List<CompletableFuture<Permit>> granted = new ArrayList<>();
+            lock.lock();
+            try {
+                // Only a limit in use may grow, so that an idle host does not reach the maximum
+                if (outcome == Outcome.SUCCESS && inFlight * 2 >= limit) {
+                    limit = Math.min(limit + 1 / limit, configuration.getMaxLimit());
+                } else if (outcome == Outcome.DROPPED) {
+                    limit = Math.max(limit * configuration.getBackoffRatio(),
+                            configuration.getMinLimit());
+                }
+                inFlight--;
+                while (inFlight < (int) limit && !waiters.isEmpty()) {
+                    CompletableFuture<Permit> waiter = waiters.poll();
+                    if (!waiter.isDone()) {
+                        inFlight++;
+                        granted.add(waiter);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Completed outside of the lock, as the waiters may send their call inline
+            for (CompletableFuture<Permit> waiter : granted) {
+                Permit permit = new Permit(this);
+                if (!waiter.complete(permit)) {
+                    permit.onIgnored();
+                }
+            }
+        }
+
+        private int getLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int getInFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int getQueueSize() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds of the adaptive per host concurrency limits of an OkClient. A limit grows by one call
+ * for each limit's worth of successful calls made while it was in use, and shrinks by the
+ * backoff ratio on each dropped call: an I/O error, an overload status or a call slower than the
+ * maximum latency. Calls over the limit wait in a bounded queue.
+ */
+public final class ConcurrencyLimiterConfiguration {
+
+    /**
+     * Default limit of a host not called yet.
+     */
+    private static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    /**
+     * Default lower bound of a limit.
+     */
+    private static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * Default upper bound of a limit.
+     */
+    private static final int DEFAULT_MAX_LIMIT = 200;
+
+    /**
+     * Default factor applied to a limit on a dropped call.
+     */
+    private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    /**
+     * Default latency from which a call is dropped, in milliseconds.
+     */
+    private static final long DEFAULT_MAX_LATENCY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Default number of calls waiting for each host.
+     */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 100;
+
+    /**
+     * Limit of a host not called yet.
+     */
+    private final int initialLimit;
+
+    /**
+     * Lower bound of a limit.
+     */
+    private final int minLimit;
+
+    /**
+     * Upper bound of a limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * Factor applied to a limit on a dropped call.
+     */
+    private final double backoffRatio;
+
+    /**
+     * Latency from which a call is dropped, in milliseconds.
+     */
+    private final long maxLatencyMillis;
+
+    /**
+     * Number of calls waiting for each host, before the next ones are rejected.
+     */
+    private final int maxQueueSize;
+
+    private ConcurrencyLimiterConfiguration(final Builder builder) {
+        if (builder.minLimit > builder.maxLimit) {
+            throw new IllegalArgumentException("minLimit > maxLimit: " + builder.minLimit
+                    + " > " + builder.maxLimit);
+        }
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.initialLimit = Math.max(minLimit, Math.min(builder.initialLimit, maxLimit));
+        this.backoffRatio = builder.backoffRatio;
+        this.maxLatencyMillis = builder.maxLatencyMillis;
+        this.maxQueueSize = builder.maxQueueSize;
+    }
+
+    /**
+     * Getter for the limit of a host not called yet.
+     * @return The initial limit, within the bounds.
+     */
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    /**
+     * Getter for the lower bound of a limit.
+     * @return The minimum limit.
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    /**
+     * Getter for the upper bound of a limit.
+     * @return The maximum limit.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Getter for the factor applied to a limit on a dropped call.
+     * @return The backoff ratio.
+     */
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    /**
+     * Getter for the latency from which a call is dropped.
+     * @return The latency in milliseconds.
+     */
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    /**
+     * Getter for the number of calls waiting for each host.
+     * @return The maximum queue size, 0 if the calls over the limit are rejected at once.
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Compares the values of two configurations.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ConcurrencyLimiterConfiguration)) {
+            return false;
+        }
+        ConcurrencyLimiterConfiguration other = (ConcurrencyLimiterConfiguration) obj;
+        return initialLimit == other.initialLimit
+                && minLimit == other.minLimit
+                && maxLimit == other.maxLimit
+                && backoffRatio == other.backoffRatio
+                && maxLatencyMillis == other.maxLatencyMillis
+                && maxQueueSize == other.maxQueueSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(initialLimit, minLimit, maxLimit, backoffRatio, maxLatencyMillis,
+                maxQueueSize);
+    }
+
+    /**
+     * Builder for {@link ConcurrencyLimiterConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * Limit of a host not called yet.
+         */
+        private int initialLimit = DEFAULT_INITIAL_LIMIT;
+
+        /**
+         * Lower bound of a limit.
+         */
+        private int minLimit = DEFAULT_MIN_LIMIT;
+
+        /**
+         * Upper bound of a limit.
+         */
+        private int maxLimit = DEFAULT_MAX_LIMIT;
+
+        /**
+         * Factor applied to a limit on a dropped call.
+         */
+        private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+        /**
+         * Latency from which a call is dropped, in milliseconds.
+         */
+        private long maxLatencyMillis = DEFAULT_MAX_LATENCY_MILLIS;
+
+        /**
+         * Number of calls waiting for each host.
+         */
+        private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+        /**
+         * Sets the limit of a host not called yet.
+         * @param limit A positive number of calls, capped by the bounds.
+         * @return The {@link Builder}.
+         */
+        public Builder initialLimit(int limit) {
+            this.initialLimit = (int) requirePositive(limit, "initialLimit");
+            return this;
+        }
+
+        /**
+         * Sets the lower bound of a limit.
+         * @param limit A positive number of calls.
+         * @return The {@link Builder}.
+         */
+        public Builder minLimit(int limit) {
+            this.minLimit = (int) requirePositive(limit, "minLimit");
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of a limit.
+         * @param limit A positive number of calls.
+         * @return The {@link Builder}.
+         */
+        public Builder maxLimit(int limit) {
+            this.maxLimit = (int) requirePositive(limit, "maxLimit");
+            return this;
+        }
+
+        /**
+         * Sets the factor applied to a limit on a dropped call.
+         * @param ratio A ratio above 0 and below 1.
+         * @return The {@link Builder}.
+         */
+        public Builder backoffRatio(double ratio) {
+            if (!(ratio > 0 && ratio < 1)) {
+                throw new IllegalArgumentException("backoffRatio not in (0, 1): " + ratio);
+            }
+            this.backoffRatio = ratio;
+            return this;
+        }
+
+        /**
+         * Sets the latency from which a successful call is dropped, as a sign of queueing
+         * upstream.
+         * @param latency A positive latency.
+         * @param unit The unit of the latency.
+         * @return The {@link Builder}.
+         */
+        public Builder maxLatency(long latency, TimeUnit unit) {
+            this.maxLatencyMillis = unit.toMillis(requirePositive(latency, "maxLatency"));
+            return this;
+        }
+
+        /**
+         * Sets the number of calls waiting for each host once its limit is reached.
+         * @param size A number of calls, 0 to reject the calls over the limit at once.
+         * @return The {@link Builder}.
+         */
+        public Builder maxQueueSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("maxQueueSize < 0: " + size);
+            }
+            this.maxQueueSize = size;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link ConcurrencyLimiterConfiguration}.
+         * @throws IllegalArgumentException If the minimum limit is above the maximum limit.
+         */
+        public ConcurrencyLimiterConfiguration build() {
+            return new ConcurrencyLimiterConfiguration(this);
+        }
+
+        private static long requirePositive(long value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " < 1: " + value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the hedged requests of an OkClient. A call still waiting for its response after
+ * the hedging delay is sent a second time, and the first response of the two is used. The delay
+ * is fixed, or follows a percentile of the recent latencies with the fixed delay as its floor.
+ * The hedges are capped to a share of the calls, so that they cannot double the load.
+ */
+public final class HedgingConfiguration {
+
+    /**
+     * Default delay before a hedge is sent, in milliseconds.
+     */
+    private static final long DEFAULT_DELAY_MILLIS = 100;
+
+    /**
+     * Default maximum hedges, as a percentage of the calls.
+     */
+    private static final float DEFAULT_HEDGE_PERCENT = 10;
+
+    /**
+     * Default maximum hedges allowed in a burst.
+     */
+    private static final int DEFAULT_MAX_HEDGES = 10;
+
+    /**
+     * Upper bound of the percentages, exclusive for the latency percentile.
+     */
+    private static final float PERCENT = 100;
+
+    /**
+     * Delay before a hedge is sent, or floor of the adaptive delay, in milliseconds.
+     */
+    private final long delayMillis;
+
+    /**
+     * Percentile of the recent latencies used as the delay, 0 for a fixed delay.
+     */
+    private final double latencyPercentile;
+
+    /**
+     * Maximum hedges, as a percentage of the calls.
+     */
+    private final float hedgePercent;
+
+    /**
+     * Maximum hedges allowed in a burst.
+     */
+    private final int maxHedges;
+
+    private HedgingConfiguration(final Builder builder) {
+        this.delayMillis = builder.delayMillis;
+        this.latencyPercentile = builder.latencyPercentile;
+        this.hedgePercent = builder.hedgePercent;
+        this.maxHedges = builder.maxHedges;
+    }
+
+    /**
+     * Getter for the delay before a hedge is sent.
+     * @return The fixed delay, or the floor of the adaptive delay, in milliseconds.
+     */
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * Getter for the percentile of the recent latencies used as the delay.
+     * @return The percentile, 0 for a fixed delay.
+     */
+    public double getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    /**
+     * Getter for the maximum hedges, as a percentage of the calls.
+     * @return The percentage.
+     */
+    public float getHedgePercent() {
+        return hedgePercent;
+    }
+
+    /**
+     * Getter for the maximum hedges allowed in a burst.
+     * @return The number of hedges.
+     */
+    public int getMaxHedges() {
+        return maxHedges;
+    }
+
+    /**
+     * Compares the values of two configurations.
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof HedgingConfiguration)) {
+            return false;
+        }
+        HedgingConfiguration other = (HedgingConfiguration) obj;
+        return delayMillis == other.delayMillis
+                && latencyPercentile == other.latencyPercentile
+                && hedgePercent == other.hedgePercent
+                && maxHedges == other.maxHedges;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(delayMillis, latencyPercentile, hedgePercent, maxHedges);
+    }
+
+    /**
+     * Builder for {@link HedgingConfiguration}.
+     */
+    public static final class Builder {
+
+        /**
+         * Delay before a hedge is sent, in milliseconds.
+         */
+        private long delayMillis = DEFAULT_DELAY_MILLIS;
+
+        /**
+         * Percentile of the recent latencies used as the delay.
+         */
+        private double latencyPercentile;
+
+        /**
+         * Maximum hedges, as a percentage of the calls.
+         */
+        private float hedgePercent = DEFAULT_HEDGE_PERCENT;
+
+        /**
+         * Maximum hedges allowed in a burst.
+         */
+        private int maxHedges = DEFAULT_MAX_HEDGES;
+
+        /**
+         * Sets the delay before a hedge is sent, which is the floor of the delay when it
+         * follows the latency percentile.
+         * @param delay A positive delay.
+         * @param unit The unit of the delay.
+         * @return The {@link Builder}.
+         */
+        public Builder delay(long delay, TimeUnit unit) {
+            if (delay < 1) {
+                throw new IllegalArgumentException("delay < 1: " + delay);
+            }
+            this.delayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * Makes the delay follow a percentile of the recent call latencies, such as 95 to
+         * hedge the slowest 5% of the calls.
+         * @param percentile A percentile above 0 and below 100.
+         * @return The {@link Builder}.
+         */
+        public Builder latencyPercentile(double percentile) {
+            if (!(percentile > 0 && percentile < PERCENT)) {
+                throw new IllegalArgumentException("latencyPercentile not in (0, 100): "
+                        + percentile);
+            }
+            this.latencyPercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Caps the hedges to a share of the calls.
+         * @param percent The positive maximum hedges, as a percentage of the recent calls.
+         * @param burst The positive maximum hedges allowed in a burst.
+         * @return The {@link Builder}.
+         */
+        public Builder maxHedges(float percent, int burst) {
+            if (!(percent > 0 && percent <= PERCENT)) {
+                throw new IllegalArgumentException("maxHedges percent not in (0, 100]: "
+                        + percent);
+            }
+            if (burst < 1) {
+                throw new IllegalArgumentException("maxHedges burst < 1: " + burst);
+            }
+            this.hedgePercent = percent;
+            this.maxHedges = burst;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         * @return The {@link HedgingConfiguration}.
+         */
+        public HedgingConfiguration build() {
+            return new HedgingConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A client side rate limit per host, shared by all the calls of a client. Each call reserves a
+ * send time: calls are spaced by the configured rate, paused until the end of a Retry-After
+ * period, and spread evenly over the window of a quota announced by the server. A call that
+ * would wait longer than the maximum wait is rejected instead, without reserving a send time.
+ */
+public final class HostRateLimiter {
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Time between two calls to a host for the configured rate, 0 without a static rate.
+     */
+    private final long intervalNanos;
+
+    /**
+     * Longest time a call may wait for its send time.
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * The limits by host.
+     */
+    private final ConcurrentHashMap<String, HostLimit> limits = new ConcurrentHashMap<>();
+
+    /**
+     * The number of calls delayed.
+     */
+    private final LongAdder delayedCalls = new LongAdder();
+
+    /**
+     * The number of calls rejected for waiting longer than the maximum wait.
+     */
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    /**
+     * Initialization constructor.
+     * @param requestsPerSecond The maximum requests per second to each host, 0 to only follow
+     *        the limits announced by the servers.
+     * @param maxWait The longest time a call may wait for its send time.
+     * @param unit The unit of the maximum wait.
+     */
+    public HostRateLimiter(final double requestsPerSecond, final long maxWait,
+            final TimeUnit unit) {
+        this.intervalNanos = requestsPerSecond > 0 ? (long) (NANOS_PER_SECOND / requestsPerSecond)
+                : 0;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    /**
+     * Reserves the send time of a call.
+     * @param host The host to call.
+     * @return The time to wait in nanoseconds before sending the call, or -1 if the call has
+     *         to be rejected.
+     */
+    public long reserve(String host) {
+        long waitNanos = getHostLimit(host).reserve(intervalNanos, maxWaitNanos);
+        if (waitNanos < 0) {
+            rejectedCalls.increment();
+        } else if (waitNanos > 0) {
+            delayedCalls.increment();
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Pauses the calls to a host, after a server asked to retry later.
+     * @param host The host.
+     * @param duration The time from now until calls may be sent again.
+     * @param unit The unit of the duration.
+     */
+    public void pause(String host, long duration, TimeUnit unit) {
+        if (duration > 0) {
+            getHostLimit(host).pause(unit.toNanos(duration));
+        }
+    }
+
+    /**
+     * Spreads the calls to a host over the window of the quota announced by its server, or
+     * pauses them until the end of the window once the quota is used up.
+     * @param host The host.
+     * @param remaining The number of calls left in the window.
+     * @param reset The time from now until the end of the window.
+     * @param unit The unit of the time until the end of the window.
+     */
+    public void onQuota(String host, long remaining, long reset, TimeUnit unit) {
+        if (reset <= 0) {
+            return;
+        }
+        if (remaining <= 0) {
+            pause(host, reset, unit);
+        } else {
+            getHostLimit(host).spread(unit.toNanos(reset), remaining);
+        }
+    }
+
+    /**
+     * Getter for the number of calls delayed.
+     * @return The number of delayed calls.
+     */
+    public long getDelayedCallCount() {
+        return delayedCalls.sum();
+    }
+
+    /**
+     * Getter for the number of calls rejected for waiting longer than the maximum wait.
+     * @return The number of rejected calls.
+     */
+    public long getRejectedCallCount() {
+        return rejectedCalls.sum();
+    }
+
+    private HostLimit getHostLimit(String host) {
+        HostLimit hostLimit = limits.get(host);
+        if (hostLimit == null) {
+            hostLimit = limits.computeIfAbsent(host, key -> new HostLimit());
+        }
+        return hostLimit;
+    }
+
+    /**
+     * The send times of a single host, as {@link System#nanoTime()} values.
+     */
+    private static final class HostLimit {
+
+        /**
+         * A lock guarding the send times, which does not pin virtual threads.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * The earliest send time of the next call.
+         */
+        private long nextSendNanos = System.nanoTime();
+
+        /**
+         * The end of the pause requested by the server.
+         */
+        private long pausedUntilNanos = nextSendNanos;
+
+        /**
+         * The time between two calls to spread the announced quota.
+         */
+        private long quotaIntervalNanos;
+
+        /**
+         * The end of the window of the announced quota.
+         */
+        private long quotaUntilNanos = nextSendNanos;
+
+        private long reserve(long intervalNanos, long maxWaitNanos) {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                long sendNanos = latest(now, latest(nextSendNanos, pausedUntilNanos));
+                long waitNanos = sendNanos - now;
+                if (waitNanos > maxWaitNanos) {
+                    return -1;
+                }
+                long interval = quotaUntilNanos - now > 0
+                        ? Math.max(intervalNanos, quotaIntervalNanos) : intervalNanos;
+                nextSendNanos = sendNanos + interval;
+                return waitNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void pause(long durationNanos) {
+            long until = System.nanoTime() + durationNanos;
+            lock.lock();
+            try {
+                pausedUntilNanos = latest(pausedUntilNanos, until);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void spread(long windowNanos, long remaining) {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                quotaIntervalNanos = windowNanos / remaining;
+                quotaUntilNanos = now + windowNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static long latest(long first, long second) {
+            return first - second > 0 ? first : second;
+        }
+    }
+}
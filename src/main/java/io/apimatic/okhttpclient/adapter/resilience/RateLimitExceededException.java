@@ -0,0 +1,37 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request when the rate limit of its host would delay it longer
+ * than the maximum wait.
+ */
+public final class RateLimitExceededException extends IOException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The host whose rate limit is exceeded.
+     */
+    private final String host;
+
+    /**
+     * Initialization constructor.
+     * @param host The host whose rate limit is exceeded.
+     */
+    public RateLimitExceededException(final String host) {
+        super("Rate limit exceeded for " + host);
+        this.host = host;
+    }
+
+    /**
+     * Getter for the host whose rate limit is exceeded.
+     * @return The host.
+     */
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,172 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides when the hedge of a call is sent and whether it is allowed. The hedges draw on a
+ * {@link RetryBudget} of their own, filled by every hedged call, and the adaptive delay is taken
+ * from the latencies of the last calls.
+ */
+public final class RequestHedger {
+
+    /**
+     * Number of recent latencies the percentile is taken from.
+     */
+    private static final int SAMPLE_SIZE = 256;
+
+    /**
+     * Number of latencies needed before the percentile replaces the fixed delay.
+     */
+    private static final int MIN_SAMPLES = 20;
+
+    /**
+     * Percent divisor of the latency percentile.
+     */
+    private static final double PERCENT = 100;
+
+    /**
+     * Key of the hedge budget, shared by all the hosts.
+     */
+    private static final String BUDGET_KEY = "";
+
+    /**
+     * The settings of the hedges.
+     */
+    private final HedgingConfiguration configuration;
+
+    /**
+     * The budget of the hedges.
+     */
+    private final RetryBudget budget;
+
+    /**
+     * A lock guarding the latencies, which does not pin virtual threads.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The recent latencies in milliseconds, as a ring buffer.
+     */
+    private final long[] latencies = new long[SAMPLE_SIZE];
+
+    /**
+     * The position of the next latency in the ring buffer.
+     */
+    private int nextIndex;
+
+    /**
+     * The number of latencies recorded, up to the sample size.
+     */
+    private int recordedLatencies;
+
+    /**
+     * The number of hedges sent.
+     */
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * The number of hedges whose response was used.
+     */
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /**
+     * Initialization constructor.
+     * @param configuration The settings of the hedges.
+     */
+    public RequestHedger(final HedgingConfiguration configuration) {
+        this.configuration = configuration;
+        this.budget = new RetryBudget(RetryBudget.Scope.CLIENT, configuration.getHedgePercent(),
+                configuration.getMaxHedges());
+    }
+
+    /**
+     * Records a call that may be hedged, which earns a share of a hedge.
+     */
+    public void onCall() {
+        budget.onFirstAttempt(BUDGET_KEY);
+    }
+
+    /**
+     * Withdraws a hedge from the budget.
+     * @return true if the hedge may be sent, false if it has to be skipped.
+     */
+    public boolean tryAcquireHedge() {
+        if (!budget.tryAcquireRetry(BUDGET_KEY)) {
+            return false;
+        }
+        hedges.increment();
+        return true;
+    }
+
+    /**
+     * Records the latency of a call, until the first of its responses.
+     * @param latency The latency of the call.
+     * @param unit The unit of the latency.
+     * @param wonByHedge Whether the response of the hedge was used.
+     */
+    public void onResponse(long latency, TimeUnit unit, boolean wonByHedge) {
+        if (wonByHedge) {
+            hedgeWins.increment();
+        }
+        lock.lock();
+        try {
+            latencies[nextIndex] = unit.toMillis(latency);
+            nextIndex = (nextIndex + 1) % SAMPLE_SIZE;
+            recordedLatencies = Math.min(recordedLatencies + 1, SAMPLE_SIZE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Getter for the time to wait for a response before sending the hedge.
+     * @return The delay in milliseconds.
+     */
+    public long getDelayMillis() {
+        if (configuration.getLatencyPercentile() == 0) {
+            return configuration.getDelayMillis();
+        }
+
+        long[] sample;
+        lock.lock();
+        try {
+            if (recordedLatencies < MIN_SAMPLES) {
+                return configuration.getDelayMillis();
+            }
+            sample = Arrays.copyOf(latencies, recordedLatencies);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sample);
+        int index = (int) Math.ceil(configuration.getLatencyPercentile() / PERCENT
+                * sample.length) - 1;
+        return Math.max(sample[Math.max(index, 0)], configuration.getDelayMillis());
+    }
+
+    /**
+     * Getter for the number of hedges sent.
+     * @return The number of hedges.
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Getter for the number of hedges whose response was used.
+     * @return The number of winning hedges.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * Getter for the number of hedges skipped because the budget was exhausted.
+     * @return The number of skipped hedges.
+     */
+    public long getSkippedHedgeCount() {
+        return budget.getSkippedRetries();
+    }
+}
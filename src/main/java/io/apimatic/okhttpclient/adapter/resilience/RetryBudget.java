@@ -0,0 +1,135 @@
+package io.apimatic.okhttpclient.adapter.resilience;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A budget limiting the retries to a share of the first attempts, so that retries cannot
+ * multiply the traffic to a failing upstream. Each first attempt deposits a fraction of a token
+ * into a bucket, each retry withdraws a whole token, and a retry without a token is skipped.
+ * The bucket is capped, so only the recent attempts count, and it starts full so that a client
+ * with little traffic can still retry.
+ */
+public final class RetryBudget {
+
+    /**
+     * The scopes a budget can be shared in.
+     */
+    public enum Scope {
+        /**
+         * A single budget for all the hosts called by the client.
+         */
+        CLIENT,
+
+        /**
+         * A budget for each host called by the client.
+         */
+        HOST
+    }
+
+    /**
+     * The fixed point precision of the token balance.
+     */
+    private static final long TOKEN = 1000;
+
+    /**
+     * Percent divisor of the retry ratio.
+     */
+    private static final float PERCENT = 100;
+
+    /**
+     * Key of the bucket shared by all the hosts.
+     */
+    private static final String CLIENT_KEY = "";
+
+    /**
+     * The scope of the buckets.
+     */
+    private final Scope scope;
+
+    /**
+     * The fraction of a token deposited by each first attempt, in thousandths.
+     */
+    private final long deposit;
+
+    /**
+     * The capacity of a bucket, in thousandths of a token.
+     */
+    private final long capacity;
+
+    /**
+     * The token balances, in thousandths of a token, by host or {@link #CLIENT_KEY}.
+     */
+    private final ConcurrentHashMap<String, AtomicLong> balances = new ConcurrentHashMap<>();
+
+    /**
+     * The number of retries skipped for an empty bucket.
+     */
+    private final LongAdder skippedRetries = new LongAdder();
+
+    /**
+     * Initialization constructor.
+     * @param scope The scope of the budget.
+     * @param retryPercent The maximum retries, as a percentage of the first attempts.
+     * @param maxRetries The maximum retries allowed in a burst, the capacity of a bucket.
+     */
+    public RetryBudget(final Scope scope, final float retryPercent, final int maxRetries) {
+        this.scope = scope;
+        this.deposit = (long) (retryPercent / PERCENT * TOKEN);
+        this.capacity = maxRetries * TOKEN;
+    }
+
+    /**
+     * Records the first attempt of a call.
+     * @param host The host of the call.
+     */
+    public void onFirstAttempt(String host) {
+        getBalance(host).accumulateAndGet(deposit,
+                (balance, amount) -> Math.min(balance + amount, capacity));
+    }
+
+    /**
+     * Withdraws a token for a retry.
+     * @param host The host of the call.
+     * @return true if the retry is within the budget, false if it has to be skipped.
+     */
+    public boolean tryAcquireRetry(String host) {
+        AtomicLong balance = getBalance(host);
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                skippedRetries.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Getter for the number of retries currently allowed.
+     * @param host The host of the calls, ignored for a client wide budget.
+     * @return The number of retries.
+     */
+    public long getAvailableRetries(String host) {
+        return getBalance(host).get() / TOKEN;
+    }
+
+    /**
+     * Getter for the number of retries skipped because the budget was exhausted.
+     * @return The number of skipped retries.
+     */
+    public long getSkippedRetries() {
+        return skippedRetries.sum();
+    }
+
+    private AtomicLong getBalance(String host) {
+        String key = scope == Scope.HOST ? host : CLIENT_KEY;
+        AtomicLong balance = balances.get(key);
+        if (balance == null) {
+            balance = balances.computeIfAbsent(key, k -> new AtomicLong(capacity));
+        }
+        return balance;
+    }
+}
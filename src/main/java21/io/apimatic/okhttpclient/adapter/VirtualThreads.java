@@ -0,0 +1,32 @@
+package io.apimatic.okhttpclient.adapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads. This is the Java 21 variant, packaged under
+ * {@code META-INF/versions/21} of the multi-release JAR.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether virtual threads are available on the running JVM.
+     * @return true.
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task.
+     * @param namePrefix The prefix of the thread names.
+     * @return The executor.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(namePrefix + " ", 0).factory());
+    }
+}
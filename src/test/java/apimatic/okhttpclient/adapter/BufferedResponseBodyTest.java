@@ -0,0 +1,113 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.BufferedResponseBody;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+public class BufferedResponseBodyTest {
+
+    /**
+     * Body containing characters outside of ASCII.
+     */
+    private static final String BODY = "{\"name\" : \"Café Zürich\"}";
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testDecodesWithContentTypeCharset() throws IOException {
+        MediaType mediaType = MediaType.get("application/json; charset=ISO-8859-1");
+        BufferedResponseBody body = BufferedResponseBody.read(
+                ResponseBody.create(BODY.getBytes(StandardCharsets.ISO_8859_1), mediaType));
+
+        assertEquals(BODY, body.string());
+        assertEquals(mediaType, body.contentType());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testDefaultsToUtf8() throws IOException {
+        BufferedResponseBody body = BufferedResponseBody.read(
+                ResponseBody.create(BODY.getBytes(StandardCharsets.UTF_8), null));
+
+        assertEquals(BODY, body.string());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testByteOrderMarkOverridesCharset() throws IOException {
+        Buffer content = new Buffer().write(new byte[] {(byte) 0xFE, (byte) 0xFF})
+                .writeString(BODY, StandardCharsets.UTF_16BE);
+        BufferedResponseBody body = BufferedResponseBody.read(ResponseBody
+                .create(content.readByteArray(), MediaType.get("text/plain; charset=UTF-8")));
+
+        assertEquals(BODY, body.string());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testStreamIsViewOverRawBytes() throws IOException {
+        byte[] raw = BODY.getBytes(StandardCharsets.UTF_8);
+        BufferedResponseBody body = BufferedResponseBody.read(ResponseBody.create(raw, null));
+
+        assertEquals(raw.length, body.size());
+        assertArrayEquals(raw, readAll(body.byteStream()));
+        assertArrayEquals(raw, readAll(body.byteStream()));
+        assertSame(body.string(), body.string());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testUnknownContentLength() throws IOException {
+        Buffer source = new Buffer().writeUtf8(BODY);
+        BufferedResponseBody body = BufferedResponseBody.read(
+                ResponseBody.create(source, null, -1L));
+
+        assertEquals(BODY, body.string());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test(expected = IOException.class)
+    public void testContentLengthLongerThanBody() throws IOException {
+        Buffer source = new Buffer().writeUtf8(BODY);
+        BufferedResponseBody.read(ResponseBody.create(source, null, source.size() + 1));
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test(expected = IOException.class)
+    public void testContentLengthShorterThanBody() throws IOException {
+        Buffer source = new Buffer().writeUtf8(BODY);
+        BufferedResponseBody.read(ResponseBody.create(source, null, source.size() - 1));
+    }
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] chunk = new byte[16];
+        int read;
+        while ((read = stream.read(chunk)) != -1) {
+            output.write(chunk, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,127 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.mockito.quality.Strictness;
+import io.apimatic.okhttpclient.adapter.HttpCacheStatistics;
+import io.apimatic.okhttpclient.adapter.interceptors.CacheStatisticsInterceptor;
+import okhttp3.Interceptor.Chain;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class CacheStatisticsInterceptorTest {
+
+    /**
+     * Status code of a successful response.
+     */
+    private static final int SUCCESS_STATUS_CODE = 200;
+
+    /**
+     * Status code of a validated cached response.
+     */
+    private static final int NOT_MODIFIED_STATUS_CODE = 304;
+
+    /**
+     * Time the network request was sent.
+     */
+    private static final long SENT_AT_MILLIS = 1000L;
+
+    /**
+     * Time the network response was received.
+     */
+    private static final long RECEIVED_AT_MILLIS = 1040L;
+
+    /**
+     * Initializes mocks annotated with Mock.
+     */
+    @Rule
+    public MockitoRule initRule = MockitoJUnit.rule().strictness(Strictness.LENIENT);
+
+    /**
+     * Mock of {@link Chain}.
+     */
+    @Mock
+    private Chain chain;
+
+    /**
+     * The request of the chain.
+     */
+    private Request request;
+
+    /**
+     * Setup the chain request.
+     */
+    @Before
+    public void setup() {
+        request = new Request.Builder().url("https://localhost/cached").build();
+        when(chain.request()).thenReturn(request);
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testCountsHitsConditionalHitsAndMisses() throws IOException {
+        CacheStatisticsInterceptor interceptor = new CacheStatisticsInterceptor();
+
+        Response hit = response(SUCCESS_STATUS_CODE).cacheResponse(
+                response(SUCCESS_STATUS_CODE).build()).build();
+        when(chain.proceed(request)).thenReturn(hit);
+        assertSame(hit, interceptor.intercept(chain));
+
+        when(chain.proceed(request)).thenReturn(response(SUCCESS_STATUS_CODE)
+                .cacheResponse(response(SUCCESS_STATUS_CODE).build())
+                .networkResponse(networkResponse(NOT_MODIFIED_STATUS_CODE)).build());
+        interceptor.intercept(chain);
+
+        when(chain.proceed(request)).thenReturn(response(SUCCESS_STATUS_CODE)
+                .networkResponse(networkResponse(SUCCESS_STATUS_CODE)).build());
+        interceptor.intercept(chain);
+        interceptor.intercept(chain);
+
+        HttpCacheStatistics statistics = new HttpCacheStatistics(interceptor.getHitCount(),
+                interceptor.getConditionalHitCount(), interceptor.getMissCount(),
+                interceptor.getMissNetworkTimeMillis());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getConditionalHitCount());
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(RECEIVED_AT_MILLIS - SENT_AT_MILLIS,
+                statistics.getAverageMissNetworkTimeMillis(), 0);
+        assertEquals(0.5, statistics.getHitRatio(), 0);
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testChangedResourceIsMiss() throws IOException {
+        CacheStatisticsInterceptor interceptor = new CacheStatisticsInterceptor();
+        when(chain.proceed(request)).thenReturn(response(SUCCESS_STATUS_CODE)
+                .cacheResponse(response(SUCCESS_STATUS_CODE).build())
+                .networkResponse(networkResponse(SUCCESS_STATUS_CODE)).build());
+
+        interceptor.intercept(chain);
+
+        assertEquals(0, interceptor.getConditionalHitCount());
+        assertEquals(1, interceptor.getMissCount());
+    }
+
+    private Response.Builder response(int code) {
+        return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(code)
+                .message("");
+    }
+
+    private Response networkResponse(int code) {
+        return response(code).sentRequestAtMillis(SENT_AT_MILLIS)
+                .receivedResponseAtMillis(RECEIVED_AT_MILLIS).build();
+    }
+}
@@ -0,0 +1,121 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.CachingDns;
+import io.apimatic.okhttpclient.adapter.DnsCacheConfiguration;
+import io.apimatic.okhttpclient.adapter.DnsCacheStatistics;
+
+public class CachingDnsTest {
+
+    /**
+     * Host of the lookups.
+     */
+    private static final String HOST = "example.com";
+
+    /**
+     * Time to live of the entries expiring during a test, in milliseconds.
+     */
+    private static final long SHORT_TTL = 200;
+
+    /**
+     * Time waited for an entry to expire, within its stale window, in milliseconds.
+     */
+    private static final long EXPIRY_WAIT = 300;
+
+    /**
+     * Number of resolutions done by the delegate.
+     */
+    private final AtomicInteger resolutions = new AtomicInteger();
+
+    /**
+     * Test the addresses are resolved once while their entry is fresh.
+     * @throws UnknownHostException if the lookup fails.
+     */
+    @Test
+    public void testLookupIsCached() throws UnknownHostException {
+        CachingDns dns = new CachingDns(new DnsCacheConfiguration.Builder()
+                .delegate(hostname -> resolve()).build());
+
+        List<InetAddress> first = dns.lookup(HOST);
+        List<InetAddress> second = dns.lookup(HOST);
+
+        assertEquals(first, second);
+        assertEquals(1, resolutions.get());
+        DnsCacheStatistics statistics = dns.getStatistics();
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(0.5, statistics.getHitRatio(), 0);
+    }
+
+    /**
+     * Test the failed resolutions are cached for the negative time to live.
+     */
+    @Test
+    public void testFailureIsCached() {
+        CachingDns dns = new CachingDns(new DnsCacheConfiguration.Builder()
+                .delegate(hostname -> {
+                    resolutions.incrementAndGet();
+                    throw new UnknownHostException(hostname);
+                }).build());
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                dns.lookup(HOST);
+            } catch (UnknownHostException expected) {
+                // The failure is served from the cache the second time
+            }
+        }
+
+        assertEquals(1, resolutions.get());
+        assertEquals(1, dns.getStatistics().getFailureCount());
+    }
+
+    /**
+     * Test an expired entry is served while the resolver is slower than the stale timeout.
+     * @throws Exception if the lookup fails or the test is interrupted.
+     */
+    @Test
+    public void testStaleEntryServedWhenResolverIsSlow() throws Exception {
+        CountDownLatch slowResolver = new CountDownLatch(1);
+        CachingDns dns = new CachingDns(new DnsCacheConfiguration.Builder()
+                .ttl(SHORT_TTL, TimeUnit.MILLISECONDS).refreshAheadRatio(1)
+                .staleTimeout(1, TimeUnit.MILLISECONDS)
+                .delegate(hostname -> {
+                    if (resolutions.get() > 0) {
+                        awaitQuietly(slowResolver);
+                    }
+                    return resolve();
+                }).build());
+
+        List<InetAddress> addresses = dns.lookup(HOST);
+        TimeUnit.MILLISECONDS.sleep(EXPIRY_WAIT);
+        try {
+            assertEquals(addresses, dns.lookup(HOST));
+            assertEquals(1, dns.getStatistics().getStaleHitCount());
+        } finally {
+            slowResolver.countDown();
+        }
+    }
+
+    private List<InetAddress> resolve() throws UnknownHostException {
+        resolutions.incrementAndGet();
+        return Collections.singletonList(
+                InetAddress.getByAddress(HOST, new byte[] {127, 0, 0, 1}));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
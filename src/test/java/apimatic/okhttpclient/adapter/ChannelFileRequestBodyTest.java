@@ -0,0 +1,71 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import io.apimatic.okhttpclient.adapter.ChannelFileRequestBody;
+import okhttp3.MediaType;
+import okio.Buffer;
+
+public class ChannelFileRequestBodyTest {
+
+    /**
+     * Content of the uploaded file.
+     */
+    private static final String CONTENT = "0123456789";
+
+    /**
+     * Size of the read buffer, smaller than the file.
+     */
+    private static final long BUFFER_SIZE = 4;
+
+    /**
+     * Temporary folder of the uploaded files.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Test the file is sent buffer by buffer with its progress, at every attempt.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testFileIsSentByBuffers() throws IOException {
+        File file = temporaryFolder.newFile("upload.bin");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+        List<Long> progress = new ArrayList<>();
+
+        ChannelFileRequestBody body = new ChannelFileRequestBody(file,
+                MediaType.get("application/octet-stream"), BUFFER_SIZE,
+                (uploaded, bytesWritten, contentLength, elapsedNanos) -> {
+                    assertEquals(CONTENT.length(), contentLength);
+                    progress.add(bytesWritten);
+                });
+
+        assertEquals(CONTENT.length(), body.contentLength());
+        for (int attempt = 0; attempt < 2; attempt++) {
+            progress.clear();
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+
+            assertEquals(CONTENT, buffer.readUtf8());
+            assertEquals(Arrays.asList(4L, 8L, 10L), progress);
+        }
+    }
+
+    /**
+     * Test the buffer must not be empty.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBufferSize() {
+        new ChannelFileRequestBody(new File("upload.bin"), null, 0, null);
+    }
+}
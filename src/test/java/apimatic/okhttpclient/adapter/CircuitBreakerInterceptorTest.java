@@ -0,0 +1,219 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.mockito.quality.Strictness;
+import io.apimatic.coreinterfaces.http.ClientConfiguration;
+import io.apimatic.okhttpclient.adapter.interceptors.CircuitBreakerInterceptor;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreaker;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerOpenException;
+import okhttp3.Call;
+import okhttp3.Interceptor.Chain;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class CircuitBreakerInterceptorTest {
+
+    /**
+     * Status code of a successful response.
+     */
+    private static final int SUCCESS_STATUS_CODE = 200;
+
+    /**
+     * Status code of a response to retry.
+     */
+    private static final int SERVER_ERROR_STATUS_CODE = 500;
+
+    /**
+     * Number of calls in the sliding window, all needed to open the breaker.
+     */
+    private static final int WINDOW_SIZE = 4;
+
+    /**
+     * Failure rate threshold in percent.
+     */
+    private static final float FAILURE_RATE_THRESHOLD = 50;
+
+    /**
+     * The host of the calls, with its port.
+     */
+    private static final String HOST = "localhost:8080";
+
+    /**
+     * Initializes mocks annotated with Mock.
+     */
+    @Rule
+    public MockitoRule initRule = MockitoJUnit.rule().strictness(Strictness.LENIENT);
+
+    /**
+     * Mock of {@link ClientConfiguration}.
+     */
+    @Mock
+    private ClientConfiguration clientConfiguration;
+
+    /**
+     * Mock of {@link Chain}.
+     */
+    @Mock
+    private Chain chain;
+
+    /**
+     * Mock of {@link Call}.
+     */
+    @Mock
+    private Call call;
+
+    /**
+     * The request of the chain.
+     */
+    private Request request;
+
+    /**
+     * The interceptor under test.
+     */
+    private CircuitBreakerInterceptor interceptor;
+
+    /**
+     * Setup the chain request and the interceptor.
+     */
+    @Before
+    public void setup() {
+        request = new Request.Builder().url("http://" + HOST + "/resource").build();
+        when(chain.request()).thenReturn(request);
+        when(chain.call()).thenReturn(call);
+        when(clientConfiguration.getHttpStatusCodesToRetry())
+                .thenReturn(Collections.singleton(SERVER_ERROR_STATUS_CODE));
+        interceptor = new CircuitBreakerInterceptor(clientConfiguration,
+                new CircuitBreakerConfiguration.Builder()
+                        .failureRateThreshold(FAILURE_RATE_THRESHOLD)
+                        .slidingWindowSize(WINDOW_SIZE)
+                        .minimumNumberOfCalls(WINDOW_SIZE)
+                        .openDuration(1, TimeUnit.MINUTES)
+                        .build());
+    }
+
+    /**
+     * Test the responses with a status code to retry or a Retry-After header are failures,
+     * unlike the other responses.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testRetryableResponsesAreFailures() throws IOException {
+        when(chain.proceed(request)).thenReturn(networkResponse(SUCCESS_STATUS_CODE).build());
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            interceptor.intercept(chain);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState(HOST));
+
+        when(chain.proceed(request)).thenReturn(
+                networkResponse(SERVER_ERROR_STATUS_CODE).build(),
+                networkResponse(SUCCESS_STATUS_CODE).header("Retry-After", "1").build());
+        for (int i = 0; i < WINDOW_SIZE / 2; i++) {
+            interceptor.intercept(chain);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, interceptor.getState(HOST));
+    }
+
+    /**
+     * Test the I/O errors and timeouts are failures.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testExceptionsAreFailures() throws IOException {
+        when(chain.proceed(request)).thenThrow(new IOException("unexpected end of stream"),
+                new SocketTimeoutException("timeout"));
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            try {
+                interceptor.intercept(chain);
+                fail("The call must fail");
+            } catch (IOException e) {
+                // Counted by the breaker
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, interceptor.getState(HOST));
+    }
+
+    /**
+     * Test the responses served by the cache without the network are ignored.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testCacheHitsAreIgnored() throws IOException {
+        when(chain.proceed(request)).thenReturn(response(SERVER_ERROR_STATUS_CODE)
+                .cacheResponse(response(SERVER_ERROR_STATUS_CODE).build()).build());
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            interceptor.intercept(chain);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState(HOST));
+    }
+
+    /**
+     * Test the failures of the cancelled calls are ignored.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testCancelledCallsAreIgnored() throws IOException {
+        when(call.isCanceled()).thenReturn(true);
+        when(chain.proceed(request)).thenThrow(new IOException("Canceled"));
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            try {
+                interceptor.intercept(chain);
+                fail("The call must fail");
+            } catch (IOException e) {
+                // Ignored by the breaker
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState(HOST));
+    }
+
+    /**
+     * Test an open breaker short-circuits the calls to its host without sending them.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testOpenBreakerShortCircuits() throws IOException {
+        when(chain.proceed(request)).thenReturn(networkResponse(SERVER_ERROR_STATUS_CODE).build());
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            interceptor.intercept(chain);
+        }
+
+        try {
+            interceptor.intercept(chain);
+            fail("The open breaker must short-circuit the call");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals(HOST, e.getHost());
+        }
+        verify(chain, times(WINDOW_SIZE)).proceed(request);
+    }
+
+    private Response.Builder response(int code) {
+        return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(code)
+                .message("");
+    }
+
+    private Response.Builder networkResponse(int code) {
+        return response(code).networkResponse(response(code).build());
+    }
+}
@@ -0,0 +1,146 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreaker;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerConfiguration;
+
+public class CircuitBreakerTest {
+
+    /**
+     * Number of calls in the sliding window.
+     */
+    private static final int WINDOW_SIZE = 4;
+
+    /**
+     * Number of trial calls while half-open.
+     */
+    private static final int TRIAL_CALLS = 2;
+
+    /**
+     * Time the breaker stays open.
+     */
+    private static final long OPEN_DURATION_MILLIS = 1L;
+
+    /**
+     * Time to wait for the breaker to become half-open.
+     */
+    private static final long WAIT_FOR_HALF_OPEN_MILLIS = 20L;
+
+    /**
+     * Duration of a fast call.
+     */
+    private static final long FAST_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Duration of a slow call.
+     */
+    private static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Rate threshold in percent.
+     */
+    private static final float RATE_THRESHOLD = 50;
+
+    /**
+     * Test the breaker opens once the failure rate of a full window reaches the threshold.
+     */
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(configuration());
+
+        circuitBreaker.onResult(true, FAST_CALL_NANOS);
+        circuitBreaker.onResult(false, FAST_CALL_NANOS);
+        circuitBreaker.onResult(false, FAST_CALL_NANOS);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onResult(true, FAST_CALL_NANOS);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    /**
+     * Test the breaker opens once the slow call rate reaches the threshold.
+     */
+    @Test
+    public void testOpensOnSlowCallRate() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(configuration());
+
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            circuitBreaker.onResult(false, i % 2 == 0 ? SLOW_CALL_NANOS : FAST_CALL_NANOS);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    /**
+     * Test the trial calls of a half-open breaker close it when they succeed.
+     * @throws InterruptedException If interrupted while waiting for the open duration.
+     */
+    @Test
+    public void testHalfOpenClosesAfterSuccessfulTrialCalls() throws InterruptedException {
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onResult(false, FAST_CALL_NANOS);
+        circuitBreaker.onResult(false, FAST_CALL_NANOS);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * Test a failed trial call opens the breaker again, and an ignored one frees its permission.
+     * @throws InterruptedException If interrupted while waiting for the open duration.
+     */
+    @Test
+    public void testHalfOpenReopensAfterFailedTrialCalls() throws InterruptedException {
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onIgnored();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onResult(true, FAST_CALL_NANOS);
+        circuitBreaker.onResult(false, FAST_CALL_NANOS);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    /**
+     * Test the invalid thresholds are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFailureRateThreshold() {
+        new CircuitBreakerConfiguration.Builder().failureRateThreshold(0);
+    }
+
+    private static CircuitBreaker openedCircuitBreaker() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(configuration());
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            circuitBreaker.onResult(true, FAST_CALL_NANOS);
+        }
+        Thread.sleep(WAIT_FOR_HALF_OPEN_MILLIS);
+        return circuitBreaker;
+    }
+
+    private static CircuitBreakerConfiguration configuration() {
+        return new CircuitBreakerConfiguration.Builder()
+                .failureRateThreshold(RATE_THRESHOLD)
+                .slowCallRateThreshold(RATE_THRESHOLD)
+                .slowCallDuration(1, TimeUnit.SECONDS)
+                .slidingWindowSize(WINDOW_SIZE)
+                .minimumNumberOfCalls(WINDOW_SIZE)
+                .openDuration(OPEN_DURATION_MILLIS, TimeUnit.MILLISECONDS)
+                .permittedCallsInHalfOpenState(TRIAL_CALLS)
+                .build();
+    }
+}
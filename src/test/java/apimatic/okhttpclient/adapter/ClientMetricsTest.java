@@ -0,0 +1,86 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.metrics.CallPhase;
+import io.apimatic.okhttpclient.adapter.metrics.ClientMetrics;
+import io.apimatic.okhttpclient.adapter.metrics.HistogramSnapshot;
+import io.apimatic.okhttpclient.adapter.metrics.LatencyHistogram;
+import io.apimatic.okhttpclient.adapter.metrics.MetricsSnapshot;
+
+public class ClientMetricsTest {
+
+    /**
+     * Host of the calls.
+     */
+    private static final String HOST = "example.com";
+
+    /**
+     * Number of recorded latencies.
+     */
+    private static final int LATENCY_COUNT = 1000;
+
+    /**
+     * Highest relative error of the percentiles.
+     */
+    private static final double MAX_RELATIVE_ERROR = 0.07;
+
+    /**
+     * Test the percentiles of a histogram stay within its relative error.
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= LATENCY_COUNT; i++) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(LATENCY_COUNT, snapshot.getCount());
+        assertEquals(LATENCY_COUNT, snapshot.getMax(TimeUnit.MILLISECONDS));
+        assertEquals(500, snapshot.getMean(TimeUnit.MILLISECONDS));
+        assertWithinError(500, snapshot.getPercentile(50, TimeUnit.MILLISECONDS));
+        assertWithinError(990, snapshot.getPercentile(99, TimeUnit.MILLISECONDS));
+        assertEquals(LATENCY_COUNT, snapshot.getPercentile(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test an empty histogram reports zero values.
+     */
+    @Test
+    public void testEmptyHistogram() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMean(TimeUnit.MILLISECONDS));
+        assertEquals(0, snapshot.getPercentile(99, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test the metrics are kept per host, with the retry and redirect counts.
+     */
+    @Test
+    public void testMetricsPerHost() {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.record(HOST, CallPhase.DNS, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.record(HOST, CallPhase.CALL, TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.onRetry(HOST);
+        metrics.onRetry(HOST);
+        metrics.onRedirect("other.example.com");
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getHosts().size());
+        assertEquals(1, snapshot.getHost(HOST).getPhase(CallPhase.DNS).getCount());
+        assertEquals(0, snapshot.getHost(HOST).getPhase(CallPhase.TLS).getCount());
+        assertEquals(2, snapshot.getHost(HOST).getRetryCount());
+        assertEquals(2, snapshot.getRetryCount());
+        assertEquals(1, snapshot.getRedirectCount());
+        assertEquals(0, snapshot.getHost("unknown.example.com").getRetryCount());
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected * MAX_RELATIVE_ERROR);
+    }
+}
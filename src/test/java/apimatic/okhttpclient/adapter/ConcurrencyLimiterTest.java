@@ -0,0 +1,139 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimitExceededException;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimiterConfiguration;
+
+public class ConcurrencyLimiterTest {
+
+    /**
+     * Host of the calls.
+     */
+    private static final String HOST = "example.com";
+
+    /**
+     * Initial limit of the hosts.
+     */
+    private static final int INITIAL_LIMIT = 4;
+
+    /**
+     * Latency of a fast call, in milliseconds.
+     */
+    private static final long FAST_LATENCY = 10;
+
+    /**
+     * Latency of a slow call, in milliseconds.
+     */
+    private static final long SLOW_LATENCY = 2000;
+
+    /**
+     * Test the calls over the limit wait in order and are rejected once the queue is full.
+     * @throws Exception if acquiring a permit fails.
+     */
+    @Test
+    public void testCallsOverLimitAreQueuedThenRejected() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new ConcurrencyLimiterConfiguration.Builder().initialLimit(1).maxQueueSize(1)
+                        .build());
+
+        ConcurrencyLimiter.Permit permit = limiter.acquire(HOST);
+        CompletableFuture<ConcurrencyLimiter.Permit> waiter = limiter.acquireAsync(HOST);
+        CompletableFuture<ConcurrencyLimiter.Permit> rejected = limiter.acquireAsync(HOST);
+
+        assertFalse(waiter.isDone());
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+        }
+        assertTrue(limiter.acquireAsync("other.example.com").isDone());
+
+        permit.onIgnored();
+        assertTrue(waiter.isDone());
+        assertEquals(1, limiter.getInFlight(HOST));
+        assertEquals(0, limiter.getQueueSize(HOST));
+    }
+
+    /**
+     * Test a cancelled wait is skipped when a permit is released.
+     * @throws Exception if acquiring a permit fails.
+     */
+    @Test
+    public void testCancelledWaitIsSkipped() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new ConcurrencyLimiterConfiguration.Builder().initialLimit(1).build());
+
+        ConcurrencyLimiter.Permit permit = limiter.acquire(HOST);
+        CompletableFuture<ConcurrencyLimiter.Permit> cancelled = limiter.acquireAsync(HOST);
+        CompletableFuture<ConcurrencyLimiter.Permit> waiter = limiter.acquireAsync(HOST);
+        cancelled.cancel(false);
+
+        permit.onIgnored();
+        assertTrue(waiter.isDone());
+        assertEquals(1, limiter.getInFlight(HOST));
+    }
+
+    /**
+     * Test the limit grows with fast successful calls, shrinks with dropped or slow calls, and
+     * stays within its bounds.
+     * @throws Exception if acquiring a permit fails.
+     */
+    @Test
+    public void testLimitFollowsOutcomes() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new ConcurrencyLimiterConfiguration.Builder().initialLimit(INITIAL_LIMIT)
+                        .minLimit(2).maxLimit(INITIAL_LIMIT + 1).backoffRatio(0.5)
+                        .maxLatency(1, TimeUnit.SECONDS).build());
+        assertEquals(INITIAL_LIMIT, limiter.getLimit(HOST));
+
+        for (int i = 0; i < INITIAL_LIMIT * 2; i++) {
+            ConcurrencyLimiter.Permit[] permits = new ConcurrencyLimiter.Permit[INITIAL_LIMIT];
+            for (int j = 0; j < INITIAL_LIMIT; j++) {
+                permits[j] = limiter.acquire(HOST);
+            }
+            for (ConcurrencyLimiter.Permit permit : permits) {
+                permit.onSuccess(FAST_LATENCY, TimeUnit.MILLISECONDS);
+            }
+        }
+        assertEquals(INITIAL_LIMIT + 1, limiter.getLimit(HOST));
+
+        limiter.acquire(HOST).onSuccess(SLOW_LATENCY, TimeUnit.MILLISECONDS);
+        assertEquals(2, limiter.getLimit(HOST));
+
+        limiter.acquire(HOST).onDropped();
+        assertEquals(2, limiter.getLimit(HOST));
+        assertEquals(0, limiter.getInFlight(HOST));
+    }
+
+    /**
+     * Test a permit is released only once.
+     * @throws Exception if acquiring a permit fails.
+     */
+    @Test
+    public void testPermitIsReleasedOnce() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new ConcurrencyLimiterConfiguration.Builder().build());
+
+        ConcurrencyLimiter.Permit permit = limiter.acquire(HOST);
+        limiter.acquire(HOST);
+        permit.onDropped();
+        permit.onDropped();
+        assertEquals(1, limiter.getInFlight(HOST));
+    }
+
+    /**
+     * Test the invalid bounds are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBounds() {
+        new ConcurrencyLimiterConfiguration.Builder().minLimit(2).maxLimit(1).build();
+    }
+}
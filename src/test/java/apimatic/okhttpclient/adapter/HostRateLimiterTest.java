@@ -0,0 +1,130 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import io.apimatic.okhttpclient.adapter.interceptors.RateLimitInterceptor;
+import io.apimatic.okhttpclient.adapter.resilience.HostRateLimiter;
+import io.apimatic.okhttpclient.adapter.resilience.RateLimitExceededException;
+import okhttp3.Interceptor.Chain;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class HostRateLimiterTest {
+
+    /**
+     * Host of the calls.
+     */
+    private static final String HOST = "example.com";
+
+    /**
+     * Maximum requests per second.
+     */
+    private static final double REQUESTS_PER_SECOND = 10;
+
+    /**
+     * Maximum wait of a call, in seconds.
+     */
+    private static final long MAX_WAIT = 60;
+
+    /**
+     * Status code of a response rejected by the rate limit of the server.
+     */
+    private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+
+    /**
+     * Success status code.
+     */
+    private static final int SUCCESS_STATUS_CODE = 200;
+
+    /**
+     * Initializes mocks annotated with Mock.
+     */
+    @Rule
+    public MockitoRule initRule = MockitoJUnit.rule().silent();
+
+    /**
+     * Mock of {@link Chain}.
+     */
+    @Mock
+    private Chain chain;
+
+    /**
+     * Test the calls to a host are spaced by the configured rate, independently of other hosts.
+     */
+    @Test
+    public void testCallsArePacedPerHost() {
+        HostRateLimiter rateLimiter = new HostRateLimiter(REQUESTS_PER_SECOND, MAX_WAIT,
+                TimeUnit.SECONDS);
+
+        assertEquals(0, rateLimiter.reserve(HOST));
+        long waitNanos = rateLimiter.reserve(HOST);
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, rateLimiter.reserve("other.example.com"));
+        assertEquals(1, rateLimiter.getDelayedCallCount());
+    }
+
+    /**
+     * Test the calls are rejected while a pause exceeds the maximum wait.
+     */
+    @Test
+    public void testPauseLongerThanMaxWaitRejectsCalls() {
+        HostRateLimiter rateLimiter = new HostRateLimiter(0, 1, TimeUnit.SECONDS);
+
+        rateLimiter.pause(HOST, MAX_WAIT, TimeUnit.SECONDS);
+        assertEquals(-1, rateLimiter.reserve(HOST));
+        assertEquals(0, rateLimiter.reserve("other.example.com"));
+        assertEquals(1, rateLimiter.getRejectedCallCount());
+    }
+
+    /**
+     * Test a Retry-After header of a 429 response pauses all the calls to the host.
+     * @throws IOException if the interceptor fails.
+     */
+    @Test(expected = RateLimitExceededException.class)
+    public void testRetryAfterPausesHost() throws IOException {
+        HostRateLimiter rateLimiter = new HostRateLimiter(0, 1, TimeUnit.SECONDS);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimiter);
+        Request request = new Request.Builder().url("https://" + HOST + "/path").build();
+        when(chain.request()).thenReturn(request);
+        when(chain.proceed(any(Request.class))).thenReturn(
+                createResponse(request, TOO_MANY_REQUESTS_STATUS_CODE, "Retry-After", "60"));
+
+        interceptor.intercept(chain);
+        interceptor.intercept(chain);
+    }
+
+    /**
+     * Test the calls are spread over the quota announced by the RateLimit headers.
+     * @throws IOException if the interceptor fails.
+     */
+    @Test
+    public void testQuotaSpreadsCalls() throws IOException {
+        HostRateLimiter rateLimiter = new HostRateLimiter(0, MAX_WAIT, TimeUnit.SECONDS);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimiter);
+        Request request = new Request.Builder().url("https://" + HOST + "/path").build();
+        when(chain.request()).thenReturn(request);
+        when(chain.proceed(any(Request.class))).thenReturn(createResponse(request,
+                SUCCESS_STATUS_CODE, "RateLimit-Remaining", "2", "RateLimit-Reset", "10"));
+
+        interceptor.intercept(chain);
+
+        assertEquals(0, rateLimiter.reserve(HOST));
+        assertTrue(rateLimiter.reserve(HOST) > TimeUnit.SECONDS.toNanos(4));
+    }
+
+    private static Response createResponse(Request request, int code, String... headers) {
+        return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(code)
+                .message("").headers(okhttp3.Headers.of(headers)).build();
+    }
+}
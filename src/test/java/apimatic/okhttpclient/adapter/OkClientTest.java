@@ -1,25 +1,53 @@
 package apimatic.okhttpclient.adapter;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLSocket;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -27,6 +55,7 @@ import org.mockito.quality.Strictness;
 import apimatic.okhttpclient.adapter.mocks.OkHttpClientMock;
 import io.apimatic.coreinterfaces.http.ClientConfiguration;
 import io.apimatic.coreinterfaces.http.HttpHeaders;
+import io.apimatic.coreinterfaces.http.HttpMethodType;
 import io.apimatic.coreinterfaces.http.Method;
 import io.apimatic.coreinterfaces.http.request.Multipart;
 import io.apimatic.coreinterfaces.http.request.MultipartFile;
@@ -35,7 +64,24 @@ import io.apimatic.coreinterfaces.http.request.configuration.RetryOption;
 import io.apimatic.coreinterfaces.http.response.Response;
 import io.apimatic.coreinterfaces.logger.ApiLogger;
 import io.apimatic.coreinterfaces.type.CoreFileWrapper;
+import io.apimatic.okhttpclient.adapter.ConnectionProfile;
+import io.apimatic.okhttpclient.adapter.DnsCacheConfiguration;
 import io.apimatic.okhttpclient.adapter.OkClient;
+import io.apimatic.okhttpclient.adapter.OkClientConfiguration;
+import io.apimatic.okhttpclient.adapter.RequestCompressionConfiguration;
+import io.apimatic.okhttpclient.adapter.TlsConfiguration;
+import io.apimatic.okhttpclient.adapter.interceptors.CacheStatisticsInterceptor;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.ConcurrencyLimiterConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.HedgingConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.RequestHedger;
+import okhttp3.TlsVersion;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
 
 public class OkClientTest extends OkHttpClientMock {
 
@@ -64,12 +110,118 @@ public class OkClientTest extends OkHttpClientMock {
      */
     private static final long CALL_TIMEOUT = 1L;
 
+    /**
+     * Maximum requests per host.
+     */
+    private static final int MAX_REQUESTS_PER_HOST = 20;
+
+    /**
+     * Connections opened to each warmed up host.
+     */
+    private static final int PREWARM_CONNECTIONS = 2;
+
+    /**
+     * Interval between the warm-ups of the connections.
+     */
+    private static final long KEEP_WARM_INTERVAL_MILLIS = 100L;
+
+    /**
+     * Name of the thread of the dispatchers run by the tests.
+     */
+    private static final String DISPATCHER_THREAD_NAME = "Test Dispatcher";
+
+    /**
+     * Name of the thread of the blocking leaders of the coalesced requests.
+     */
+    private static final String LEADER_THREAD_NAME = "Test Leader";
+
+    /**
+     * Name of the thread of the blocking followers of the coalesced requests.
+     */
+    private static final String FOLLOWER_THREAD_NAME = "Test Follower";
+
+    /**
+     * Body of the response shared by the coalesced requests.
+     */
+    private static final String COALESCED_BODY = "Coalesced Response";
+
+    /**
+     * Number of callers sharing a coalesced request.
+     */
+    private static final int COALESCED_CALLERS = 3;
+
+    /**
+     * Name of the thread of the blocking hedged calls.
+     */
+    private static final String CALLER_THREAD_NAME = "Test Caller";
+
+    /**
+     * Delay before a hedge is sent, in milliseconds.
+     */
+    private static final long HEDGE_DELAY_MILLIS = 50L;
+
+    /**
+     * Header marking the requests of the hedges, for the mock server.
+     */
+    private static final String HEDGE_HEADER = "X-Test-Hedge";
+
+    /**
+     * Delay of the late responses of the hedged calls, in milliseconds.
+     */
+    private static final long LATE_RESPONSE_MILLIS = 200L;
+
+    /**
+     * Time given to the calls of a client to end, shorter than the hold of the late responses.
+     */
+    private static final long CALLS_END_TIMEOUT_MILLIS = 500L;
+
+    /**
+     * Maximum hedges, as a percentage of the calls, low enough to exhaust the budget.
+     */
+    private static final float LOW_HEDGE_PERCENT = 1;
+
+    /**
+     * Number of requests sent by two late calls, of which only the first is hedged.
+     */
+    private static final int ONE_HEDGE_REQUESTS = 3;
+
+    /**
+     * Maximum number of TLS sessions cached by the shared SSL contexts.
+     */
+    private static final int SESSION_CACHE_SIZE = 100;
+
+    /**
+     * Time to live of the TLS sessions cached by the shared SSL contexts.
+     */
+    private static final long SESSION_TIMEOUT_MINUTES = 10L;
+
+    /**
+     * Version of Java introducing virtual threads.
+     */
+    private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+
+    /**
+     * Maximum size of the HTTP response cache.
+     */
+    private static final long CACHE_SIZE = 1024L * 1024L;
+
+    /**
+     * Maximum number of converted responses kept in memory.
+     */
+    private static final int MAX_CACHED_RESPONSES = 10;
+
     /**
      * Initializes mocks annotated with Mock.
      */
     @Rule
     public MockitoRule initRule = MockitoJUnit.rule().strictness(Strictness.LENIENT);
 
+    /**
+     * Temporary directories removed after each test.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     /**
      * Mock of {@link ClientConfiguration}.
      */
@@ -151,6 +303,50 @@ public class OkClientTest extends OkHttpClientMock {
         assertNotNull(getClient());
     }
 
+    /**
+     * Test the default and the insecure clients share one dispatcher and one connection pool.
+     */
+    @Test
+    public void testInsecureClientSharesConnectionResources() {
+        okhttp3.OkHttpClient defaultClient =
+                new OkClient(clientConfiguration, getCompatibilityFactory()).getHttpClient();
+        when(clientConfiguration.skipSslCertVerification()).thenReturn(true);
+        okhttp3.OkHttpClient insecureClient =
+                new OkClient(clientConfiguration, getCompatibilityFactory()).getHttpClient();
+
+        assertSame(defaultClient.dispatcher(), insecureClient.dispatcher());
+        assertSame(defaultClient.connectionPool(), insecureClient.connectionPool());
+    }
+
+    /**
+     * Test a connection opened by the insecure client is not reused by the verifying client
+     * for the same host, whose certificate it does not trust.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testInsecureConnectionIsNotReusedByVerifyingClient() throws Exception {
+        try (MockWebServer server = newHttpsServer()) {
+            server.enqueue(new MockResponse());
+            server.enqueue(new MockResponse());
+            okhttp3.OkHttpClient verifyingClient =
+                    new OkClient(clientConfiguration, getCompatibilityFactory()).getHttpClient();
+            when(clientConfiguration.skipSslCertVerification()).thenReturn(true);
+            okhttp3.OkHttpClient insecureClient =
+                    new OkClient(clientConfiguration, getCompatibilityFactory()).getHttpClient();
+            okhttp3.Request request = new okhttp3.Request.Builder().url(server.url("/")).build();
+
+            try (okhttp3.Response response = insecureClient.newCall(request).execute()) {
+                assertEquals(SUCCESS_STATUS_CODE, response.code());
+            }
+            try {
+                verifyingClient.newCall(request).execute().close();
+                fail("The verifying client must not trust the server certificate");
+            } catch (SSLHandshakeException e) {
+                assertEquals(1, server.getRequestCount());
+            }
+        }
+    }
+
     /**
      * test the client shutdown behaviour.
      */
@@ -180,6 +376,696 @@ public class OkClientTest extends OkHttpClientMock {
         assertNotNull(getClient());
     }
 
+    /**
+     * Test the connection profile is applied on a dedicated dispatcher and connection pool.
+     */
+    @Test
+    public void testConnectionProfile() {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        ConnectionProfile profile = ConnectionProfile.HIGH_THROUGHPUT;
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().connectionProfile(profile)
+                        .maxRequestsPerHost(MAX_REQUESTS_PER_HOST).build());
+
+        verify(getOkHttpClientBuilder()).dispatcher(argThat(dispatcher ->
+                dispatcher.getMaxRequests() == profile.getMaxRequests()
+                        && dispatcher.getMaxRequestsPerHost() == MAX_REQUESTS_PER_HOST));
+        verify(getOkHttpClientBuilder()).connectionPool(any(okhttp3.ConnectionPool.class));
+    }
+
+    /**
+     * Test the OkClient instances with the same limits share their dispatcher and connection
+     * pool, until they are shut down.
+     */
+    @Test
+    public void testSharedConnectionLimits() {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        OkClientConfiguration okClientConfig = new OkClientConfiguration.Builder()
+                .connectionProfile(ConnectionProfile.HIGH_THROUGHPUT).build();
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(), okClientConfig);
+        new OkClient(clientConfiguration, getCompatibilityFactory(), okClientConfig);
+        OkClient.shutdown();
+        new OkClient(clientConfiguration, getCompatibilityFactory(), okClientConfig);
+
+        ArgumentCaptor<okhttp3.Dispatcher> dispatchers =
+                ArgumentCaptor.forClass(okhttp3.Dispatcher.class);
+        ArgumentCaptor<okhttp3.ConnectionPool> connectionPools =
+                ArgumentCaptor.forClass(okhttp3.ConnectionPool.class);
+        verify(getOkHttpClientBuilder(), times(3)).dispatcher(dispatchers.capture());
+        verify(getOkHttpClientBuilder(), times(3)).connectionPool(connectionPools.capture());
+        assertSame(dispatchers.getAllValues().get(0), dispatchers.getAllValues().get(1));
+        assertSame(connectionPools.getAllValues().get(0), connectionPools.getAllValues().get(1));
+        assertNotSame(dispatchers.getAllValues().get(0), dispatchers.getAllValues().get(2));
+        assertNotSame(connectionPools.getAllValues().get(0),
+                connectionPools.getAllValues().get(2));
+    }
+
+    /**
+     * Test virtual threads are ignored before Java 21, keeping the shared default dispatcher.
+     * Their dedicated dispatcher on Java 21 is tested by VirtualThreadsIT against the
+     * multi-release JAR.
+     */
+    @Test
+    public void testVirtualThreadsDispatcher() {
+        String javaVersion = System.getProperty("java.specification.version");
+        assumeTrue(javaVersion.startsWith("1.")
+                || Integer.parseInt(javaVersion) < VIRTUAL_THREADS_JAVA_VERSION);
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().useVirtualThreads(true).build());
+
+        verify(getOkHttpClientBuilder(), never()).dispatcher(any(okhttp3.Dispatcher.class));
+        verify(getOkHttpClientBuilder(), never())
+                .connectionPool(any(okhttp3.ConnectionPool.class));
+    }
+
+    /**
+     * Test the default dispatcher and connection pool are kept when no limit is configured.
+     */
+    @Test
+    public void testDefaultConnectionLimits() {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                OkClientConfiguration.DEFAULT);
+
+        verify(getOkHttpClientBuilder(), never()).dispatcher(any(okhttp3.Dispatcher.class));
+        verify(getOkHttpClientBuilder(), never())
+                .connectionPool(any(okhttp3.ConnectionPool.class));
+    }
+
+    /**
+     * Test the invalid connection limits are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConnectionLimits() {
+        new OkClientConfiguration.Builder().maxRequestsPerHost(0);
+    }
+
+    /**
+     * Test the connections are opened ahead of the traffic and kept warm until the client is
+     * closed.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testKeepWarm() throws Exception {
+        // The first warm-ups are answered together, so that none of them reuses the
+        // connection of another one which completed before it started
+        CountDownLatch warmups = new CountDownLatch(PREWARM_CONNECTIONS);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+                @Override
+                public MockResponse dispatch(final RecordedRequest request)
+                        throws InterruptedException {
+                    warmups.countDown();
+                    warmups.await(1, TimeUnit.SECONDS);
+                    return new MockResponse();
+                }
+            });
+
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder()
+                            .prewarm(Collections.singletonList(server.url("/").toString()),
+                                    PREWARM_CONNECTIONS)
+                            .keepWarm(KEEP_WARM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+                            .build());
+
+            for (int i = 0; i < PREWARM_CONNECTIONS; i++) {
+                RecordedRequest warmup = server.takeRequest(1, TimeUnit.SECONDS);
+                assertEquals("HEAD", warmup.getMethod());
+                assertEquals(0, warmup.getSequenceNumber());
+            }
+            RecordedRequest keptWarm = server.takeRequest(1, TimeUnit.SECONDS);
+            assertEquals("HEAD", keptWarm.getMethod());
+
+            client.close();
+            Thread.sleep(KEEP_WARM_INTERVAL_MILLIS * 2);
+            int requestCount = server.getRequestCount();
+            Thread.sleep(KEEP_WARM_INTERVAL_MILLIS * 2);
+            assertEquals(requestCount, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Test a call waiting on the shared timer for its rate limit fails when the clients are
+     * shut down, instead of never completing.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testShutdownFailsDelayedCalls() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse());
+            stubServerRequest(server);
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder().rateLimiter(1, 1, TimeUnit.MINUTES)
+                            .build());
+
+            client.executeAsync(getRequest(), configuration);
+            CompletableFuture<Response> delayed = client.executeAsync(getRequest(), configuration);
+            OkClient.shutdown();
+
+            try {
+                delayed.get(1, TimeUnit.SECONDS);
+                fail("The delayed call must fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    /**
+     * Test a call rejected by its rate limit completes on the executor of the dispatcher.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testRateLimitRejectionIsDispatched() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        ExecutorService executor = newBlockedExecutor(blocked);
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse());
+            stubServerRequest(server);
+            when(clientConfiguration.getHttpClientInstance()).thenReturn(
+                    new okhttp3.OkHttpClient.Builder()
+                            .dispatcher(new okhttp3.Dispatcher(executor)).build());
+            when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder().rateLimiter(1, 1, TimeUnit.MILLISECONDS)
+                            .build());
+
+            client.executeAsync(getRequest(), configuration);
+            CompletableFuture<String> rejectionThread = client
+                    .executeAsync(getRequest(), configuration)
+                    .handle((response, error) -> Thread.currentThread().getName());
+            blocked.countDown();
+
+            assertEquals(DISPATCHER_THREAD_NAME, rejectionThread.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test a call rejected by the concurrency limiter completes on the executor of the
+     * dispatcher.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testConcurrencyLimitRejectionIsDispatched() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        ExecutorService executor = newBlockedExecutor(blocked);
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse());
+            stubServerRequest(server);
+            when(clientConfiguration.getHttpClientInstance()).thenReturn(
+                    new okhttp3.OkHttpClient.Builder()
+                            .dispatcher(new okhttp3.Dispatcher(executor)).build());
+            when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder().concurrencyLimiter(
+                            new ConcurrencyLimiterConfiguration.Builder().initialLimit(1)
+                                    .maxQueueSize(0).build())
+                            .build());
+
+            client.executeAsync(getRequest(), configuration);
+            CompletableFuture<String> rejectionThread = client
+                    .executeAsync(getRequest(), configuration)
+                    .handle((response, error) -> Thread.currentThread().getName());
+            blocked.countDown();
+
+            assertEquals(DISPATCHER_THREAD_NAME, rejectionThread.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test the configured protocols are applied on the client.
+     */
+    @Test
+    public void testHttp2PriorKnowledge() {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        List<okhttp3.Protocol> protocols =
+                Collections.singletonList(okhttp3.Protocol.H2_PRIOR_KNOWLEDGE);
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().protocols(protocols).build());
+
+        verify(getOkHttpClientBuilder()).protocols(protocols);
+    }
+
+    /**
+     * Test the configured TLS versions restrict the connection spec of the client.
+     */
+    @Test
+    public void testTlsVersions() {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().tls(new TlsConfiguration.Builder()
+                        .tlsVersions(okhttp3.TlsVersion.TLS_1_3).build()).build());
+
+        verify(getOkHttpClientBuilder()).connectionSpecs(argThat(specs -> specs.size() == 2
+                && specs.get(0).tlsVersions().equals(
+                        Collections.singletonList(okhttp3.TlsVersion.TLS_1_3))
+                && specs.get(1).equals(okhttp3.ConnectionSpec.CLEARTEXT)));
+    }
+
+    /**
+     * Test the OkClient instances resume the TLS sessions of each other.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testSharedTlsSessions() throws Exception {
+        when(clientConfiguration.skipSslCertVerification()).thenReturn(true);
+        OkClientConfiguration okClientConfig = new OkClientConfiguration.Builder()
+                .tls(new TlsConfiguration.Builder().tlsVersions(okhttp3.TlsVersion.TLS_1_2)
+                        .sessionCache(SESSION_CACHE_SIZE, SESSION_TIMEOUT_MINUTES,
+                                TimeUnit.MINUTES)
+                        .build())
+                .build();
+
+        try (MockWebServer server = newHttpsServer()) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_END));
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_END));
+
+            byte[] firstSessionId = getSessionId(new OkClient(clientConfiguration,
+                    getCompatibilityFactory(), okClientConfig), server);
+            byte[] secondSessionId = getSessionId(new OkClient(clientConfiguration,
+                    getCompatibilityFactory(), okClientConfig), server);
+
+            // Each call opened its own connection
+            assertEquals(0, server.takeRequest().getSequenceNumber());
+            assertEquals(0, server.takeRequest().getSequenceNumber());
+            assertTrue(firstSessionId.length > 0);
+            assertArrayEquals(firstSessionId, secondSessionId);
+        }
+    }
+
+    /**
+     * Test an OkClient setting another session cache on the shared SSL context is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConflictingTlsSessionCache() {
+        when(clientConfiguration.skipSslCertVerification()).thenReturn(true);
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().tls(new TlsConfiguration.Builder()
+                        .sessionCache(SESSION_CACHE_SIZE, SESSION_TIMEOUT_MINUTES,
+                                TimeUnit.MINUTES)
+                        .build()).build());
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().tls(new TlsConfiguration.Builder()
+                        .sessionCache(SESSION_CACHE_SIZE + 1, SESSION_TIMEOUT_MINUTES,
+                                TimeUnit.MINUTES)
+                        .build()).build());
+    }
+
+    /**
+     * Test the OkClient instances with equivalent configurations share their client and its
+     * state, unlike the ones with a different timeout.
+     */
+    @Test
+    public void testSharedClients() {
+        OkClientConfiguration okClientConfig = new OkClientConfiguration.Builder()
+                .shareClients(true).rateLimiter(0, 1, TimeUnit.SECONDS).build();
+
+        OkClient first = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                okClientConfig);
+        OkClient second = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                okClientConfig.newBuilder().build());
+        when(clientConfiguration.getTimeout()).thenReturn(DEFAULT_TIME_OUT + 1);
+        OkClient third = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                okClientConfig);
+
+        assertSame(first.getHostRateLimiter(), second.getHostRateLimiter());
+        assertNotSame(first.getHostRateLimiter(), third.getHostRateLimiter());
+    }
+
+    /**
+     * Test the configurations whose nested configurations are built separately with the same
+     * values are equal, and share their client, unlike the ones with a different nested value.
+     */
+    @Test
+    public void testSharedClientsWithNestedConfigurations() {
+        OkClientConfiguration okClientConfig = newNestedConfiguration(1);
+        OkClientConfiguration sameConfig = newNestedConfiguration(1);
+        OkClientConfiguration otherConfig = newNestedConfiguration(2);
+
+        assertEquals(okClientConfig, sameConfig);
+        assertEquals(okClientConfig.hashCode(), sameConfig.hashCode());
+        assertNotEquals(okClientConfig, otherConfig);
+
+        OkClient first = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                okClientConfig);
+        OkClient second = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                sameConfig);
+        OkClient third = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                otherConfig);
+
+        assertSame(first.getHttpClient(), second.getHttpClient());
+        assertSame(first.getConcurrencyLimiter(), second.getConcurrencyLimiter());
+        assertSame(first.getRequestHedger(), second.getRequestHedger());
+        assertNotSame(first.getHttpClient(), third.getHttpClient());
+        assertNotSame(first.getConcurrencyLimiter(), third.getConcurrencyLimiter());
+    }
+
+    /**
+     * Test the OkClient instances sharing their client share their response cache.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testSharedResponseCache() throws IOException {
+        try (MockWebServer server = new MockWebServer()) {
+            for (int i = 0; i < 2; i++) {
+                server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60")
+                        .setBody(COALESCED_BODY));
+            }
+            stubServerRequest(server);
+            OkClientConfiguration okClientConfig = new OkClientConfiguration.Builder()
+                    .shareClients(true)
+                    .responseCache(MAX_CACHED_RESPONSES, 1, TimeUnit.MINUTES).build();
+            OkClient first = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    okClientConfig);
+            OkClient second = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    okClientConfig);
+
+            first.execute(getRequest(), configuration);
+            assertSame(httpResponse, second.execute(getRequest(), configuration));
+
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Test prior knowledge cannot be combined with other protocols.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProtocols() {
+        new OkClientConfiguration.Builder().protocols(Arrays.asList(
+                okhttp3.Protocol.H2_PRIOR_KNOWLEDGE, okhttp3.Protocol.HTTP_1_1));
+    }
+
+    /**
+     * Test the HTTP response cache is applied with its statistics interceptor.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testHttpCache() throws IOException {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+
+        OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder()
+                        .cache(temporaryFolder.newFolder("http-cache"), CACHE_SIZE).build());
+
+        verify(getOkHttpClientBuilder()).cache(any(okhttp3.Cache.class));
+        verify(getOkHttpClientBuilder()).addInterceptor(any(CacheStatisticsInterceptor.class));
+        assertEquals(0, client.getHttpCacheStatistics().getHitCount());
+    }
+
+    /**
+     * Test the OkClient instances configuring the same directory share one HTTP response cache.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testSharedHttpCache() throws IOException {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        File directory = temporaryFolder.newFolder("shared-http-cache");
+
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().cache(directory, CACHE_SIZE).build());
+        new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder()
+                        .cache(new File(directory, "../" + directory.getName()), CACHE_SIZE)
+                        .build());
+
+        ArgumentCaptor<okhttp3.Cache> caches = ArgumentCaptor.forClass(okhttp3.Cache.class);
+        verify(getOkHttpClientBuilder(), times(2)).cache(caches.capture());
+        assertSame(caches.getAllValues().get(0), caches.getAllValues().get(1));
+    }
+
+    /**
+     * Test a fresh converted response is served from memory without a second call.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testResponseCache() throws IOException {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        when(getClient().newCall(any(okhttp3.Request.class))).thenReturn(getCall());
+
+        OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder()
+                        .responseCache(MAX_CACHED_RESPONSES, 1, TimeUnit.MINUTES).build());
+        when(getRequest().getHttpMethod()).thenReturn(Method.GET);
+
+        when(getCall().execute()).thenReturn(getOkhttp3Response());
+        when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
+        when(getOkhttp3Response().cacheControl()).thenReturn(okhttp3.CacheControl
+                .parse(okhttp3.Headers.of("Cache-Control", "max-age=60")));
+        String serverResponseString = "Get Response";
+        when(httpResponse.getBody()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
+        when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
+        when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
+                any(InputStream.class), anyString())).thenReturn(httpResponse);
+
+        client.execute(getRequest(), configuration);
+        Response coreHttpResponse = client.execute(getRequest(), configuration);
+
+        assertEquals(serverResponseString, coreHttpResponse.getBody());
+        verify(getCall(), times(1)).execute();
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testConcurrencyLimiter() throws IOException {
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(getClient());
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        when(getClient().newCall(any(okhttp3.Request.class))).thenReturn(getCall());
+
+        OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().concurrencyLimiter(
+                        new ConcurrencyLimiterConfiguration.Builder().initialLimit(1).build())
+                        .build());
+        when(getRequest().getHttpMethod()).thenReturn(Method.GET);
+
+        when(getCall().execute()).thenReturn(getOkhttp3Response());
+        when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
+        String serverResponseString = "Get Response";
+        when(httpResponse.getBody()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
+        when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
+        when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
+                any(InputStream.class), anyString())).thenReturn(httpResponse);
+
+        client.execute(getRequest(), configuration);
+        Response coreHttpResponse = client.execute(getRequest(), configuration);
+
+        assertEquals(serverResponseString, coreHttpResponse.getBody());
+        assertEquals(0, client.getConcurrencyLimiter().getInFlight("localhost"));
+        assertEquals(1, client.getConcurrencyLimiter().getLimit("localhost"));
+    }
+
+    /**
+     * Test identical GET requests sent while the first one is in flight share its single call,
+     * from both execute and executeAsync, each of them getting its own stream over the body.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testCoalescedRequests() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(newHeldDispatcher(received, release,
+                    new MockResponse().setBody(COALESCED_BODY)));
+            stubServerRequest(server);
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder().coalesceRequests().build());
+
+            FutureTask<Response> leader = startExecute(client, LEADER_THREAD_NAME);
+            assertTrue(received.await(1, TimeUnit.SECONDS));
+            FutureTask<Response> follower = startExecute(client, FOLLOWER_THREAD_NAME);
+            awaitBlocked(follower);
+            CompletableFuture<Response> asyncFollower =
+                    client.executeAsync(getRequest(), configuration);
+            release.countDown();
+
+            assertSame(httpResponse, leader.get(1, TimeUnit.SECONDS));
+            assertSame(httpResponse, follower.get(1, TimeUnit.SECONDS));
+            assertSame(httpResponse, asyncFollower.get(1, TimeUnit.SECONDS));
+            assertEquals(1, server.getRequestCount());
+            assertOwnBodyStreams(COALESCED_CALLERS);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Test the identical GET requests joining an asynchronous call share its single call.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testCoalescedAsyncRequests() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(newHeldDispatcher(received, release,
+                    new MockResponse().setBody(COALESCED_BODY)));
+            stubServerRequest(server);
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder().coalesceRequests().build());
+
+            CompletableFuture<Response> leader = client.executeAsync(getRequest(), configuration);
+            assertTrue(received.await(1, TimeUnit.SECONDS));
+            FutureTask<Response> follower = startExecute(client, FOLLOWER_THREAD_NAME);
+            awaitBlocked(follower);
+            CompletableFuture<Response> asyncFollower =
+                    client.executeAsync(getRequest(), configuration);
+            release.countDown();
+
+            assertSame(httpResponse, leader.get(1, TimeUnit.SECONDS));
+            assertSame(httpResponse, follower.get(1, TimeUnit.SECONDS));
+            assertSame(httpResponse, asyncFollower.get(1, TimeUnit.SECONDS));
+            assertEquals(1, server.getRequestCount());
+            assertOwnBodyStreams(COALESCED_CALLERS);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Test the failure of a blocking leader reaches all the requests of its flight.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testCoalescedLeaderFailure() throws Exception {
+        assertLeaderFailureReachesFollowers(false);
+    }
+
+    /**
+     * Test the failure of an asynchronous leader reaches all the requests of its flight.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testCoalescedAsyncLeaderFailure() throws Exception {
+        assertLeaderFailureReachesFollowers(true);
+    }
+
+    /**
+     * Test the response of a hedge sent for a late blocking call is used, and the late call
+     * cancelled.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testHedgeWins() throws Exception {
+        assertHedgeWins(false);
+    }
+
+    /**
+     * Test the response of a hedge sent for a late asynchronous call is used, and the late
+     * call cancelled.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testAsyncHedgeWins() throws Exception {
+        assertHedgeWins(true);
+    }
+
+    /**
+     * Test the failure of a hedge waits for the late blocking call still in flight.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testHedgeFailureWaitsForCall() throws Exception {
+        assertFailureWaitsForCall(false);
+    }
+
+    /**
+     * Test the failure of a hedge waits for the late asynchronous call still in flight.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testAsyncHedgeFailureWaitsForCall() throws Exception {
+        assertFailureWaitsForCall(true);
+    }
+
+    /**
+     * Test a blocking hedged call fails once both of its calls failed.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testHedgedCallsFail() throws Exception {
+        assertHedgedCallsFail(false);
+    }
+
+    /**
+     * Test an asynchronous hedged call fails once, when both of its calls failed.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testAsyncHedgedCallsFail() throws Exception {
+        assertHedgedCallsFail(true);
+    }
+
+    /**
+     * Test a late blocking call is not hedged once the hedge budget is exhausted.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testExhaustedHedgeBudget() throws Exception {
+        assertHedgeSkipped(false);
+    }
+
+    /**
+     * Test a late asynchronous call is not hedged once the hedge budget is exhausted.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testAsyncExhaustedHedgeBudget() throws Exception {
+        assertHedgeSkipped(true);
+    }
+
+    /**
+     * Test an interrupted blocking hedged call cancels its call and the hedge not sent yet.
+     * Asynchronous calls have no cancellation of their own.
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testCancelledHedgedCall() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(newHeldDispatcher(received, release,
+                    new MockResponse().setBody(COALESCED_BODY)));
+            OkClient client = newHedgingClient(server, new HedgingConfiguration.Builder()
+                    .delay(CALLS_END_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).build());
+
+            FutureTask<Response> call = startExecute(client, CALLER_THREAD_NAME);
+            assertTrue(received.await(1, TimeUnit.SECONDS));
+            call.cancel(true);
+
+            awaitRunningCalls(client, 0);
+            assertNotNull(server.takeRequest());
+            assertNull(server.takeRequest(2 * CALLS_END_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            assertEquals(0, client.getRequestHedger().getHedgeCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
     /**
      * @throws IOException Signals that an I/O exception of some sort has occurred.
      */
@@ -200,7 +1086,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String fileWrapperString = fileWrapper.toString();
         when(httpResponse.getBody()).thenReturn(fileWrapperString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(fileWrapperString);
+        stubOkhttp3ResponseBody(fileWrapperString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -234,7 +1120,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String fileWrapperString = fileWrapper.toString();
         when(httpResponse.getBody()).thenReturn(fileWrapperString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(fileWrapperString);
+        stubOkhttp3ResponseBody(fileWrapperString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -264,7 +1150,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String fileWrapperString = fileWrapper.toString();
         when(httpResponse.getBody()).thenReturn(fileWrapperString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(fileWrapperString);
+        stubOkhttp3ResponseBody(fileWrapperString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
                 any(InputStream.class), anyString())).thenReturn(httpResponse);
@@ -292,7 +1178,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "Get Response";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
                 any(InputStream.class), anyString())).thenReturn(httpResponse);
@@ -321,7 +1207,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "Get Response";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -352,7 +1238,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "Get Response";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -383,7 +1269,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "Get Response";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -438,7 +1324,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "File has been posted";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -476,7 +1362,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "File has been posted";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -512,7 +1398,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getCall().execute()).thenReturn(getOkhttp3Response());
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -547,7 +1433,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getCall().execute()).thenReturn(getOkhttp3Response());
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -581,7 +1467,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "form paramaters";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -609,7 +1495,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "empty body";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -642,7 +1528,7 @@ public class OkClientTest extends OkHttpClientMock {
         when(getOkhttp3Response().body()).thenReturn(getOkhttp3ResponseBody());
         String serverResponseString = "form parameters sent";
         when(httpResponse.getBody()).thenReturn(serverResponseString);
-        when(getOkhttp3ResponseBody().string()).thenReturn(serverResponseString);
+        stubOkhttp3ResponseBody(serverResponseString);
         when(getOkhttp3Response().code()).thenReturn(SUCCESS_STATUS_CODE);
 
         when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
@@ -692,6 +1578,331 @@ public class OkClientTest extends OkHttpClientMock {
         assertEquals(actual, expected);
     }
 
+    private static OkClientConfiguration newNestedConfiguration(int initialLimit) {
+        return new OkClientConfiguration.Builder().shareClients(true)
+                .circuitBreaker(new CircuitBreakerConfiguration.Builder()
+                        .slidingWindowSize(MAX_CACHED_RESPONSES).build())
+                .concurrencyLimiter(new ConcurrencyLimiterConfiguration.Builder()
+                        .initialLimit(initialLimit).build())
+                .hedging(new HedgingConfiguration.Builder()
+                        .delay(HEDGE_DELAY_MILLIS, TimeUnit.MILLISECONDS).build())
+                .dnsCache(new DnsCacheConfiguration.Builder()
+                        .ttl(KEEP_WARM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS).build())
+                .tls(new TlsConfiguration.Builder()
+                        .tlsVersions(TlsVersion.TLS_1_3, TlsVersion.TLS_1_2).build())
+                .requestCompression(new RequestCompressionConfiguration.Builder()
+                        .pathPrefixes("/upload").build())
+                .build();
+    }
+
+    private static MockWebServer newHttpsServer() {
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost").build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(certificate).build();
+        MockWebServer server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        return server;
+    }
+
+    private static byte[] getSessionId(OkClient client, MockWebServer server)
+            throws IOException {
+        AtomicReference<byte[]> sessionId = new AtomicReference<>();
+        okhttp3.OkHttpClient.Builder builder = client.getHttpClient().newBuilder();
+        builder.interceptors().clear();
+        okhttp3.OkHttpClient httpClient = builder.addNetworkInterceptor(chain -> {
+            sessionId.set(((SSLSocket) chain.connection().socket()).getSession().getId());
+            return chain.proceed(chain.request());
+        }).build();
+        try (okhttp3.Response response = httpClient
+                .newCall(new okhttp3.Request.Builder().url(server.url("/")).build()).execute()) {
+            assertEquals(SUCCESS_STATUS_CODE, response.code());
+        }
+        return sessionId.get();
+    }
+
+    private void stubServerRequest(MockWebServer server) throws IOException {
+        when(getRequest().getQueryUrl()).thenReturn(server.url("/").toString());
+        when(getRequest().getHttpMethod()).thenReturn(Method.GET);
+        when(getCompatibilityFactory().createHttpResponse(anyInt(), any(HttpHeaders.class),
+                any(InputStream.class), anyString())).thenReturn(httpResponse);
+    }
+
+    private void assertLeaderFailureReachesFollowers(boolean asyncLeader) throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(newHeldDispatcher(received, release,
+                    new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST)));
+            stubServerRequest(server);
+            OkClient client = new OkClient(clientConfiguration, getCompatibilityFactory(),
+                    new OkClientConfiguration.Builder().coalesceRequests().build());
+
+            Future<Response> leader = asyncLeader
+                    ? client.executeAsync(getRequest(), configuration)
+                    : startExecute(client, LEADER_THREAD_NAME);
+            assertTrue(received.await(1, TimeUnit.SECONDS));
+            FutureTask<Response> follower = startExecute(client, FOLLOWER_THREAD_NAME);
+            awaitBlocked(follower);
+            CompletableFuture<Response> asyncFollower =
+                    client.executeAsync(getRequest(), configuration);
+            release.countDown();
+
+            for (Future<Response> call : Arrays.asList(leader, follower, asyncFollower)) {
+                try {
+                    call.get(1, TimeUnit.SECONDS);
+                    fail("The coalesced call must fail");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IOException);
+                }
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void assertHedgeWins(boolean async) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(newLateCallDispatcher(release,
+                    new MockResponse().setBody(COALESCED_BODY),
+                    new MockResponse().setBody(COALESCED_BODY)));
+            OkClient client = newHedgingClient(server, new HedgingConfiguration.Builder()
+                    .delay(HEDGE_DELAY_MILLIS, TimeUnit.MILLISECONDS).build());
+
+            assertSame(httpResponse, startCall(client, async).get(1, TimeUnit.SECONDS));
+
+            // The late call ends before its response is released
+            awaitRunningCalls(client, 0);
+            assertEquals(2, server.getRequestCount());
+            assertEquals(1, client.getRequestHedger().getHedgeWinCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void assertFailureWaitsForCall(boolean async) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(newLateCallDispatcher(release,
+                    new MockResponse().setBody(COALESCED_BODY),
+                    new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST)));
+            OkClient client = newHedgingClient(server, new HedgingConfiguration.Builder()
+                    .delay(HEDGE_DELAY_MILLIS, TimeUnit.MILLISECONDS).build());
+
+            Future<Response> call = startCall(client, async);
+            awaitHedgeSent(client);
+            awaitRunningCalls(client, 1);
+            assertFalse(call.isDone());
+            release.countDown();
+
+            assertSame(httpResponse, call.get(1, TimeUnit.SECONDS));
+            assertEquals(0, client.getRequestHedger().getHedgeWinCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void assertHedgedCallsFail(boolean async) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            MockResponse disconnect =
+                    new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+            server.setDispatcher(newLateCallDispatcher(release, disconnect, disconnect));
+            OkClient client = newHedgingClient(server, new HedgingConfiguration.Builder()
+                    .delay(HEDGE_DELAY_MILLIS, TimeUnit.MILLISECONDS).build());
+            clearInvocations(clientConfiguration);
+
+            Future<Response> call = startCall(client, async);
+            awaitHedgeSent(client);
+            awaitRunningCalls(client, 1);
+            assertFalse(call.isDone());
+            release.countDown();
+
+            try {
+                call.get(1, TimeUnit.SECONDS);
+                fail("The hedged call must fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            awaitRunningCalls(client, 0);
+            assertEquals(2, server.getRequestCount());
+            if (async) {
+                // The retry of a failure is considered once per failure passed on
+                verify(clientConfiguration, times(1)).shouldRetryOnTimeout();
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void assertHedgeSkipped(boolean async) throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            for (int i = 0; i < ONE_HEDGE_REQUESTS; i++) {
+                server.enqueue(new MockResponse().setBody(COALESCED_BODY)
+                        .setHeadersDelay(LATE_RESPONSE_MILLIS, TimeUnit.MILLISECONDS));
+            }
+            OkClient client = newHedgingClient(server, new HedgingConfiguration.Builder()
+                    .delay(HEDGE_DELAY_MILLIS, TimeUnit.MILLISECONDS)
+                    .maxHedges(LOW_HEDGE_PERCENT, 1).build());
+
+            assertSame(httpResponse, startCall(client, async).get(1, TimeUnit.SECONDS));
+            assertSame(httpResponse, startCall(client, async).get(1, TimeUnit.SECONDS));
+
+            awaitRunningCalls(client, 0);
+            assertEquals(ONE_HEDGE_REQUESTS, server.getRequestCount());
+            assertEquals(1, client.getRequestHedger().getHedgeCount());
+            assertEquals(1, client.getRequestHedger().getSkippedHedgeCount());
+        }
+    }
+
+    private OkClient newHedgingClient(MockWebServer server, HedgingConfiguration hedging)
+            throws IOException {
+        stubServerRequest(server);
+        when(clientConfiguration.getHttpMethodsToRetry())
+                .thenReturn(Collections.singleton(HttpMethodType.GET));
+        // A dispatcher of its own, whose running calls are only the ones of the test, and the
+        // requests of the calls created after the first one marked as hedges
+        AtomicReference<okhttp3.Call> firstCall = new AtomicReference<>();
+        okhttp3.OkHttpClient httpClient = new okhttp3.OkHttpClient.Builder()
+                .eventListenerFactory(call -> {
+                    firstCall.compareAndSet(null, call);
+                    return okhttp3.EventListener.NONE;
+                })
+                .addNetworkInterceptor(chain -> chain.proceed(chain.call() == firstCall.get()
+                        ? chain.request()
+                        : chain.request().newBuilder().header(HEDGE_HEADER, "true").build()))
+                .build();
+        when(clientConfiguration.getHttpClientInstance()).thenReturn(httpClient);
+        when(clientConfiguration.shouldOverrideHttpClientConfigurations()).thenReturn(true);
+        return new OkClient(clientConfiguration, getCompatibilityFactory(),
+                new OkClientConfiguration.Builder().hedging(hedging).build());
+    }
+
+    private Future<Response> startCall(OkClient client, boolean async) {
+        return async ? client.executeAsync(getRequest(), configuration)
+                : startExecute(client, CALLER_THREAD_NAME);
+    }
+
+    /**
+     * Waits until the hedge of a call has been sent.
+     * @param client The client sending the call.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void awaitHedgeSent(OkClient client) throws InterruptedException {
+        RequestHedger hedger = client.getRequestHedger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (hedger.getHedgeCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, hedger.getHedgeCount());
+    }
+
+    /**
+     * Waits until the calls of a client still running, along with their callbacks, are down
+     * to a given count.
+     * @param client The client running the calls.
+     * @param count The number of calls expected to run.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void awaitRunningCalls(OkClient client, int count)
+            throws InterruptedException {
+        okhttp3.Dispatcher dispatcher = client.getHttpClient().dispatcher();
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(CALLS_END_TIMEOUT_MILLIS);
+        while (dispatcher.runningCallsCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, dispatcher.runningCallsCount());
+    }
+
+    private FutureTask<Response> startExecute(OkClient client, String threadName) {
+        FutureTask<Response> call =
+                new FutureTask<>(() -> client.execute(getRequest(), configuration));
+        new Thread(call, threadName).start();
+        return call;
+    }
+
+    /**
+     * Waits until the thread of a blocking follower waits for the response of its flight.
+     * @param call The blocking call.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void awaitBlocked(FutureTask<Response> call) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!call.isDone() && System.nanoTime() < deadline) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (FOLLOWER_THREAD_NAME.equals(thread.getName())
+                        && thread.getState() == Thread.State.WAITING) {
+                    return;
+                }
+            }
+            Thread.sleep(1);
+        }
+        fail("The call did not join the flight");
+    }
+
+    private void assertOwnBodyStreams(int callers) throws IOException {
+        ArgumentCaptor<InputStream> streams = ArgumentCaptor.forClass(InputStream.class);
+        verify(getCompatibilityFactory(), times(callers)).createHttpResponse(anyInt(),
+                any(HttpHeaders.class), streams.capture(), anyString());
+        assertEquals(callers, new HashSet<>(streams.getAllValues()).size());
+        for (InputStream stream : streams.getAllValues()) {
+            byte[] body = new byte[COALESCED_BODY.length()];
+            assertEquals(body.length, stream.read(body));
+            assertEquals(COALESCED_BODY, new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static okhttp3.mockwebserver.Dispatcher newHeldDispatcher(CountDownLatch received,
+            CountDownLatch release, MockResponse response) {
+        return new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request)
+                    throws InterruptedException {
+                received.countDown();
+                release.await(1, TimeUnit.SECONDS);
+                return response;
+            }
+        };
+    }
+
+    /**
+     * Creates a dispatcher holding the response of the first call until released, while the
+     * hedges are answered at once, whatever the order the requests arrive in.
+     * @param release The latch releasing the response of the first call.
+     * @param late The response of the first call.
+     * @param hedge The response of the hedges.
+     * @return The dispatcher.
+     */
+    private static okhttp3.mockwebserver.Dispatcher newLateCallDispatcher(
+            CountDownLatch release, MockResponse late, MockResponse hedge) {
+        return new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request)
+                    throws InterruptedException {
+                if (request.getHeader(HEDGE_HEADER) != null) {
+                    return hedge;
+                }
+                release.await(1, TimeUnit.SECONDS);
+                return late;
+            }
+        };
+    }
+
+    private static ExecutorService newBlockedExecutor(CountDownLatch blocked) {
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                runnable -> new Thread(runnable, DISPATCHER_THREAD_NAME));
+        executor.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return executor;
+    }
+
     private void prepareStub() {
         when(configuration.getRetryOption()).thenReturn(RetryOption.DEFAULT);
 
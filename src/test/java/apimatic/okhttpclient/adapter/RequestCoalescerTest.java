@@ -0,0 +1,85 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.BufferedResponse;
+import io.apimatic.okhttpclient.adapter.BufferedResponseBody;
+import io.apimatic.okhttpclient.adapter.RequestCoalescer;
+import okhttp3.Request;
+
+public class RequestCoalescerTest {
+
+    /**
+     * Status code of a successful response.
+     */
+    private static final int SUCCESS_STATUS_CODE = 200;
+
+    /**
+     * The shared response.
+     */
+    private static final BufferedResponse RESPONSE = new BufferedResponse(SUCCESS_STATUS_CODE,
+            Collections.emptyMap(),
+            new BufferedResponseBody("{}".getBytes(StandardCharsets.UTF_8), null));
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testFollowersReceiveResponseOfLeader() throws IOException {
+        RequestCoalescer coalescer = new RequestCoalescer(Collections.emptyList());
+        Request request = request("token");
+
+        RequestCoalescer.Flight leader = coalescer.join(request);
+        RequestCoalescer.Flight follower = coalescer.join(request);
+
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+        assertFalse(follower.getResult().isDone());
+
+        leader.complete(RESPONSE);
+
+        assertSame(RESPONSE, follower.await());
+        assertEquals(0, coalescer.size());
+        assertTrue(coalescer.join(request).isLeader());
+    }
+
+    /**
+     * Test requests differing on a key header do not share a flight, unlike other headers.
+     */
+    @Test
+    public void testKeyHeaders() {
+        RequestCoalescer coalescer =
+                new RequestCoalescer(Collections.singletonList("Authorization"));
+
+        assertTrue(coalescer.join(request("first")).isLeader());
+        assertTrue(coalescer.join(request("second")).isLeader());
+        assertFalse(coalescer.join(request("first").newBuilder()
+                .header("X-Request-Id", "other").build()).isLeader());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test(expected = IOException.class)
+    public void testFollowersReceiveFailureOfLeader() throws IOException {
+        RequestCoalescer coalescer = new RequestCoalescer(Collections.emptyList());
+        Request request = request("token");
+        RequestCoalescer.Flight leader = coalescer.join(request);
+        RequestCoalescer.Flight follower = coalescer.join(request);
+
+        leader.fail(new IOException("Connection reset"));
+
+        follower.await();
+    }
+
+    private static Request request(String token) {
+        return new Request.Builder().url("https://localhost/reference-data")
+                .header("Authorization", token).build();
+    }
+}
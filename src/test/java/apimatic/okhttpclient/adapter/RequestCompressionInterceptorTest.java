@@ -0,0 +1,136 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.mockito.quality.Strictness;
+import io.apimatic.okhttpclient.adapter.RequestCompressionStatistics;
+import io.apimatic.okhttpclient.adapter.interceptors.RequestCompressionInterceptor;
+import okhttp3.Interceptor.Chain;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.GzipSource;
+import okio.Okio;
+
+public class RequestCompressionInterceptorTest {
+
+    /**
+     * Status code of a successful response.
+     */
+    private static final int SUCCESS_STATUS_CODE = 200;
+
+    /**
+     * Minimum size of a compressed body.
+     */
+    private static final long MINIMUM_SIZE = 1024;
+
+    /**
+     * Number of times the content of a large body is repeated.
+     */
+    private static final int REPEATS = 200;
+
+    /**
+     * Content of the bodies.
+     */
+    private static final String CONTENT = "{\"key\":\"value\"},";
+
+    /**
+     * Initializes mocks annotated with Mock.
+     */
+    @Rule
+    public MockitoRule initRule = MockitoJUnit.rule().strictness(Strictness.LENIENT);
+
+    /**
+     * Mock of {@link Chain}.
+     */
+    @Mock
+    private Chain chain;
+
+    /**
+     * The interceptor under test.
+     */
+    private RequestCompressionInterceptor interceptor;
+
+    /**
+     * Setup the interceptor and the chain response.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Before
+    public void setup() throws IOException {
+        interceptor = new RequestCompressionInterceptor(MINIMUM_SIZE,
+                Collections.singletonList("/ingest"));
+        when(chain.proceed(any(Request.class))).thenAnswer(invocation -> new Response.Builder()
+                .request(invocation.getArgument(0)).protocol(Protocol.HTTP_1_1)
+                .code(SUCCESS_STATUS_CODE).message("").build());
+    }
+
+    /**
+     * Test a large body of a matching endpoint is sent compressed.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testLargeBodyIsCompressed() throws IOException {
+        String content = String.join("", Collections.nCopies(REPEATS, CONTENT));
+        when(chain.request()).thenReturn(request("/ingest/events", content));
+
+        interceptor.intercept(chain);
+
+        ArgumentCaptor<Request> sent = ArgumentCaptor.forClass(Request.class);
+        verify(chain).proceed(sent.capture());
+        assertEquals("gzip", sent.getValue().header("Content-Encoding"));
+        assertEquals(-1, sent.getValue().body().contentLength());
+
+        Buffer compressed = new Buffer();
+        sent.getValue().body().writeTo(compressed);
+        long compressedSize = compressed.size();
+        assertEquals(content, Okio.buffer(new GzipSource(compressed)).readUtf8());
+
+        RequestCompressionStatistics statistics = new RequestCompressionStatistics(
+                interceptor.getCompressedCount(), interceptor.getUncompressedBytes(),
+                interceptor.getCompressedBytes());
+        assertEquals(1, statistics.getCompressedCount());
+        assertEquals(content.length(), statistics.getUncompressedBytes());
+        assertEquals(compressedSize, statistics.getCompressedBytes());
+        assertTrue(statistics.getCompressionRatio() < 1);
+    }
+
+    /**
+     * Test the small bodies and the bodies of other endpoints are sent as is.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testOtherBodiesAreNotCompressed() throws IOException {
+        String largeContent = String.join("", Collections.nCopies(REPEATS, CONTENT));
+        for (Request request : Arrays.asList(request("/ingest/events", CONTENT),
+                request("/query", largeContent))) {
+            when(chain.request()).thenReturn(request);
+
+            interceptor.intercept(chain);
+
+            verify(chain).proceed(request);
+        }
+        assertEquals(0, interceptor.getCompressedCount());
+    }
+
+    private static Request request(String path, String content) {
+        return new Request.Builder().url("https://localhost" + path)
+                .post(RequestBody.create(content, MediaType.get("application/json")))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.resilience.HedgingConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.RequestHedger;
+
+public class RequestHedgerTest {
+
+    /**
+     * Fixed hedging delay, in milliseconds.
+     */
+    private static final long DELAY = 50;
+
+    /**
+     * Number of recorded calls.
+     */
+    private static final int CALLS = 100;
+
+    /**
+     * Latency percentile used as the delay.
+     */
+    private static final double PERCENTILE = 95;
+
+    /**
+     * Maximum hedges, as a percentage of the calls.
+     */
+    private static final float HEDGE_PERCENT = 10;
+
+    /**
+     * Test the delay is fixed until enough latencies are recorded, then follows the percentile
+     * with the fixed delay as its floor.
+     */
+    @Test
+    public void testDelayFollowsLatencyPercentile() {
+        RequestHedger hedger = new RequestHedger(new HedgingConfiguration.Builder()
+                .delay(DELAY, TimeUnit.MILLISECONDS).latencyPercentile(PERCENTILE).build());
+        assertEquals(DELAY, hedger.getDelayMillis());
+
+        for (int i = 1; i <= CALLS; i++) {
+            hedger.onResponse(i * 2, TimeUnit.MILLISECONDS, false);
+        }
+        assertEquals(2 * (long) PERCENTILE, hedger.getDelayMillis());
+
+        RequestHedger fastHedger = new RequestHedger(new HedgingConfiguration.Builder()
+                .delay(DELAY, TimeUnit.MILLISECONDS).latencyPercentile(PERCENTILE).build());
+        for (int i = 0; i < CALLS; i++) {
+            fastHedger.onResponse(1, TimeUnit.MILLISECONDS, false);
+        }
+        assertEquals(DELAY, fastHedger.getDelayMillis());
+    }
+
+    /**
+     * Test the hedges are capped to a share of the calls.
+     */
+    @Test
+    public void testHedgesAreCapped() {
+        RequestHedger hedger = new RequestHedger(new HedgingConfiguration.Builder()
+                .maxHedges(HEDGE_PERCENT, 1).build());
+
+        assertTrue(hedger.tryAcquireHedge());
+        assertFalse(hedger.tryAcquireHedge());
+        for (int i = 0; i < CALLS / (int) HEDGE_PERCENT; i++) {
+            hedger.onCall();
+        }
+        assertTrue(hedger.tryAcquireHedge());
+        hedger.onResponse(DELAY, TimeUnit.MILLISECONDS, true);
+
+        assertEquals(2, hedger.getHedgeCount());
+        assertEquals(1, hedger.getHedgeWinCount());
+        assertEquals(1, hedger.getSkippedHedgeCount());
+    }
+
+    /**
+     * Test an invalid percentile is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new HedgingConfiguration.Builder().latencyPercentile(100);
+    }
+}
@@ -0,0 +1,151 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.BufferedResponse;
+import io.apimatic.okhttpclient.adapter.BufferedResponseBody;
+import io.apimatic.okhttpclient.adapter.ResponseCache;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class ResponseCacheTest {
+
+    /**
+     * Maximum number of cached responses.
+     */
+    private static final int MAX_ENTRIES = 2;
+
+    /**
+     * Maximum time to live of the cached responses.
+     */
+    private static final long MAX_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Status code of a successful response.
+     */
+    private static final int SUCCESS_STATUS_CODE = 200;
+
+    /**
+     * Status code of a server error.
+     */
+    private static final int SERVER_ERROR_STATUS_CODE = 500;
+
+    /**
+     * The cached response.
+     */
+    private static final BufferedResponse RESPONSE = new BufferedResponse(SUCCESS_STATUS_CODE,
+            Collections.emptyMap(),
+            new BufferedResponseBody("{}".getBytes(StandardCharsets.UTF_8), null));
+
+    /**
+     * Test a fresh response is served until evicted by more recently used ones.
+     */
+    @Test
+    public void testFreshResponseIsServedUntilEvicted() {
+        ResponseCache cache = new ResponseCache(MAX_ENTRIES, MAX_TTL_MILLIS);
+        Request first = request("https://localhost/first");
+
+        ResponseCache.Entry stored =
+                cache.put(first, response(first, SUCCESS_STATUS_CODE, "max-age=60"), RESPONSE);
+
+        assertSame(stored, cache.get(first));
+        assertFalse(stored.isStale());
+        assertSame(RESPONSE, stored.getResponse());
+
+        Request second = request("https://localhost/second");
+        Request third = request("https://localhost/third");
+        cache.put(second, response(second, SUCCESS_STATUS_CODE, "max-age=60"), RESPONSE);
+        cache.get(first);
+        cache.put(third, response(third, SUCCESS_STATUS_CODE, "max-age=60"), RESPONSE);
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertEquals(MAX_ENTRIES, cache.size());
+    }
+
+    /**
+     * Test a response past its max-age is served stale within its revalidation window.
+     */
+    @Test
+    public void testStaleWhileRevalidate() {
+        ResponseCache cache = new ResponseCache(MAX_ENTRIES, MAX_TTL_MILLIS);
+        Request request = request("https://localhost/stale");
+
+        cache.put(request, response(request, SUCCESS_STATUS_CODE,
+                "max-age=0, stale-while-revalidate=30"), RESPONSE);
+        ResponseCache.Entry entry = cache.get(request);
+
+        assertTrue(entry.isStale());
+        assertTrue(entry.startRefresh());
+        assertFalse(entry.startRefresh());
+        entry.refreshFailed();
+        assertTrue(entry.startRefresh());
+    }
+
+    /**
+     * Test the responses without explicit freshness or with an error status are not stored.
+     */
+    @Test
+    public void testUncacheableResponses() {
+        ResponseCache cache = new ResponseCache(MAX_ENTRIES, MAX_TTL_MILLIS);
+        Request request = request("https://localhost/uncacheable");
+
+        assertNull(cache.put(request, response(request, SUCCESS_STATUS_CODE, null), RESPONSE));
+        assertNull(cache.put(request,
+                response(request, SUCCESS_STATUS_CODE, "no-store, max-age=60"), RESPONSE));
+        assertNull(cache.put(request,
+                response(request, SERVER_ERROR_STATUS_CODE, "max-age=60"), RESPONSE));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test a no-cache request bypasses the cache and a new uncacheable response drops the entry.
+     */
+    @Test
+    public void testNoCacheRequestAndReplacedEntry() {
+        ResponseCache cache = new ResponseCache(MAX_ENTRIES, MAX_TTL_MILLIS);
+        Request request = request("https://localhost/replaced");
+        cache.put(request, response(request, SUCCESS_STATUS_CODE, "max-age=60"), RESPONSE);
+
+        assertNull(cache.get(request.newBuilder().header("Cache-Control", "no-cache").build()));
+
+        cache.put(request, response(request, SUCCESS_STATUS_CODE, "no-store"), RESPONSE);
+        assertNull(cache.get(request));
+    }
+
+    /**
+     * Test the entries of a URL are dropped on invalidation.
+     */
+    @Test
+    public void testInvalidate() {
+        ResponseCache cache = new ResponseCache(MAX_ENTRIES, MAX_TTL_MILLIS);
+        Request request = request("https://localhost/invalidated");
+        cache.put(request, response(request, SUCCESS_STATUS_CODE, "max-age=60"), RESPONSE);
+
+        cache.invalidate(request.url());
+
+        assertNull(cache.get(request));
+    }
+
+    private static Request request(String url) {
+        return new Request.Builder().url(url).build();
+    }
+
+    private static Response response(Request request, int code, String cacheControl) {
+        Response.Builder builder = new Response.Builder().request(request)
+                .protocol(Protocol.HTTP_1_1).code(code).message("");
+        if (cacheControl != null) {
+            builder.header("Cache-Control", cacheControl);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,82 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import io.apimatic.okhttpclient.adapter.OkClientConfiguration;
+import io.apimatic.okhttpclient.adapter.resilience.RetryBudget;
+
+public class RetryBudgetTest {
+
+    /**
+     * Maximum retries as a percentage of the first attempts.
+     */
+    private static final float RETRY_PERCENT = 20;
+
+    /**
+     * Maximum retries allowed in a burst.
+     */
+    private static final int MAX_RETRIES = 2;
+
+    /**
+     * First attempts earning a single retry at {@link #RETRY_PERCENT}.
+     */
+    private static final int ATTEMPTS_PER_RETRY = 5;
+
+    /**
+     * Test the retries are skipped once the budget is exhausted, until first attempts refill it.
+     */
+    @Test
+    public void testRetriesAreLimitedToShareOfFirstAttempts() {
+        RetryBudget budget = new RetryBudget(RetryBudget.Scope.CLIENT, RETRY_PERCENT,
+                MAX_RETRIES);
+
+        assertTrue(budget.tryAcquireRetry("first.example.com"));
+        assertTrue(budget.tryAcquireRetry("second.example.com"));
+        assertFalse(budget.tryAcquireRetry("first.example.com"));
+        assertEquals(1, budget.getSkippedRetries());
+
+        for (int i = 0; i < ATTEMPTS_PER_RETRY - 1; i++) {
+            budget.onFirstAttempt("first.example.com");
+        }
+        assertFalse(budget.tryAcquireRetry("first.example.com"));
+        budget.onFirstAttempt("second.example.com");
+        assertTrue(budget.tryAcquireRetry("first.example.com"));
+    }
+
+    /**
+     * Test the budget of a host is not drawn by the retries of another one.
+     */
+    @Test
+    public void testBudgetPerHost() {
+        RetryBudget budget = new RetryBudget(RetryBudget.Scope.HOST, RETRY_PERCENT, 1);
+
+        assertTrue(budget.tryAcquireRetry("first.example.com"));
+        assertFalse(budget.tryAcquireRetry("first.example.com"));
+        assertTrue(budget.tryAcquireRetry("second.example.com"));
+    }
+
+    /**
+     * Test the balance never exceeds the burst capacity.
+     */
+    @Test
+    public void testBalanceIsCapped() {
+        RetryBudget budget = new RetryBudget(RetryBudget.Scope.CLIENT, RETRY_PERCENT,
+                MAX_RETRIES);
+
+        for (int i = 0; i < ATTEMPTS_PER_RETRY * MAX_RETRIES * 2; i++) {
+            budget.onFirstAttempt("example.com");
+        }
+
+        assertEquals(MAX_RETRIES, budget.getAvailableRetries("example.com"));
+    }
+
+    /**
+     * Test the invalid budgets are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRetryBudget() {
+        new OkClientConfiguration.Builder().retryBudget(RetryBudget.Scope.CLIENT, 0, 1);
+    }
+}
@@ -1,13 +1,20 @@
 package apimatic.okhttpclient.adapter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.time.format.DateTimeParseException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -21,7 +28,9 @@ import io.apimatic.coreinterfaces.http.Method;
 import io.apimatic.coreinterfaces.http.request.configuration.CoreEndpointConfiguration;
 import io.apimatic.coreinterfaces.http.request.configuration.RetryOption;
 import io.apimatic.coreinterfaces.logger.ApiLogger;
+import io.apimatic.okhttpclient.adapter.interceptors.CallContext;
 import io.apimatic.okhttpclient.adapter.interceptors.RetryInterceptor;
+import io.apimatic.okhttpclient.adapter.resilience.CircuitBreakerOpenException;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.Interceptor.Chain;
@@ -139,7 +148,7 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
         when(request.url()).thenReturn(url);
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         Response httpResponse = interceptor.intercept(chain);
         assertFalse(httpResponse.isSuccessful());
     }
@@ -154,7 +163,7 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(request.method()).thenReturn(Method.GET.toString());
         when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         interceptor.intercept(chain);
     }
 
@@ -170,10 +179,30 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(request.url()).thenReturn(url);
         when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         interceptor.intercept(chain);
     }
 
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testNoRetryWhileCircuitBreakerOpen() throws IOException {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(clientConfiguration.shouldRetryOnTimeout()).thenReturn(true);
+        when(chain.proceed(request)).thenThrow(new CircuitBreakerOpenException("localhost"));
+        when(request.method()).thenReturn(Method.GET.toString());
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+        stubCallContext(false);
+        try {
+            interceptor.intercept(chain);
+            fail("The short-circuited call must fail");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals("localhost", e.getHost());
+        }
+        verify(chain, times(1)).proceed(request);
+    }
+
     /**
      * @throws IOException Signals that an I/O exception of some sort has occurred.
      */
@@ -184,7 +213,7 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(request.url()).thenReturn(url);
         when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         Response httpResponse = interceptor.intercept(chain);
         assertFalse(httpResponse.isSuccessful());
     }
@@ -201,7 +230,7 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(response.headers()).thenReturn(headers);
         when(request.url()).thenReturn(url);
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         Response httpResponse = interceptor.intercept(chain);
         assertFalse(httpResponse.isSuccessful());
     }
@@ -215,7 +244,7 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(request.method()).thenReturn(Method.GET.toString());
         when(response.header("Retry-After")).thenReturn("3N");
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         interceptor.intercept(chain);
     }
 
@@ -229,7 +258,7 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(request.method()).thenReturn(Method.GET.toString());
         when(response.header("Retry-After")).thenReturn("Wed, 13 Jul 2022 06:10:00 GMT");
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         interceptor.intercept(chain);
     }
 
@@ -241,11 +270,124 @@ public class RetryInterceptorTest extends CompatibilityFactoryMock {
         when(clientConfiguration.getNumberOfRetries()).thenReturn(0);
         when(request.method()).thenReturn(Method.GET.toString());
         RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
-        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        stubCallContext(false);
         Response httpResponse = interceptor.intercept(chain);
         assertFalse(httpResponse.isSuccessful());
     }
 
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testScheduledRetriesMakeSingleAttempt() throws IOException {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(request.method()).thenReturn(Method.GET.toString());
+        when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+        stubCallContext(true);
+
+        Response httpResponse = interceptor.intercept(chain);
+
+        verify(chain, times(1)).proceed(request);
+        assertFalse(httpResponse.isSuccessful());
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testScheduledRetryWaitTimeStopsAtMaximumWaitTime() throws IOException {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(request.method()).thenReturn(Method.GET.toString());
+        when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+        stubCallContext(true);
+
+        int scheduledRetries = 0;
+        while (interceptor.getScheduledRetryWaitTime(request, response, null) >= 0) {
+            scheduledRetries++;
+        }
+
+        assertTrue(scheduledRetries < NO_OF_RETRIES);
+        assertEquals(-1, interceptor.getScheduledRetryWaitTime(request, response, null));
+    }
+
+    /**
+     * @throws Exception Signals that an exception of some sort has occurred.
+     */
+    @Test
+    public void testScheduledRetryStopsAtCallDeadline() throws Exception {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(clientConfiguration.getRetryInterval()).thenReturn(0L);
+        when(clientConfiguration.getMaximumRetryWaitTime()).thenReturn(1L);
+        when(request.method()).thenReturn(Method.GET.toString());
+        when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+        CallContext callContext = spy(new CallContext(endpointConfiguration, null, true));
+        // The first attempt lasted the whole maximum retry wait time
+        when(callContext.getElapsedNanos()).thenReturn(TimeUnit.SECONDS.toNanos(1));
+        when(request.tag(CallContext.class)).thenReturn(callContext);
+
+        assertEquals(-1, interceptor.getScheduledRetryWaitTime(request, response, null));
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testScheduledRetryOnTimeoutNotAllowed() throws IOException {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(request.method()).thenReturn(Method.GET.toString());
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+        stubCallContext(true);
+
+        assertEquals(-1, interceptor.getScheduledRetryWaitTime(request, null,
+                new IOException("timeout")));
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testRequestWithoutCallContextIsRetried() throws IOException {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(clientConfiguration.getRetryInterval()).thenReturn(0L);
+        when(request.method()).thenReturn(Method.GET.toString());
+        when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+
+        interceptor.intercept(chain);
+        // Every interception starts from a state of its own
+        interceptor.intercept(chain);
+
+        verify(chain, times(2 * (NO_OF_RETRIES + 1))).proceed(request);
+        assertEquals(-1, interceptor.getScheduledRetryWaitTime(request, response, null));
+    }
+
+    /**
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testAddedRequestEntryAppliesEndpointConfiguration() throws IOException {
+        when(clientConfiguration.getNumberOfRetries()).thenReturn(NO_OF_RETRIES);
+        when(clientConfiguration.getRetryInterval()).thenReturn(0L);
+        when(request.method()).thenReturn(Method.GET.toString());
+        when(response.code()).thenReturn(BAD_REQUET_STATUS_CODE);
+        when(endpointConfiguration.getRetryOption()).thenReturn(RetryOption.DISABLE);
+        RetryInterceptor interceptor = new RetryInterceptor(clientConfiguration);
+
+        interceptor.addRequestEntry(request, endpointConfiguration, null);
+        interceptor.intercept(chain);
+
+        verify(chain, times(1)).proceed(request);
+    }
+
+    private void stubCallContext(boolean hasScheduledRetries) {
+        when(request.tag(CallContext.class))
+                .thenReturn(new CallContext(endpointConfiguration, null, hasScheduledRetries));
+    }
+
     private void prepareStub() throws IOException {
         Set<Method> methodToRetry = new HashSet<Method>();
         methodToRetry.add(Method.GET);
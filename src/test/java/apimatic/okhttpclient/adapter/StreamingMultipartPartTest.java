@@ -0,0 +1,83 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import io.apimatic.okhttpclient.adapter.StreamingMultipartPart;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+public class StreamingMultipartPartTest {
+
+    /**
+     * Content of the parts.
+     */
+    private static final String CONTENT = "streamed content";
+
+    /**
+     * Temporary folder of the streamed files.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Test a file part is named after the file and sent with its length, at every attempt.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testFilePart() throws IOException {
+        Path path = temporaryFolder.newFile("upload.txt").toPath();
+        Files.write(path, CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        StreamingMultipartPart part = new StreamingMultipartPart.Builder(path)
+                .contentType("text/plain").build();
+        RequestBody body = part.toRequestBody();
+
+        assertEquals("upload.txt", part.getFileName());
+        assertEquals(CONTENT.length(), body.contentLength());
+        assertEquals("text/plain", body.contentType().toString());
+        assertEquals(CONTENT, write(body));
+        assertEquals(CONTENT, write(body));
+    }
+
+    /**
+     * Test an input stream part opens a new stream for every attempt.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    @Test
+    public void testInputStreamPart() throws IOException {
+        AtomicInteger opened = new AtomicInteger();
+        StreamingMultipartPart part = new StreamingMultipartPart.Builder(() -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }).build();
+        RequestBody body = part.toRequestBody();
+
+        assertEquals(-1, body.contentLength());
+        assertEquals(CONTENT, write(body));
+        assertEquals(CONTENT, write(body));
+        assertEquals(2, opened.get());
+    }
+
+    /**
+     * Test the Content-Disposition header cannot be set on a part.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testContentDispositionHeaderIsRejected() {
+        new StreamingMultipartPart.Builder(() -> new ByteArrayInputStream(new byte[0]))
+                .header("Content-Disposition", "form-data");
+    }
+
+    private static String write(RequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer.readUtf8();
+    }
+}
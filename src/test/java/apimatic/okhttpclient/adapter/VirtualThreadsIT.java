@@ -0,0 +1,64 @@
+package apimatic.okhttpclient.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import io.apimatic.coreinterfaces.compatibility.CompatibilityFactory;
+import io.apimatic.coreinterfaces.http.ClientConfiguration;
+import io.apimatic.okhttpclient.adapter.OkClient;
+import io.apimatic.okhttpclient.adapter.OkClientConfiguration;
+
+/**
+ * Runs against the packaged multi-release JAR on Java 21 and later, where the Java 21 variant
+ * of the virtual threads support must be the one loaded.
+ */
+public class VirtualThreadsIT {
+
+    /**
+     * Time to wait for the dispatched task, in seconds.
+     */
+    private static final long TASK_TIMEOUT_SECONDS = 5L;
+
+    /**
+     * Feature version of the JDK introducing virtual threads.
+     */
+    private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+    /**
+     * Releases the dispatchers created by the test.
+     */
+    @After
+    public void tearDown() {
+        OkClient.shutdown();
+    }
+
+    /**
+     * Test the dispatcher of a client requesting virtual threads runs the calls on them.
+     * @throws Exception If the task fails or cannot be inspected.
+     */
+    @Test
+    public void testDispatcherRunsOnVirtualThreads() throws Exception {
+        assumeTrue(getFeatureVersion() >= VIRTUAL_THREADS_FEATURE_VERSION);
+        OkClient client = new OkClient(mock(ClientConfiguration.class),
+                mock(CompatibilityFactory.class),
+                new OkClientConfiguration.Builder().useVirtualThreads(true).build());
+
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        client.getHttpClient().dispatcher().executorService()
+                .execute(() -> thread.complete(Thread.currentThread()));
+
+        Method isVirtual = Thread.class.getMethod("isVirtual");
+        assertEquals(Boolean.TRUE,
+                isVirtual.invoke(thread.get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS)));
+    }
+
+    private static int getFeatureVersion() {
+        String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.") ? 1 : Integer.parseInt(version);
+    }
+}
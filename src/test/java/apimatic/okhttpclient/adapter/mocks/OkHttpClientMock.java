@@ -1,10 +1,12 @@
 package apimatic.okhttpclient.adapter.mocks;
 
+import static org.mockito.Mockito.when;
 import org.junit.Rule;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import okhttp3.Call;
+import okio.Buffer;
 
 public class OkHttpClientMock extends CompatibilityFactoryMock {
 
@@ -91,4 +93,13 @@ public class OkHttpClientMock extends CompatibilityFactoryMock {
     protected Call getCall() {
         return call;
     }
+
+    /**
+     * Stubs the mocked {@link okhttp3.ResponseBody} to serve the given UTF-8 content.
+     * @param content The response body content.
+     */
+    protected void stubOkhttp3ResponseBody(String content) {
+        when(okHttpResponseBody.contentLength()).thenReturn(-1L);
+        when(okHttpResponseBody.source()).thenReturn(new Buffer().writeUtf8(content));
+    }
 }